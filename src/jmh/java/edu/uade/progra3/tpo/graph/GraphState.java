@@ -0,0 +1,56 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+// Grafo sintético compartido por los benchmarks y un juego fijo de consultas. Los
+// destinos salen del mismo componente que el origen (orden BFS desde él), así ninguna
+// consulta degenera en recorrer todo el grafo sin encontrar el destino.
+@State(Scope.Benchmark)
+public class GraphState {
+    static final int QUERIES = 64;
+    // Posición en el orden BFS del destino "cercano" (enumeración de caminos, Yen, TSP)
+    private static final int NEAR_RANK = 40;
+
+    @Param({"GRID", "GEOMETRIC", "SCALE_FREE"})
+    public SyntheticGraphs.Shape shape;
+
+    @Param({"1000", "100000", "1000000"})
+    public int nodes;
+
+    @Param("42")
+    public long seed;
+
+    GraphSnapshot graph;
+    int[] sources;
+    int[] targets;
+    int[] nearTargets;
+    // Ciudades en orden BFS desde sources[0]; prefijos de este arreglo son las paradas del TSP
+    int[] neighbourhood;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        graph = SyntheticGraphs.generate(shape, nodes, seed);
+        Random random = new Random(seed);
+        sources = new int[QUERIES];
+        targets = new int[QUERIES];
+        nearTargets = new int[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            int[] component;
+            do {
+                sources[q] = random.nextInt(nodes);
+                component = GraphTraversal.bfs(graph, sources[q]);
+            } while (component.length < Math.min(nodes, NEAR_RANK + 1));
+            targets[q] = component[1 + random.nextInt(component.length - 1)];
+            nearTargets[q] = component[NEAR_RANK];
+            if (q == 0) {
+                neighbourhood = component;
+            }
+        }
+    }
+}
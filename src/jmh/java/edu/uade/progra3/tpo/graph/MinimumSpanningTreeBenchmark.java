@@ -0,0 +1,60 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Kruskal y Prim secuenciales contra Borůvka en paralelo. Comparando por cantidad de
+// ciudades se ve a partir de qué tamaño conviene MinimumSpanningTree.Mode.PARALLEL.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MinimumSpanningTreeBenchmark {
+
+    // 0 = un hilo por procesador, igual que graph.parallelism
+    @Param("0")
+    public int parallelism;
+
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void startPool() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public SpanningForest kruskal(GraphState state) {
+        return MinimumSpanningTree.kruskal(state.graph);
+    }
+
+    @Benchmark
+    public SpanningForest prim(GraphState state) {
+        return MinimumSpanningTree.prim(state.graph);
+    }
+
+    @Benchmark
+    public SpanningForest boruvka(GraphState state) {
+        return MinimumSpanningTree.boruvka(state.graph, pool);
+    }
+}
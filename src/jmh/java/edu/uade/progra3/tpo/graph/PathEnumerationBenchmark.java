@@ -0,0 +1,68 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Caminos simples entre un origen y un destino cercano: enumeración acotada por
+// saltos y km (como /dynamic/paths con maxDistance) y los k más cortos con Yen.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class PathEnumerationBenchmark {
+    // Corte de seguridad: en grafos con nodos centrales la cantidad de caminos explota
+    private static final int MAX_PATHS = 10_000;
+
+    @Param("10")
+    public int maxLength;
+
+    // Holgura sobre el camino mínimo permitida en la enumeración, en porcentaje
+    @Param("25")
+    public int slackPercent;
+
+    @Param("10")
+    public int k;
+
+    private long[] maxDistances;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void computeLimits(GraphState state) {
+        maxDistances = new long[GraphState.QUERIES];
+        for (int q = 0; q < GraphState.QUERIES; q++) {
+            long shortest = ShortestPaths.shortestPath(state.graph, state.sources[q], state.nearTargets[q]).distance();
+            maxDistances[q] = shortest + shortest * slackPercent / 100;
+        }
+    }
+
+    @Benchmark
+    public int simplePaths(GraphState state) {
+        query = (query + 1) % GraphState.QUERIES;
+        int[] count = new int[1];
+        PathEnumerator.simplePaths(state.graph, state.sources[query], state.nearTargets[query], maxLength,
+                maxDistances[query], (path, length, distance) -> ++count[0] < MAX_PATHS);
+        return count[0];
+    }
+
+    @Benchmark
+    public List<PathResult> yen(GraphState state) {
+        query = (query + 1) % GraphState.QUERIES;
+        return KShortestPaths.yen(state.graph, state.sources[query], state.nearTargets[query], k,
+                PathEnumerator.NO_DISTANCE_LIMIT);
+    }
+}
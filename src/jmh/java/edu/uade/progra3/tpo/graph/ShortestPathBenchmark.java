@@ -0,0 +1,36 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Camino mínimo entre pares del mismo componente. CH queda afuera: construir la
+// jerarquía de 1M de ciudades en el setup domina el tiempo de la corrida.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class ShortestPathBenchmark {
+
+    @Param({"DIJKSTRA", "BIDIRECTIONAL", "ASTAR"})
+    public ShortestPaths.Algorithm algorithm;
+
+    private int query;
+
+    @Benchmark
+    public PathResult shortestPath(GraphState state) {
+        query = (query + 1) % GraphState.QUERIES;
+        return ShortestPaths.shortestPath(state.graph, state.sources[query], state.targets[query], algorithm);
+    }
+}
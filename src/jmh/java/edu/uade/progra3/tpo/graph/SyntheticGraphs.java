@@ -0,0 +1,168 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Random;
+
+// Grafos de rutas sintéticos para los benchmarks: con la misma semilla se genera
+// siempre el mismo grafo. Las ciudades ocupan una caja de sqrt(n) x sqrt(n) décimas
+// de grado (unos 11 km entre vecinas) y cada ruta mide al menos la distancia en línea
+// recta entre sus extremos, así A* sigue siendo exacto.
+public final class SyntheticGraphs {
+    private static final double SPACING = 0.1;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    public enum Shape {
+        // Cuadrícula con rutas a derecha y abajo, como ShortestPathsTests.randomGrid
+        GRID,
+        // Puntos al azar unidos con los que caen a menos de un radio fijo (grado medio ~6)
+        GEOMETRIC,
+        // Barabási–Albert: cada ciudad nueva se une a 2 existentes con probabilidad
+        // proporcional a su grado, así aparecen nodos centrales de grado muy alto
+        SCALE_FREE
+    }
+
+    private SyntheticGraphs() {
+    }
+
+    static GraphSnapshot generate(Shape shape, int nodes, long seed) {
+        return switch (shape) {
+            case GRID -> grid(nodes, new Random(seed));
+            case GEOMETRIC -> geometric(nodes, new Random(seed));
+            case SCALE_FREE -> scaleFree(nodes, new Random(seed));
+        };
+    }
+
+    private static GraphSnapshot grid(int nodes, Random random) {
+        int side = side(nodes);
+        GraphSnapshot.Builder builder = GraphSnapshot.builder(1);
+        for (int i = 0; i < nodes; i++) {
+            builder.addCity("n" + i, -30 + (i / side) * SPACING, -60 + (i % side) * SPACING);
+        }
+        for (int i = 0; i < nodes; i++) {
+            if (i % side + 1 < side && i + 1 < nodes) {
+                addRoad(builder, i, i + 1, random);
+            }
+            if (i + side < nodes) {
+                addRoad(builder, i + side, i, random);
+            }
+        }
+        return builder.build();
+    }
+
+    private static GraphSnapshot geometric(int nodes, Random random) {
+        GraphSnapshot.Builder builder = GraphSnapshot.builder(1);
+        double extent = side(nodes) * SPACING;
+        double[] lat = new double[nodes];
+        double[] lon = new double[nodes];
+        for (int i = 0; i < nodes; i++) {
+            lat[i] = -30 + random.nextDouble() * extent;
+            lon[i] = -60 + random.nextDouble() * extent;
+            builder.addCity("n" + i, lat[i], lon[i]);
+        }
+
+        // Radio para ~6 vecinos con densidad 1 / SPACING²; celdas del tamaño del radio
+        // en CSR (cellStart / cellItems) para comparar solo con las 9 celdas vecinas
+        double radius = SPACING * Math.sqrt(6 / Math.PI);
+        int cells = Math.max(1, (int) (extent / radius));
+        int[] cellOf = new int[nodes];
+        int[] cellStart = new int[cells * cells + 1];
+        for (int i = 0; i < nodes; i++) {
+            cellOf[i] = cell(lat[i] + 30, cells, extent) * cells + cell(lon[i] + 60, cells, extent);
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] cellItems = new int[nodes];
+        int[] fill = cellStart.clone();
+        for (int i = 0; i < nodes; i++) {
+            cellItems[fill[cellOf[i]]++] = i;
+        }
+
+        for (int i = 0; i < nodes; i++) {
+            int row = cellOf[i] / cells;
+            int col = cellOf[i] % cells;
+            for (int r = Math.max(0, row - 1); r <= Math.min(cells - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(cells - 1, col + 1); c++) {
+                    for (int k = cellStart[r * cells + c]; k < cellStart[r * cells + c + 1]; k++) {
+                        int j = cellItems[k];
+                        double dLat = lat[i] - lat[j];
+                        double dLon = lon[i] - lon[j];
+                        if (i < j && dLat * dLat + dLon * dLon < radius * radius) {
+                            // Sentido al azar: el grafo se recorre en ambos sentidos igual
+                            if (random.nextBoolean()) {
+                                addRoad(builder, i, j, lat, lon, random);
+                            } else {
+                                addRoad(builder, j, i, lat, lon, random);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static GraphSnapshot scaleFree(int nodes, Random random) {
+        GraphSnapshot.Builder builder = GraphSnapshot.builder(1);
+        double extent = side(nodes) * SPACING;
+        double[] lat = new double[nodes];
+        double[] lon = new double[nodes];
+        for (int i = 0; i < nodes; i++) {
+            lat[i] = -30 + random.nextDouble() * extent;
+            lon[i] = -60 + random.nextDouble() * extent;
+            builder.addCity("n" + i, lat[i], lon[i]);
+        }
+
+        // Cada extremo de cada ruta se anota una vez: elegir un elemento al azar de
+        // endpoints es elegir una ciudad con probabilidad proporcional a su grado
+        int[] endpoints = new int[4 * nodes];
+        int size = 0;
+        if (nodes > 1) {
+            addRoad(builder, 1, 0, lat, lon, random);
+            endpoints[size++] = 0;
+            endpoints[size++] = 1;
+        }
+        for (int v = 2; v < nodes; v++) {
+            int first = endpoints[random.nextInt(size)];
+            int second = endpoints[random.nextInt(size)];
+            addRoad(builder, v, first, lat, lon, random);
+            endpoints[size++] = v;
+            endpoints[size++] = first;
+            if (second != first) {
+                addRoad(builder, v, second, lat, lon, random);
+                endpoints[size++] = v;
+                endpoints[size++] = second;
+            }
+        }
+        return builder.build();
+    }
+
+    private static int side(int nodes) {
+        return Math.max(1, (int) Math.ceil(Math.sqrt(nodes)));
+    }
+
+    // offset es la coordenada relativa al borde de la caja, en [0, extent)
+    private static int cell(double offset, int cells, double extent) {
+        return Math.min(cells - 1, (int) (offset / extent * cells));
+    }
+
+    private static void addRoad(GraphSnapshot.Builder builder, int source, int target, Random random) {
+        builder.addRoad(source, target, 12 + random.nextInt(20));
+    }
+
+    // Distancia en línea recta más hasta un 30% de desvío
+    private static void addRoad(GraphSnapshot.Builder builder, int source, int target,
+                                double[] lat, double[] lon, Random random) {
+        double km = haversine(lat[source], lon[source], lat[target], lon[target]);
+        builder.addRoad(source, target, 1 + (int) Math.ceil(km * (1 + 0.3 * random.nextDouble())));
+    }
+
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
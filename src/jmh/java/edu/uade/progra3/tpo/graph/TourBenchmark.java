@@ -0,0 +1,81 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Recorridos sobre paradas vecinas entre sí (prefijo del orden BFS), como un reparto
+// en una región. Las matrices se arman en el setup: se mide solo el solver.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class TourBenchmark {
+    private static final int EXACT_STOPS = 12;
+    // Holgado: se quiere medir la búsqueda completa, no el corte por tiempo
+    private static final long BUDGET_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    @Param({"200", "2000"})
+    public int stops;
+
+    // Arranques de la búsqueda local, igual que graph.tsp.starts
+    @Param("4")
+    public int starts;
+
+    private long[][] distances;
+    private long[][] exactDistances;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void buildMatrices(GraphState state) {
+        int[] region = state.neighbourhood;
+        distances = matrix(state.graph, Arrays.copyOf(region, Math.min(stops, region.length)));
+        exactDistances = matrix(state.graph, Arrays.copyOf(region, Math.min(EXACT_STOPS, region.length)));
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        pool.shutdown();
+    }
+
+    private static long[][] matrix(GraphSnapshot graph, int[] cities) {
+        DistanceMatrix matrix = new DistanceMatrix(graph, cities);
+        long[][] rows = new long[cities.length][];
+        for (int i = 0; i < cities.length; i++) {
+            rows[i] = matrix.row(cities[i]);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public TravelingSalesman.Tour heuristic() {
+        return TourHeuristic.solve(distances, starts, System.nanoTime() + BUDGET_NANOS, pool);
+    }
+
+    @Benchmark
+    public int[] nearestNeighbour() {
+        return TravelingSalesman.nearestNeighbour(distances);
+    }
+
+    @Benchmark
+    public TravelingSalesman.Tour exact() {
+        return TravelingSalesman.solve(exactDistances, System.nanoTime() + BUDGET_NANOS);
+    }
+}
@@ -0,0 +1,80 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// BFS y DFS completos desde orígenes que van rotando entre las consultas del estado.
+// Las variantes inPlace leen el resultado de los buffers del hilo, sin copiarlo: con
+// -prof gc deberían reportar ~0 B/op. parallelBfs es ParallelBfs sobre el pool.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class TraversalBenchmark {
+
+    // 0 = un hilo por procesador, igual que graph.parallelism
+    @Param("0")
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void startPool() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] bfs(GraphState state) {
+        return GraphTraversal.bfs(state.graph, state.sources[next()]);
+    }
+
+    @Benchmark
+    public int[] dfs(GraphState state) {
+        return GraphTraversal.dfs(state.graph, state.sources[next()]);
+    }
+
+    @Benchmark
+    public int bfsInPlace(GraphState state) {
+        return GraphTraversal.bfs(state.graph, state.sources[next()],
+                GraphTraversal.Direction.BOTH, GraphTraversal.NO_DEPTH_LIMIT).count();
+    }
+
+    @Benchmark
+    public int dfsInPlace(GraphState state) {
+        return GraphTraversal.dfs(state.graph, state.sources[next()],
+                GraphTraversal.Direction.BOTH, GraphTraversal.NO_DEPTH_LIMIT).count();
+    }
+
+    @Benchmark
+    public int parallelBfs(GraphState state) {
+        return ParallelBfs.bfs(state.graph, state.sources[next()],
+                GraphTraversal.Direction.BOTH, GraphTraversal.NO_DEPTH_LIMIT, pool).count();
+    }
+
+    private int next() {
+        query = (query + 1) % GraphState.QUERIES;
+        return query;
+    }
+}
@@ -0,0 +1,49 @@
+package edu.uade.progra3.tpo.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.neo4j.config.EnableNeo4jAuditing;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.concurrent.ForkJoinPool;
+
+// La auditoría completa City.updatedAt en cada save (ver GraphSnapshotLoader)
+@Configuration
+@EnableNeo4jAuditing
+public class GraphConfig {
+
+    // Pool para los algoritmos que se reparten entre núcleos (matrices de distancias, etc.).
+    // Separado del common pool para no competir con el resto de la aplicación.
+    @Bean(destroyMethod = "shutdown")
+    ForkJoinPool graphPool(@Value("${graph.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // graphPool es un Executor y eso apaga el applicationTaskExecutor de Spring Boot, así
+    // que se declara acá con el pool acotado de spring.task.execution. Sin hilos virtuales:
+    // las búsquedas guardan arreglos O(ciudades) por hilo (SearchScratch en ThreadLocal),
+    // y con un hilo nuevo por tarea cada una volvería a asignarlos
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    AsyncTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // Respuestas binarias con Accept: application/cbor o application/x-jackson-smile, con la
+    // misma configuración de Jackson que el JSON
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
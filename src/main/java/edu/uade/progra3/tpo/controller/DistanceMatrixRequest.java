@@ -0,0 +1,6 @@
+package edu.uade.progra3.tpo.controller;
+
+import java.util.List;
+
+public record DistanceMatrixRequest(List<String> sources, List<String> targets) {
+}
@@ -1,45 +1,210 @@
 package edu.uade.progra3.tpo.controller;
 
+import edu.uade.progra3.tpo.graph.GraphTraversal;
+import edu.uade.progra3.tpo.graph.MinimumSpanningTree;
+import edu.uade.progra3.tpo.graph.ShortestPaths;
 import edu.uade.progra3.tpo.service.GraphAlgorithms;
+import edu.uade.progra3.tpo.service.GraphImportService;
+import edu.uade.progra3.tpo.service.Neo4jBulkhead;
+import edu.uade.progra3.tpo.service.ReactivePathQueries;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/graph")
 public class GraphController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     private final GraphAlgorithms graphAlgorithms;
+    private final ReactivePathQueries reactivePaths;
+    private final GraphImportService imports;
+    private final ObjectMapper objectMapper;
+    private final JsonFactory cborFactory;
+    private final JsonFactory smileFactory;
 
-    public GraphController(GraphAlgorithms graphAlgorithms) {
+    public GraphController(GraphAlgorithms graphAlgorithms, ReactivePathQueries reactivePaths,
+                           GraphImportService imports, ObjectMapper objectMapper,
+                           MappingJackson2CborHttpMessageConverter cbor,
+                           MappingJackson2SmileHttpMessageConverter smile) {
         this.graphAlgorithms = graphAlgorithms;
+        this.reactivePaths = reactivePaths;
+        this.imports = imports;
+        this.objectMapper = objectMapper;
+        this.cborFactory = cbor.getObjectMapper().getFactory();
+        // Los caminos enumerados repiten casi siempre las mismas ciudades: en Smile cada
+        // repetición se escribe como referencia al nombre ya enviado (sólo acá; en listas
+        // de nombres distintos buscar repeticiones cuesta más de lo que ahorra)
+        this.smileFactory = ((SmileFactory) smile.getObjectMapper().getFactory()).rebuild()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+
+    // Neo4j no tuvo lugar para la consulta: el cliente puede reintentar en un momento
+    @ExceptionHandler(Neo4jBulkhead.Saturated.class)
+    public ResponseEntity<String> neo4jSaturated(Neo4jBulkhead.Saturated e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    // Importa ciudades y rutas a medida que llega el cuerpo: CSV o, con Content-Type
+    // application/x-ndjson, NDJSON (formato en ImportReader). Responde una línea NDJSON con
+    // el avance cada graph.import.progress-interval y el resumen al final, o {"error": ...}
+    @PostMapping("/import")
+    public ResponseEntity<StreamingResponseBody> importGraph(
+            InputStream in,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, defaultValue = "text/csv") String contentType) {
+        GraphImportService.Format format = contentType.contains(NDJSON.toString())
+                ? GraphImportService.Format.NDJSON : GraphImportService.Format.CSV;
+        StreamingResponseBody body = out -> {
+            try {
+                imports.importGraph(in, format, progress -> {
+                    try {
+                        writeLine(out, progress);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (IllegalArgumentException | IllegalStateException | JsonProcessingException e) {
+                writeLine(out, Map.of("error", e.getMessage()));
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+        out.flush();
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return graphAlgorithms.cacheStats();
+    }
+
+    // Componentes fuertes y débiles del snapshot y, con city, las de esa ciudad
+    @GetMapping("/components")
+    public Map<String, Object> components(
+            @RequestParam(required = false) String city,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return graphAlgorithms.components(city, Math.max(0, limit));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/components/reachable")
+    public Map<String, Object> reachable(@RequestParam String from, @RequestParam String to) {
+        try {
+            return graphAlgorithms.reachability(from, to);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/cypher/templates")
+    public List<Map<String, Object>> cypherTemplates() {
+        return graphAlgorithms.cypherTemplateStats();
     }
 
     @GetMapping("/bfs/{startCity}")
-    public List<String> bfs(@PathVariable String startCity) {
-        return graphAlgorithms.bfs(startCity);
+    public List<String> bfs(
+            @PathVariable String startCity,
+            @RequestParam(required = false) Integer maxDepth,
+            @RequestParam(defaultValue = "BOTH") GraphTraversal.Direction direction,
+            @RequestParam(defaultValue = "SEQUENTIAL") GraphTraversal.Mode mode) {
+        return graphAlgorithms.bfs(startCity, depthOrMax(maxDepth), direction, mode);
+    }
+
+    // Cada ciudad con su nivel y la ciudad desde la que se llegó
+    @GetMapping("/bfs/{startCity}/tree")
+    public List<Map<String, Object>> bfsTree(
+            @PathVariable String startCity,
+            @RequestParam(required = false) Integer maxDepth,
+            @RequestParam(defaultValue = "BOTH") GraphTraversal.Direction direction) {
+        return graphAlgorithms.bfsTree(startCity, depthOrMax(maxDepth), direction);
     }
 
     @GetMapping("/dfs/{startCity}")
-    public List<String> dfs(@PathVariable String startCity) {
-        return graphAlgorithms.dfs(startCity);
+    public List<String> dfs(
+            @PathVariable String startCity,
+            @RequestParam(required = false) Integer maxDepth,
+            @RequestParam(defaultValue = "BOTH") GraphTraversal.Direction direction) {
+        return graphAlgorithms.dfs(startCity, depthOrMax(maxDepth), direction);
+    }
+
+    @GetMapping("/dfs/{startCity}/tree")
+    public List<Map<String, Object>> dfsTree(
+            @PathVariable String startCity,
+            @RequestParam(required = false) Integer maxDepth,
+            @RequestParam(defaultValue = "BOTH") GraphTraversal.Direction direction) {
+        return graphAlgorithms.dfsTree(startCity, depthOrMax(maxDepth), direction);
     }
 
     @GetMapping("/shortestPath")
     public Map<String, Object> shortestPath(
             @RequestParam String from,
-            @RequestParam String to) {
-        return graphAlgorithms.shortestPath(from, to);
+            @RequestParam String to,
+            @RequestParam(defaultValue = "BIDIRECTIONAL") ShortestPaths.Algorithm algorithm) {
+        return graphAlgorithms.shortestPath(from, to, algorithm);
+    }
+
+    // Una línea JSON por origen, en el orden en que se terminan de calcular
+    @PostMapping("/distanceMatrix")
+    public ResponseEntity<StreamingResponseBody> distanceMatrix(@RequestBody DistanceMatrixRequest request) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                graphAlgorithms.distanceMatrix(request.sources(), request.targets(), (index, source, distances) -> {
+                    generator.writeStartObject();
+                    generator.writeNumberField("index", index);
+                    generator.writeStringField("source", source);
+                    generator.writeFieldName("distances");
+                    generator.writeArray(distances, 0, distances.length);
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    generator.flush();
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @GetMapping("/prim")
-    public Map<String, Object> prim() {
-        return graphAlgorithms.prim();
+    public Map<String, Object> prim(
+            @RequestParam(defaultValue = "SEQUENTIAL") MinimumSpanningTree.Mode mode) {
+        return graphAlgorithms.prim(mode);
     }
 
     @GetMapping("/kruskal")
-    public Map<String, Object> kruskal() {
-        return graphAlgorithms.kruskal();
+    public Map<String, Object> kruskal(
+            @RequestParam(defaultValue = "SEQUENTIAL") MinimumSpanningTree.Mode mode) {
+        return graphAlgorithms.kruskal(mode);
     }
 
     @GetMapping("/greedy/tsp/{startCity}")
@@ -47,28 +212,136 @@ public class GraphController {
         return graphAlgorithms.greedyTSP(startCity);
     }
 
+    // Recorrido heurístico por las paradas del cuerpo, empezando por la primera
+    @PostMapping("/greedy/tsp")
+    public Map<String, Object> greedyTSP(
+            @RequestBody List<String> stops,
+            @RequestParam(required = false) Integer starts,
+            @RequestParam(required = false) Long timeBudgetMs) {
+        try {
+            return graphAlgorithms.greedyTSP(stops, starts,
+                    timeBudgetMs == null ? null : Duration.ofMillis(timeBudgetMs));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @GetMapping("/quicksort/distances/{fromCity}")
-    public List<Map<String, Object>> quickSortCitiesByDistance(@PathVariable String fromCity) {
-        return graphAlgorithms.quickSortCitiesByDistance(fromCity);
+    public List<Map<String, Object>> quickSortCitiesByDistance(
+            @PathVariable String fromCity,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit) {
+        return graphAlgorithms.quickSortCitiesByDistance(fromCity, Math.max(0, offset), Math.max(0, limitOrMax(limit)));
     }
 
+    // Los caminos se escriben a medida que se encuentran (arreglo JSON o, con
+    // Accept: application/x-ndjson, uno por línea; application/cbor o
+    // application/x-jackson-smile para un arreglo binario) y sin orden por distancia;
+    // con k, los k caminos más cortos de menor a mayor. Si falla a mitad de camino el
+    // último elemento es {"error": ...} y el arreglo queda sin cerrar
     @GetMapping("/dynamic/paths")
-    public List<Map<String, Object>> findAllPaths(
+    public ResponseEntity<StreamingResponseBody> findAllPaths(
             @RequestParam String from,
             @RequestParam String to,
-            @RequestParam(defaultValue = "5") int maxLength) {
-        return graphAlgorithms.findAllPaths(from, to, maxLength);
+            @RequestParam(defaultValue = "5") int maxLength,
+            @RequestParam(required = false) Long maxDistance,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_JSON_VALUE) String accept) {
+        MediaType type = streamType(accept);
+        // Sin snapshot, el lugar en el bulkhead se reserva acá: si no hay, responde 503; un
+        // maxLength fuera de 1..32 responde 400, con o sin snapshot
+        GraphAlgorithms.RouteStream paths;
+        try {
+            paths = graphAlgorithms.openAllPaths(from, to, maxLength, maxDistance, k, limitOrMax(limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        StreamingResponseBody body = out ->
+                new RouteStreamWriter(factory(type), out, "route", NDJSON.equals(type)).write(paths);
+        return ResponseEntity.ok().contentType(type).body(body);
     }
 
     @GetMapping("/backtracking/cycles/{startCity}")
-    public List<Map<String, Object>> findAllCycles(
+    public ResponseEntity<StreamingResponseBody> findAllCycles(
             @PathVariable String startCity,
-            @RequestParam(defaultValue = "5") int maxLength) {
-        return graphAlgorithms.findAllCycles(startCity, maxLength);
+            @RequestParam(defaultValue = "5") int maxLength,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_JSON_VALUE) String accept) {
+        MediaType type = streamType(accept);
+        GraphAlgorithms.RouteStream cycles;
+        try {
+            cycles = graphAlgorithms.openAllCycles(startCity, maxLength, limitOrMax(limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        StreamingResponseBody body = out ->
+                new RouteStreamWriter(factory(type), out, "cycle", NDJSON.equals(type)).write(cycles);
+        return ResponseEntity.ok().contentType(type).body(body);
+    }
+
+    // Variantes reactivas de /dynamic/paths y /backtracking/cycles (NDJSON): sin snapshot
+    // ningún hilo queda esperando a Neo4j mientras se leen los caminos
+    @GetMapping(value = "/reactive/paths", produces = "application/x-ndjson")
+    public Flux<Map<String, Object>> reactivePaths(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "5") int maxLength,
+            @RequestParam(required = false) Long maxDistance,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return reactivePaths.paths(from, to, maxLength, maxDistance, k, limitOrMax(limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping(value = "/reactive/cycles/{startCity}", produces = "application/x-ndjson")
+    public Flux<Map<String, Object>> reactiveCycles(
+            @PathVariable String startCity,
+            @RequestParam(defaultValue = "5") int maxLength,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return reactivePaths.cycles(startCity, maxLength, limitOrMax(limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // Formato de los caminos en streaming según el Accept: CBOR, Smile, NDJSON o un arreglo JSON
+    private static MediaType streamType(String accept) {
+        if (accept.contains(MediaType.APPLICATION_CBOR_VALUE)) {
+            return MediaType.APPLICATION_CBOR;
+        }
+        if (accept.contains(SMILE.toString())) {
+            return SMILE;
+        }
+        return accept.contains(NDJSON.toString()) ? NDJSON : MediaType.APPLICATION_JSON;
+    }
+
+    private JsonFactory factory(MediaType type) {
+        if (MediaType.APPLICATION_CBOR.equals(type)) {
+            return cborFactory;
+        }
+        return SMILE.equals(type) ? smileFactory : objectMapper.getFactory();
+    }
+
+    private static int limitOrMax(Integer limit) {
+        return limit == null ? Integer.MAX_VALUE : limit;
+    }
+
+    private static int depthOrMax(Integer maxDepth) {
+        return maxDepth == null ? GraphTraversal.NO_DEPTH_LIMIT : Math.max(0, maxDepth);
     }
 
+    // Más de graph.tsp.max-stops paradas o un nombre nulo responden 400, como en /greedy/tsp
     @PostMapping("/branch-and-bound/tsp")
     public Map<String, Object> tspBranchAndBound(@RequestBody List<String> cities) {
-        return graphAlgorithms.tspBranchAndBound(cities);
+        try {
+            return graphAlgorithms.tspBranchAndBound(cities);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package edu.uade.progra3.tpo.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import edu.uade.progra3.tpo.service.GraphAlgorithms;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Escribe caminos a medida que llegan, como un arreglo JSON por chunks o como NDJSON
+// (un objeto por línea). Se vacía el buffer con el primer camino y luego cada
+// FLUSH_EVERY para que el cliente reciba datos enseguida sin un flush por elemento.
+//
+// Si la enumeración falla a mitad de camino el estado 200 ya se envió: fail() agrega un
+// elemento {"error": ...} y deja el arreglo sin cerrar, para que el cliente no confunda
+// un resultado parcial con uno completo.
+final class RouteStreamWriter implements GraphAlgorithms.RouteSink {
+    private static final int FLUSH_EVERY = 64;
+
+    private final JsonGenerator generator;
+    private final String routeField;
+    private final boolean ndjson;
+    private int written;
+
+    RouteStreamWriter(JsonFactory factory, OutputStream out, String routeField, boolean ndjson) throws IOException {
+        this.generator = factory.createGenerator(out);
+        this.generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        // close() no debe completar el arreglo por su cuenta (ver fail)
+        this.generator.configure(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT, false);
+        this.generator.setRootValueSeparator(null);
+        this.routeField = routeField;
+        this.ndjson = ndjson;
+        if (!ndjson) {
+            generator.writeStartArray();
+        }
+    }
+
+    // Escribe todos los caminos del stream y cierra el arreglo, o el error si falla
+    void write(GraphAlgorithms.RouteStream stream) throws IOException {
+        try {
+            stream.writeTo(this);
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        }
+        if (!ndjson) {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+
+    @Override
+    public boolean accept(String[] route, int length, long totalDistance) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart(routeField);
+        for (int i = 0; i < length; i++) {
+            generator.writeString(route[i]);
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("totalDistance", totalDistance);
+        generator.writeEndObject();
+        if (ndjson) {
+            generator.writeRaw('\n');
+        }
+        if (++written == 1 || written % FLUSH_EVERY == 0) {
+            generator.flush();
+        }
+        return true;
+    }
+
+    private void fail(RuntimeException e) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("error", e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        generator.writeEndObject();
+        if (ndjson) {
+            generator.writeRaw('\n');
+        }
+        generator.close();
+    }
+}
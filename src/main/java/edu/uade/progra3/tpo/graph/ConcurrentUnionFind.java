@@ -0,0 +1,45 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Conjuntos disjuntos sin locks: las raíces se enlazan con CAS (siempre la de menor
+// id bajo la de mayor id, lo que evita ciclos) y find acorta caminos con CAS benignos.
+public final class ConcurrentUnionFind {
+    private final AtomicIntegerArray parent;
+
+    public ConcurrentUnionFind(int n) {
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    public int find(int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int grandparent = parent.get(p);
+            // Si otro hilo ya lo cambió no importa: sólo es un atajo
+            parent.compareAndSet(x, p, grandparent);
+            x = grandparent;
+        }
+    }
+
+    // Une los conjuntos de a y b; devuelve false si ya estaban unidos
+    public boolean union(int a, int b) {
+        while (true) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) {
+                return false;
+            }
+            int low = Math.min(ra, rb);
+            int high = Math.max(ra, rb);
+            if (parent.compareAndSet(low, low, high)) {
+                return true;
+            }
+        }
+    }
+}
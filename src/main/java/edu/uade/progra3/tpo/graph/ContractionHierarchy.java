@@ -0,0 +1,423 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+// Contraction hierarchies sobre el grafo no dirigido de rutas.
+// El preprocesamiento contrae los nodos en orden de importancia (diferencia de
+// aristas + vecinos ya contraídos) agregando atajos cuando no hay un camino testigo
+// igual de corto. La consulta es un Dijkstra bidireccional que sólo sube de rango,
+// y los atajos se desarman al final a través de su nodo intermedio.
+public final class ContractionHierarchy {
+    private static final int FILE_MAGIC = 0x43483032; // "CH02"
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private static final ThreadLocal<SearchScratch> FORWARD = ThreadLocal.withInitial(SearchScratch::new);
+    private static final ThreadLocal<SearchScratch> BACKWARD = ThreadLocal.withInitial(SearchScratch::new);
+
+    private final long fingerprint;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int[] rank;
+    // Grafo "hacia arriba": aristas de cada nodo a vecinos de mayor rango, con el nodo
+    // intermedio del atajo o -1 si es una ruta original
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddle;
+
+    private ContractionHierarchy(long fingerprint, int nodeCount, int edgeCount, int[] rank,
+                                 int[] upOffsets, int[] upTargets, int[] upWeights, int[] upMiddle) {
+        this.fingerprint = fingerprint;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddle = upMiddle;
+    }
+
+    // Indica si la jerarquía se construyó sobre los mismos datos que el snapshot: los
+    // arreglos están indexados por id, así que hace falta la misma numeración y los mismos km
+    public boolean matches(GraphSnapshot graph) {
+        return graph.nodeCount() == nodeCount
+                && graph.edgeCount() == edgeCount
+                && graph.fingerprint() == fingerprint;
+    }
+
+    public int shortcutCount() {
+        int shortcuts = 0;
+        for (int middle : upMiddle) {
+            if (middle >= 0) {
+                shortcuts++;
+            }
+        }
+        return shortcuts;
+    }
+
+    public PathResult shortestPath(int source, int target) {
+        if (source == target) {
+            return new PathResult(new int[]{source}, 0);
+        }
+        SearchScratch forward = FORWARD.get().begin(nodeCount);
+        SearchScratch backward = BACKWARD.get().begin(nodeCount);
+        forward.set(source, 0, -1);
+        forward.heap().push(source, 0);
+        backward.set(target, 0, -1);
+        backward.heap().push(target, 0);
+
+        long best = ShortestPaths.UNREACHABLE;
+        int meeting = -1;
+        while (true) {
+            boolean forwardOpen = !forward.heap().isEmpty() && forward.heap().minKey() < best;
+            boolean backwardOpen = !backward.heap().isEmpty() && backward.heap().minKey() < best;
+            if (!forwardOpen && !backwardOpen) {
+                break;
+            }
+            SearchScratch side = forwardOpen && (!backwardOpen
+                    || forward.heap().minKey() <= backward.heap().minKey()) ? forward : backward;
+            SearchScratch other = side == forward ? backward : forward;
+
+            int v = side.heap().pop();
+            long dv = side.dist(v);
+            long otherDist = other.dist(v);
+            if (otherDist != ShortestPaths.UNREACHABLE && dv + otherDist < best) {
+                best = dv + otherDist;
+                meeting = v;
+            }
+            for (int e = upOffsets[v], end = upOffsets[v + 1]; e < end; e++) {
+                int w = upTargets[e];
+                long candidate = dv + upWeights[e];
+                if (candidate < side.dist(w)) {
+                    side.set(w, candidate, v);
+                    side.heap().push(w, candidate);
+                }
+            }
+        }
+
+        if (meeting < 0) {
+            return PathResult.EMPTY;
+        }
+
+        // Camino en la jerarquía: source ... meeting ... target
+        int upLength = 0;
+        for (int v = meeting; v != -1; v = forward.parent(v)) {
+            upLength++;
+        }
+        int[] hierarchyPath = new int[upLength];
+        int i = upLength;
+        for (int v = meeting; v != -1; v = forward.parent(v)) {
+            hierarchyPath[--i] = v;
+        }
+        int downLength = 0;
+        for (int v = backward.parent(meeting); v != -1; v = backward.parent(v)) {
+            downLength++;
+        }
+        hierarchyPath = Arrays.copyOf(hierarchyPath, upLength + downLength);
+        i = upLength;
+        for (int v = backward.parent(meeting); v != -1; v = backward.parent(v)) {
+            hierarchyPath[i++] = v;
+        }
+        return new PathResult(unpack(hierarchyPath), best);
+    }
+
+    // Reemplaza cada atajo por el par de aristas que representa, con una pila explícita
+    private int[] unpack(int[] hierarchyPath) {
+        int[] path = new int[hierarchyPath.length * 2];
+        int length = 0;
+        path[length++] = hierarchyPath[0];
+        int[] stack = new int[64];
+        for (int i = 0; i + 1 < hierarchyPath.length; i++) {
+            int top = 0;
+            stack[top++] = hierarchyPath[i + 1];
+            stack[top++] = hierarchyPath[i];
+            while (top > 0) {
+                int a = stack[top - 1];
+                int b = stack[top - 2];
+                top -= 2;
+                int middle = upMiddle[edge(a, b)];
+                if (middle < 0) {
+                    if (length == path.length) {
+                        path = Arrays.copyOf(path, length * 2);
+                    }
+                    path[length++] = b;
+                } else {
+                    if (top + 4 > stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    // Se procesa primero a -> middle y después middle -> b
+                    stack[top++] = b;
+                    stack[top++] = middle;
+                    stack[top++] = middle;
+                    stack[top++] = a;
+                }
+            }
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    // Índice de la arista entre a y b, guardada en el extremo de menor rango
+    private int edge(int a, int b) {
+        int low = rank[a] < rank[b] ? a : b;
+        int high = low == a ? b : a;
+        for (int e = upOffsets[low], end = upOffsets[low + 1]; e < end; e++) {
+            if (upTargets[e] == high) {
+                return e;
+            }
+        }
+        throw new IllegalStateException("Arista " + a + "-" + b + " ausente en la jerarquía");
+    }
+
+    public static ContractionHierarchy build(GraphSnapshot graph) {
+        return new Builder(graph).contract();
+    }
+
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(fingerprint);
+            out.writeInt(nodeCount);
+            out.writeInt(edgeCount);
+            out.writeInt(upTargets.length);
+            writeInts(out, rank);
+            writeInts(out, upOffsets);
+            writeInts(out, upTargets);
+            writeInts(out, upWeights);
+            writeInts(out, upMiddle);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static ContractionHierarchy read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Formato de jerarquía desconocido: " + file);
+            }
+            long fingerprint = in.readLong();
+            int nodeCount = in.readInt();
+            int edgeCount = in.readInt();
+            int upEdges = in.readInt();
+            return new ContractionHierarchy(fingerprint, nodeCount, edgeCount,
+                    readInts(in, nodeCount), readInts(in, nodeCount + 1),
+                    readInts(in, upEdges), readInts(in, upEdges), readInts(in, upEdges));
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in, int length) throws IOException {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    // Estado mutable del preprocesamiento: listas de adyacencia no dirigidas que
+    // crecen con los atajos
+    private static final class Builder {
+        private final GraphSnapshot graph;
+        private final int n;
+        private final int[][] neighbours;
+        private final int[][] weights;
+        private final int[][] middles;
+        private final int[] degree;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbours;
+        private final SearchScratch witness = new SearchScratch();
+
+        Builder(GraphSnapshot graph) {
+            this.graph = graph;
+            this.n = graph.nodeCount();
+            neighbours = new int[n][];
+            weights = new int[n][];
+            middles = new int[n][];
+            degree = new int[n];
+            contracted = new boolean[n];
+            contractedNeighbours = new int[n];
+            for (int v = 0; v < n; v++) {
+                int capacity = Math.max(2, graph.outEnd(v) - graph.outBegin(v) + graph.inEnd(v) - graph.inBegin(v));
+                neighbours[v] = new int[capacity];
+                weights[v] = new int[capacity];
+                middles[v] = new int[capacity];
+            }
+            for (int v = 0; v < n; v++) {
+                int[] targets = graph.outTargets(v);
+                int[] km = graph.outWeights(v);
+                for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                    if (targets[e] != v) {
+                        connect(v, targets[e], km[e], -1);
+                    }
+                }
+            }
+        }
+
+        ContractionHierarchy contract() {
+            int[] rank = new int[n];
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.push(v, importance(v));
+            }
+
+            int next = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.pop();
+                // Actualización perezosa: si la prioridad empeoró, vuelve a la cola
+                long priority = importance(v);
+                if (!queue.isEmpty() && priority > queue.minKey()) {
+                    queue.push(v, priority);
+                    continue;
+                }
+                shortcuts(v, true);
+                contracted[v] = true;
+                rank[v] = next++;
+                for (int i = 0; i < degree[v]; i++) {
+                    contractedNeighbours[neighbours[v][i]]++;
+                }
+            }
+
+            int[] upOffsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                for (int i = 0; i < degree[v]; i++) {
+                    if (rank[neighbours[v][i]] > rank[v]) {
+                        upOffsets[v + 1]++;
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                upOffsets[v + 1] += upOffsets[v];
+            }
+            int[] upTargets = new int[upOffsets[n]];
+            int[] upWeights = new int[upOffsets[n]];
+            int[] upMiddle = new int[upOffsets[n]];
+            for (int v = 0; v < n; v++) {
+                int e = upOffsets[v];
+                for (int i = 0; i < degree[v]; i++) {
+                    if (rank[neighbours[v][i]] > rank[v]) {
+                        upTargets[e] = neighbours[v][i];
+                        upWeights[e] = weights[v][i];
+                        upMiddle[e] = middles[v][i];
+                        e++;
+                    }
+                }
+            }
+            return new ContractionHierarchy(graph.fingerprint(), n, graph.edgeCount(), rank,
+                    upOffsets, upTargets, upWeights, upMiddle);
+        }
+
+        private long importance(int v) {
+            int active = 0;
+            for (int i = 0; i < degree[v]; i++) {
+                if (!contracted[neighbours[v][i]]) {
+                    active++;
+                }
+            }
+            return shortcuts(v, false) - active + contractedNeighbours[v];
+        }
+
+        // Cuenta (o agrega) los atajos necesarios para contraer v
+        private int shortcuts(int v, boolean apply) {
+            int count = 0;
+            for (int i = 0; i < degree[v]; i++) {
+                int u = neighbours[v][i];
+                if (contracted[u]) {
+                    continue;
+                }
+                long limit = -1;
+                for (int j = 0; j < degree[v]; j++) {
+                    int w = neighbours[v][j];
+                    if (w > u && !contracted[w]) {
+                        limit = Math.max(limit, (long) weights[v][i] + weights[v][j]);
+                    }
+                }
+                if (limit < 0) {
+                    continue;
+                }
+                witnessSearch(u, v, limit);
+                for (int j = 0; j < degree[v]; j++) {
+                    int w = neighbours[v][j];
+                    if (w <= u || contracted[w]) {
+                        continue;
+                    }
+                    long viaV = (long) weights[v][i] + weights[v][j];
+                    if (witness.dist(w) > viaV) {
+                        count++;
+                        if (apply) {
+                            connect(u, w, (int) viaV, v);
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Dijkstra acotado desde u que no pasa por v ni por nodos ya contraídos
+        private void witnessSearch(int u, int v, long limit) {
+            witness.begin(n);
+            IndexedMinHeap heap = witness.heap();
+            witness.set(u, 0, -1);
+            heap.push(u, 0);
+            int settled = 0;
+            while (!heap.isEmpty() && heap.minKey() <= limit && settled++ < WITNESS_SETTLE_LIMIT) {
+                int x = heap.pop();
+                long dx = witness.dist(x);
+                for (int i = 0; i < degree[x]; i++) {
+                    int y = neighbours[x][i];
+                    if (y == v || contracted[y]) {
+                        continue;
+                    }
+                    long candidate = dx + weights[x][i];
+                    if (candidate < witness.dist(y)) {
+                        witness.set(y, candidate, x);
+                        heap.push(y, candidate);
+                    }
+                }
+            }
+        }
+
+        private void connect(int a, int b, int km, int middle) {
+            link(a, b, km, middle);
+            link(b, a, km, middle);
+        }
+
+        // Agrega a -> b o actualiza su peso si la arista ya existe con uno mayor
+        private void link(int a, int b, int km, int middle) {
+            int[] list = neighbours[a];
+            for (int i = 0; i < degree[a]; i++) {
+                if (list[i] == b) {
+                    if (km < weights[a][i]) {
+                        weights[a][i] = km;
+                        middles[a][i] = middle;
+                    }
+                    return;
+                }
+            }
+            if (degree[a] == list.length) {
+                neighbours[a] = Arrays.copyOf(list, list.length * 2);
+                weights[a] = Arrays.copyOf(weights[a], list.length * 2);
+                middles[a] = Arrays.copyOf(middles[a], list.length * 2);
+            }
+            neighbours[a][degree[a]] = b;
+            weights[a][degree[a]] = km;
+            middles[a][degree[a]] = middle;
+            degree[a]++;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+
+// Distancias de muchos orígenes a un conjunto fijo de destinos: un Dijkstra por
+// origen que se detiene apenas asentó todos los destinos. Es seguro llamar a row()
+// desde varios hilos a la vez (cada uno usa su propio scratch).
+public final class DistanceMatrix {
+    public static final long UNREACHABLE = -1;
+
+    private static final ThreadLocal<SearchScratch> SCRATCH = ThreadLocal.withInitial(SearchScratch::new);
+
+    private final GraphSnapshot graph;
+    private final int[] targets;
+    // Para cada nodo, el índice + 1 de su primera aparición en targets (0 si no es destino)
+    private final int[] targetSlot;
+    private final int distinctTargets;
+
+    public DistanceMatrix(GraphSnapshot graph, int[] targets) {
+        this.graph = graph;
+        this.targets = targets;
+        this.targetSlot = new int[graph.nodeCount()];
+        int distinct = 0;
+        for (int i = 0; i < targets.length; i++) {
+            int t = targets[i];
+            if (t >= 0 && targetSlot[t] == 0) {
+                targetSlot[t] = i + 1;
+                distinct++;
+            }
+        }
+        this.distinctTargets = distinct;
+    }
+
+    // Fila de distancias desde source; -1 para destinos inalcanzables o inexistentes
+    public long[] row(int source) {
+        long[] row = new long[targets.length];
+        if (source < 0) {
+            Arrays.fill(row, UNREACHABLE);
+            return row;
+        }
+
+        SearchScratch scratch = SCRATCH.get().begin(graph.nodeCount());
+        IndexedMinHeap heap = scratch.heap();
+        scratch.set(source, 0, -1);
+        heap.push(source, 0);
+        int pending = distinctTargets;
+        while (!heap.isEmpty() && pending > 0) {
+            int v = heap.pop();
+            if (targetSlot[v] != 0) {
+                pending--;
+            }
+            long dv = scratch.dist(v);
+            int[] outTargets = graph.outTargets(v);
+            int[] outKm = graph.outWeights(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                int w = outTargets[e];
+                if (dv + outKm[e] < scratch.dist(w)) {
+                    scratch.set(w, dv + outKm[e], v);
+                    heap.push(w, dv + outKm[e]);
+                }
+            }
+            int[] inSources = graph.inSources(v);
+            int[] inKm = graph.inWeights(v);
+            for (int e = graph.inBegin(v), end = graph.inEnd(v); e < end; e++) {
+                int w = inSources[e];
+                if (dv + inKm[e] < scratch.dist(w)) {
+                    scratch.set(w, dv + inKm[e], v);
+                    heap.push(w, dv + inKm[e]);
+                }
+            }
+        }
+
+        for (int i = 0; i < targets.length; i++) {
+            long d = targets[i] < 0 ? ShortestPaths.UNREACHABLE : scratch.dist(targets[i]);
+            row[i] = d == ShortestPaths.UNREACHABLE ? UNREACHABLE : d;
+        }
+        return row;
+    }
+}
@@ -0,0 +1,106 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+// Ciudades ordenadas por distancia mínima desde un origen, con un solo Dijkstra.
+// Cada ciudad alcanzable se empaqueta en un long (distancia en los bits altos, id en
+// los bajos) para ordenar primitivos; con una página chica alcanza con seleccionar
+// (quickselect) los offset + limit menores y ordenar solo esos. Las inalcanzables van
+// al final con distancia -1, ordenadas por id.
+public final class DistanceRanking {
+    public static final long UNREACHABLE = -1;
+
+    private static final ThreadLocal<SearchScratch> SCRATCH = ThreadLocal.withInitial(SearchScratch::new);
+
+    // cities[i] a distances[i] km del origen
+    public record Page(int[] cities, long[] distances) {
+        public int size() {
+            return cities.length;
+        }
+    }
+
+    private DistanceRanking() {
+    }
+
+    public static Page rank(GraphSnapshot graph, int source, int offset, int limit) {
+        SearchScratch scratch = ShortestPaths.boundedSearch(graph, source, ShortestPaths.UNREACHABLE - 1, false,
+                SCRATCH.get());
+        return rank(graph, source, scratch::dist, offset, limit);
+    }
+
+    // Igual, con las distancias desde source ya calculadas (p. ej. una fila de DistanceTable);
+    // distance devuelve ShortestPaths.UNREACHABLE para las inalcanzables
+    public static Page rank(GraphSnapshot graph, int source, IntToLongFunction distance, int offset, int limit) {
+        int n = graph.nodeCount();
+        int idBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(n - 1));
+        long idMask = (1L << idBits) - 1;
+
+        long[] reachable = new long[n];
+        int[] unreachable = new int[n];
+        int reachableCount = 0;
+        int unreachableCount = 0;
+        for (int v = 0; v < n; v++) {
+            if (v == source || !graph.isAlive(v)) {
+                continue;
+            }
+            long d = distance.applyAsLong(v);
+            if (d == ShortestPaths.UNREACHABLE) {
+                unreachable[unreachableCount++] = v;
+            } else {
+                reachable[reachableCount++] = d << idBits | v;
+            }
+        }
+
+        int from = Math.min(offset, reachableCount + unreachableCount);
+        int to = (int) Math.min((long) from + limit, reachableCount + unreachableCount);
+        int sorted = Math.min(to, reachableCount);
+        if (sorted < reachableCount) {
+            select(reachable, 0, reachableCount - 1, sorted);
+        }
+        Arrays.sort(reachable, 0, sorted);
+
+        int[] cities = new int[to - from];
+        long[] distances = new long[to - from];
+        for (int i = from; i < to; i++) {
+            if (i < reachableCount) {
+                cities[i - from] = (int) (reachable[i] & idMask);
+                distances[i - from] = reachable[i] >>> idBits;
+            } else {
+                cities[i - from] = unreachable[i - reachableCount];
+                distances[i - from] = UNREACHABLE;
+            }
+        }
+        return new Page(cities, distances);
+    }
+
+    // Deja en a[lo..k) los k - lo menores de a[lo..hi] (en cualquier orden)
+    static void select(long[] a, int lo, int hi, int k) {
+        while (lo < hi) {
+            long pivot = a[lo + (hi - lo) / 2];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) {
+                    i++;
+                }
+                while (a[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    long t = a[i];
+                    a[i++] = a[j];
+                    a[j--] = t;
+                }
+            }
+            // a[lo..j] <= pivot <= a[i..hi]
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
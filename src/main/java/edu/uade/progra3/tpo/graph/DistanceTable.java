@@ -0,0 +1,277 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Distancias mínimas entre todos los pares, precalculadas en un archivo que se lee
+// con MappedByteBuffer: las consultas no buscan ni ocupan heap, y abrir el archivo
+// es instantáneo (el sistema operativo trae las páginas a medida que se tocan).
+//
+// Formato: cabecera de HEADER_BYTES, matriz de distancias n x n (celdas de 2 bytes si
+// ningún camino puede superar 65534 km, si no de 4) y matriz de próximo salto n x n de
+// 2 bytes: el índice, dentro de las rutas de v (primero salientes, luego entrantes),
+// de la primera ruta del camino mínimo de v a t.
+public final class DistanceTable {
+    private static final int FILE_MAGIC = 0x41503032; // "AP02"
+    private static final int HEADER_BYTES = 64;
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+    private static final int NO_HOP = 0xFFFF;
+
+    private static final ThreadLocal<SearchScratch> SCRATCH = ThreadLocal.withInitial(SearchScratch::new);
+
+    private final long fingerprint;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int width;
+    private final long hopsOffset;
+    // Trozos de 1 GB; como las celdas están alineadas nunca quedan partidas entre dos
+    private final MappedByteBuffer[] chunks;
+
+    private DistanceTable(long fingerprint, int nodeCount, int edgeCount, int width, MappedByteBuffer[] chunks) {
+        this.fingerprint = fingerprint;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.width = width;
+        this.hopsOffset = HEADER_BYTES + (long) nodeCount * nodeCount * width;
+        this.chunks = chunks;
+    }
+
+    // Indica si la tabla se calculó sobre los mismos datos que el snapshot: los saltos son
+    // posiciones dentro de las rutas de cada id, así que hace falta la misma numeración,
+    // las mismas rutas en el mismo orden y los mismos km (ver GraphSnapshot.fingerprint)
+    public boolean matches(GraphSnapshot graph) {
+        return graph.nodeCount() == nodeCount
+                && graph.edgeCount() == edgeCount
+                && graph.fingerprint() == fingerprint;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    // Km de source a target, o ShortestPaths.UNREACHABLE
+    public long distance(int source, int target) {
+        long offset = HEADER_BYTES + ((long) source * nodeCount + target) * width;
+        MappedByteBuffer chunk = chunks[(int) (offset >>> CHUNK_BITS)];
+        int index = (int) (offset & CHUNK_MASK);
+        if (width == 2) {
+            int km = chunk.getChar(index);
+            return km == 0xFFFF ? ShortestPaths.UNREACHABLE : km;
+        }
+        int km = chunk.getInt(index);
+        return km < 0 ? ShortestPaths.UNREACHABLE : km;
+    }
+
+    // Camino armado siguiendo los próximos saltos desde source. Un salto que no existe en
+    // graph o un camino más largo que la cantidad de ciudades (una tabla que no corresponde
+    // al snapshot, o saltos que se cruzan en empates de rutas de 0 km) es IllegalStateException
+    public PathResult path(GraphSnapshot graph, int source, int target) {
+        long distance = distance(source, target);
+        if (distance == ShortestPaths.UNREACHABLE) {
+            return PathResult.EMPTY;
+        }
+        int length = 1;
+        for (int v = source; v != target; v = neighbour(graph, v, hop(v, target))) {
+            if (++length > nodeCount) {
+                throw new IllegalStateException("La tabla de distancias no corresponde al snapshot");
+            }
+        }
+        int[] path = new int[length];
+        int i = 0;
+        for (int v = source; ; v = neighbour(graph, v, hop(v, target))) {
+            path[i++] = v;
+            if (v == target) {
+                break;
+            }
+        }
+        return new PathResult(path, distance);
+    }
+
+    private int hop(int v, int target) {
+        long offset = hopsOffset + ((long) v * nodeCount + target) * 2;
+        return chunks[(int) (offset >>> CHUNK_BITS)].getChar((int) (offset & CHUNK_MASK));
+    }
+
+    private static int neighbour(GraphSnapshot graph, int v, int slot) {
+        int outDegree = graph.outEnd(v) - graph.outBegin(v);
+        if (slot >= outDegree + graph.inEnd(v) - graph.inBegin(v)) {
+            throw new IllegalStateException("La tabla de distancias no corresponde al snapshot");
+        }
+        return slot < outDegree
+                ? graph.outTargets(v)[graph.outBegin(v) + slot]
+                : graph.inSources(v)[graph.inBegin(v) + slot - outDegree];
+    }
+
+    public static DistanceTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (channel.size() < HEADER_BYTES || readFully(channel, header).getInt() != FILE_MAGIC) {
+                throw new IOException("Formato de tabla de distancias desconocido: " + file);
+            }
+            int width = header.getInt();
+            long fingerprint = header.getLong();
+            int nodeCount = header.getInt();
+            int edgeCount = header.getInt();
+            long expected = HEADER_BYTES + (long) nodeCount * nodeCount * (width + 2);
+            if ((width != 2 && width != 4) || channel.size() != expected) {
+                throw new IOException("Tabla de distancias incompleta: " + file);
+            }
+            // El mapeo sigue válido después de cerrar el canal
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((expected + CHUNK_MASK) >>> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_BITS;
+                long size = Math.min(CHUNK_MASK + 1, expected - start);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            }
+            return new DistanceTable(fingerprint, nodeCount, edgeCount, width, chunks);
+        }
+    }
+
+    // Un Dijkstra por origen en pool, cada uno escribiendo su fila directo al archivo
+    // (memoria O(n) por hilo). La cabecera se escribe al final y el archivo se publica
+    // con un rename atómico, así un archivo a medias nunca pasa por válido.
+    public static void build(GraphSnapshot graph, Path file, ForkJoinPool pool) throws IOException {
+        int n = graph.nodeCount();
+        int maxWeight = 0;
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.outBegin(v); e < graph.outEnd(v); e++) {
+                maxWeight = Math.max(maxWeight, graph.outWeights(v)[e]);
+            }
+            maxDegree = Math.max(maxDegree, graph.outEnd(v) - graph.outBegin(v) + graph.inEnd(v) - graph.inBegin(v));
+        }
+        if (maxDegree >= NO_HOP) {
+            throw new IllegalArgumentException("Grado máximo " + maxDegree + " no entra en 16 bits");
+        }
+        long longest = (long) Math.max(0, n - 1) * maxWeight;
+        // -1 marca inalcanzable, así que una celda de 4 bytes llega hasta Integer.MAX_VALUE
+        if (longest > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Caminos de hasta " + longest + " km no entran en 32 bits");
+        }
+        int width = longest < 0xFFFF ? 2 : 4;
+        long hopsOffset = HEADER_BYTES + (long) n * n * width;
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(source -> {
+                ByteBuffer distances = ByteBuffer.allocate(n * width);
+                ByteBuffer hops = ByteBuffer.allocate(n * 2);
+                fillRow(graph, source, width, distances, hops);
+                try {
+                    writeFully(channel, distances.flip(), HEADER_BYTES + (long) source * n * width);
+                    writeFully(channel, hops.flip(), hopsOffset + (long) source * n * 2);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })).join();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(FILE_MAGIC).putInt(width).putLong(graph.fingerprint())
+                    .putInt(n).putInt(graph.edgeCount());
+            header.position(0);
+            writeFully(channel, header, 0);
+            channel.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Dijkstra desde source; el primer salto de cada nodo se hereda de su padre en el
+    // orden en que se asientan (los hijos de source son su propio primer salto)
+    private static void fillRow(GraphSnapshot graph, int source, int width, ByteBuffer distances, ByteBuffer hops) {
+        int n = graph.nodeCount();
+        SearchScratch scratch = SCRATCH.get().begin(n);
+        IndexedMinHeap heap = scratch.heap();
+        int[] firstHop = new int[n];
+        scratch.set(source, 0, -1);
+        heap.push(source, 0);
+        while (!heap.isEmpty()) {
+            int v = heap.pop();
+            int parent = scratch.parent(v);
+            firstHop[v] = parent == source ? v : parent < 0 ? -1 : firstHop[parent];
+            long dv = scratch.dist(v);
+            int[] targets = graph.outTargets(v);
+            int[] outKm = graph.outWeights(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                if (dv + outKm[e] < scratch.dist(targets[e])) {
+                    scratch.set(targets[e], dv + outKm[e], v);
+                    heap.push(targets[e], dv + outKm[e]);
+                }
+            }
+            int[] sources = graph.inSources(v);
+            int[] inKm = graph.inWeights(v);
+            for (int e = graph.inBegin(v), end = graph.inEnd(v); e < end; e++) {
+                if (dv + inKm[e] < scratch.dist(sources[e])) {
+                    scratch.set(sources[e], dv + inKm[e], v);
+                    heap.push(sources[e], dv + inKm[e]);
+                }
+            }
+        }
+
+        for (int t = 0; t < n; t++) {
+            long d = scratch.dist(t);
+            if (width == 2) {
+                distances.putChar((char) (d == ShortestPaths.UNREACHABLE ? 0xFFFF : d));
+            } else {
+                distances.putInt(d == ShortestPaths.UNREACHABLE ? -1 : (int) d);
+            }
+            hops.putChar((char) (t == source || d == ShortestPaths.UNREACHABLE
+                    ? NO_HOP
+                    : slotOf(graph, source, firstHop[t])));
+        }
+    }
+
+    // Índice de la ruta más corta de v a su vecino w
+    private static int slotOf(GraphSnapshot graph, int v, int w) {
+        int best = -1;
+        long bestKm = Long.MAX_VALUE;
+        int slot = 0;
+        for (int e = graph.outBegin(v); e < graph.outEnd(v); e++, slot++) {
+            if (graph.outTargets(v)[e] == w && graph.outWeights(v)[e] < bestKm) {
+                best = slot;
+                bestKm = graph.outWeights(v)[e];
+            }
+        }
+        for (int e = graph.inBegin(v); e < graph.inEnd(v); e++, slot++) {
+            if (graph.inSources(v)[e] == w && graph.inWeights(v)[e] < bestKm) {
+                best = slot;
+                bestKm = graph.inWeights(v)[e];
+            }
+        }
+        return best;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        long position = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Fin de archivo inesperado");
+            }
+            position += read;
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+
+// Componentes de un snapshot para rechazar en O(1) las consultas imposibles:
+//
+// - fuertemente conexas (Tarjan iterativo, siguiendo ROAD salientes): una ciudad está en
+//   un ciclo dirigido sii su componente tiene más de una ciudad;
+// - débilmente conexas (rutas en ambos sentidos, como shortestPath y simplePaths): hay
+//   camino entre dos ciudades sii están en la misma.
+//
+// Para la alcanzabilidad dirigida se arma el DAG de condensación (un nodo por componente
+// fuerte) con dos etiquetas de intervalo [low, post] de recorridos DFS distintos: si c
+// alcanza a d, el intervalo de d está contenido en el de c en ambas. Si alguno no lo está
+// la respuesta es no en O(1); si no, se busca en el DAG podando con las mismas etiquetas.
+//
+// Tarjan numera las componentes en orden de finalización, así que toda arista del DAG va
+// de un id mayor a uno menor y el propio id sirve de primera etiqueta.
+public final class GraphComponents {
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    // Marcas por época y pila de la búsqueda en el DAG, reutilizadas por hilo
+    private static final class Scratch {
+        int[] marks = new int[0];
+        int[] stack = new int[0];
+        int epoch;
+
+        int begin(int size) {
+            if (marks.length < size) {
+                marks = new int[size];
+                stack = new int[size];
+                epoch = 0;
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+            return epoch;
+        }
+    }
+
+    private final long version;
+    private final int cities;
+    // Componente fuerte de cada id (-1 para las ciudades eliminadas) y sus miembros agrupados
+    private final int[] component;
+    private final int[] memberBegin;
+    private final int[] members;
+    // Componente débil de cada id y su tamaño
+    private final int[] weak;
+    private final int[] weakSize;
+    // DAG de condensación en CSR y etiquetas de intervalo
+    private final int[] dagBegin;
+    private final int[] dagTargets;
+    private final int[] low1;
+    private final int[] post2;
+    private final int[] low2;
+
+    private GraphComponents(long version, int cities, int[] component, int[] memberBegin, int[] members,
+                            int[] weak, int[] weakSize, int[] dagBegin, int[] dagTargets,
+                            int[] low1, int[] post2, int[] low2) {
+        this.version = version;
+        this.cities = cities;
+        this.component = component;
+        this.memberBegin = memberBegin;
+        this.members = members;
+        this.weak = weak;
+        this.weakSize = weakSize;
+        this.dagBegin = dagBegin;
+        this.dagTargets = dagTargets;
+        this.low1 = low1;
+        this.post2 = post2;
+        this.low2 = low2;
+    }
+
+    // Indica si se calcularon sobre esta versión del snapshot
+    public boolean matches(GraphSnapshot graph) {
+        return graph.version() == version;
+    }
+
+    // Ciudades vivas del snapshot
+    public int cityCount() {
+        return cities;
+    }
+
+    public int componentCount() {
+        return memberBegin.length - 1;
+    }
+
+    public int component(int v) {
+        return component[v];
+    }
+
+    public int componentSize(int c) {
+        return memberBegin[c + 1] - memberBegin[c];
+    }
+
+    // Ids de las ciudades de la componente c
+    public int[] members(int c) {
+        return Arrays.copyOfRange(members, memberBegin[c], memberBegin[c + 1]);
+    }
+
+    public int weakComponentCount() {
+        return weakSize.length;
+    }
+
+    public int weakComponent(int v) {
+        return weak[v];
+    }
+
+    public int weakComponentSize(int w) {
+        return weakSize[w];
+    }
+
+    // Tamaño de la mayor componente fuerte
+    public int largestComponent() {
+        int largest = 0;
+        for (int c = 0; c < componentCount(); c++) {
+            largest = Math.max(largest, componentSize(c));
+        }
+        return largest;
+    }
+
+    public int largestWeakComponent() {
+        return Arrays.stream(weakSize).max().orElse(0);
+    }
+
+    // Hay un ciclo dirigido de al menos dos rutas que pasa por v
+    public boolean onCycle(int v) {
+        return component[v] >= 0 && componentSize(component[v]) > 1;
+    }
+
+    // Hay un camino entre u y v usando las rutas en cualquier sentido
+    public boolean connected(int u, int v) {
+        return weak[u] >= 0 && weak[u] == weak[v];
+    }
+
+    // Hay un camino dirigido de u a v
+    public boolean reaches(int u, int v) {
+        int from = component[u];
+        int to = component[v];
+        if (from < 0 || to < 0 || weak[u] != weak[v]) {
+            return false;
+        }
+        if (from == to) {
+            return true;
+        }
+        if (!contains(from, to)) {
+            return false;
+        }
+        return search(from, to);
+    }
+
+    // Condición necesaria para que c alcance a d en el DAG
+    private boolean contains(int c, int d) {
+        return low1[c] <= low1[d] && d < c
+                && low2[c] <= low2[d] && post2[d] < post2[c];
+    }
+
+    // DFS sobre el DAG desde from, entrando sólo a componentes cuyo intervalo contiene a to
+    private boolean search(int from, int to) {
+        Scratch scratch = SCRATCH.get();
+        int epoch = scratch.begin(componentCount());
+        int[] marks = scratch.marks;
+        int[] stack = scratch.stack;
+        int top = 0;
+        stack[top++] = from;
+        marks[from] = epoch;
+        while (top > 0) {
+            int c = stack[--top];
+            for (int e = dagBegin[c]; e < dagBegin[c + 1]; e++) {
+                int d = dagTargets[e];
+                if (d == to) {
+                    return true;
+                }
+                if (marks[d] != epoch && contains(d, to)) {
+                    marks[d] = epoch;
+                    stack[top++] = d;
+                }
+            }
+        }
+        return false;
+    }
+
+    public static GraphComponents compute(GraphSnapshot graph) {
+        int n = graph.nodeCount();
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int components = tarjan(graph, component);
+
+        // Miembros agrupados por componente (counting sort)
+        int[] memberBegin = new int[components + 1];
+        int cities = 0;
+        for (int v = 0; v < n; v++) {
+            if (component[v] >= 0) {
+                memberBegin[component[v] + 1]++;
+                cities++;
+            }
+        }
+        for (int c = 0; c < components; c++) {
+            memberBegin[c + 1] += memberBegin[c];
+        }
+        int[] members = new int[cities];
+        int[] fill = Arrays.copyOf(memberBegin, components);
+        for (int v = 0; v < n; v++) {
+            if (component[v] >= 0) {
+                members[fill[component[v]]++] = v;
+            }
+        }
+
+        // DAG de condensación: las aristas entre componentes distintas (puede haber repetidas)
+        int[] dagBegin = new int[components + 1];
+        for (int v = 0; v < n; v++) {
+            int[] targets = graph.outTargets(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                if (component[targets[e]] != component[v]) {
+                    dagBegin[component[v] + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < components; c++) {
+            dagBegin[c + 1] += dagBegin[c];
+        }
+        int[] dagTargets = new int[dagBegin[components]];
+        fill = Arrays.copyOf(dagBegin, components);
+        for (int v = 0; v < n; v++) {
+            int[] targets = graph.outTargets(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                int d = component[targets[e]];
+                if (d != component[v]) {
+                    dagTargets[fill[component[v]]++] = d;
+                }
+            }
+        }
+
+        // Primera etiqueta: post = id de Tarjan; los sucesores tienen id menor y ya están
+        int[] low1 = new int[components];
+        for (int c = 0; c < components; c++) {
+            int low = c;
+            for (int e = dagBegin[c]; e < dagBegin[c + 1]; e++) {
+                low = Math.min(low, low1[dagTargets[e]]);
+            }
+            low1[c] = low;
+        }
+        int[] post2 = new int[components];
+        int[] low2 = new int[components];
+        secondLabel(dagBegin, dagTargets, post2, low2);
+
+        int[] weak = new int[n];
+        int[] weakSize = weakComponents(graph, component, weak);
+        return new GraphComponents(graph.version(), cities, component, memberBegin, members,
+                weak, weakSize, dagBegin, dagTargets, low1, post2, low2);
+    }
+
+    // Tarjan iterativo: asigna component[] en orden de finalización y devuelve la cantidad
+    private static int tarjan(GraphSnapshot graph, int[] component) {
+        int n = graph.nodeCount();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] stack = new int[n];
+        int[] callNode = new int[n];
+        int[] callEdge = new int[n];
+        int counter = 0;
+        int components = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] != 0 || !graph.isAlive(root)) {
+                continue;
+            }
+            int sp = 0;
+            int depth = 0;
+            index[root] = low[root] = ++counter;
+            stack[sp++] = root;
+            callNode[depth] = root;
+            callEdge[depth++] = graph.outBegin(root);
+            while (depth > 0) {
+                int v = callNode[depth - 1];
+                int e = callEdge[depth - 1];
+                if (e < graph.outEnd(v)) {
+                    callEdge[depth - 1]++;
+                    int w = graph.outTargets(v)[e];
+                    if (index[w] == 0) {
+                        index[w] = low[w] = ++counter;
+                        stack[sp++] = w;
+                        callNode[depth] = w;
+                        callEdge[depth++] = graph.outBegin(w);
+                    } else if (component[w] < 0) {
+                        // Todavía en la pila: misma componente que v
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--sp];
+                        component[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+                if (depth > 0) {
+                    int parent = callNode[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+        return components;
+    }
+
+    // Segunda etiqueta: post-orden de un DFS sobre el DAG que recorre los sucesores al revés
+    // y empieza por las raíces de id menor, para que difiera lo más posible de la primera
+    private static void secondLabel(int[] dagBegin, int[] dagTargets, int[] post, int[] low) {
+        int components = post.length;
+        boolean[] visited = new boolean[components];
+        int[] callNode = new int[components];
+        int[] callEdge = new int[components];
+        int counter = 0;
+        for (int root = 0; root < components; root++) {
+            if (visited[root]) {
+                continue;
+            }
+            int depth = 0;
+            visited[root] = true;
+            callNode[depth] = root;
+            callEdge[depth++] = dagBegin[root + 1] - 1;
+            while (depth > 0) {
+                int c = callNode[depth - 1];
+                int e = callEdge[depth - 1];
+                if (e >= dagBegin[c]) {
+                    callEdge[depth - 1]--;
+                    int d = dagTargets[e];
+                    if (!visited[d]) {
+                        visited[d] = true;
+                        callNode[depth] = d;
+                        callEdge[depth++] = dagBegin[d + 1] - 1;
+                    }
+                    continue;
+                }
+                depth--;
+                post[c] = counter++;
+                int min = post[c];
+                for (int f = dagBegin[c]; f < dagBegin[c + 1]; f++) {
+                    min = Math.min(min, low[dagTargets[f]]);
+                }
+                low[c] = min;
+            }
+        }
+    }
+
+    // Completa weak[] con ids densos (-1 para las ciudades eliminadas) y devuelve los tamaños
+    private static int[] weakComponents(GraphSnapshot graph, int[] component, int[] weak) {
+        int n = graph.nodeCount();
+        UnionFind sets = new UnionFind(n);
+        for (int v = 0; v < n; v++) {
+            int[] targets = graph.outTargets(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                sets.union(v, targets[e]);
+            }
+        }
+        int[] dense = new int[n];
+        Arrays.fill(dense, -1);
+        int[] sizes = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            if (component[v] < 0) {
+                weak[v] = -1;
+                continue;
+            }
+            int root = sets.find(v);
+            if (dense[root] < 0) {
+                dense[root] = count++;
+            }
+            weak[v] = dense[root];
+            sizes[weak[v]]++;
+        }
+        return Arrays.copyOf(sizes, count);
+    }
+}
@@ -0,0 +1,71 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Cambios a aplicar sobre un GraphSnapshot: ciudades nuevas o modificadas con su
+// lista completa de rutas salientes, y ciudades eliminadas.
+public final class GraphDelta {
+
+    public record Edge(String target, int km) {
+    }
+
+    private final Map<String, List<Edge>> upsertedCities = new LinkedHashMap<>();
+    private final Map<String, double[]> coordinates = new HashMap<>();
+    private final Set<String> removedCities = new LinkedHashSet<>();
+
+    // Registra la ciudad como modificada; sus rutas salientes se reemplazan por las
+    // que se agreguen con addRoad (ninguna si no se agrega ninguna)
+    public GraphDelta upsertCity(String name) {
+        removedCities.remove(name);
+        upsertedCities.computeIfAbsent(name, k -> new ArrayList<>());
+        return this;
+    }
+
+    public GraphDelta upsertCity(String name, double latitude, double longitude) {
+        upsertCity(name);
+        if (!Double.isNaN(latitude) && !Double.isNaN(longitude)) {
+            coordinates.put(name, new double[]{latitude, longitude});
+        }
+        return this;
+    }
+
+    public GraphDelta addRoad(String source, String target, int km) {
+        upsertCity(source);
+        upsertedCities.get(source).add(new Edge(target, km));
+        return this;
+    }
+
+    public GraphDelta removeCity(String name) {
+        upsertedCities.remove(name);
+        coordinates.remove(name);
+        removedCities.add(name);
+        return this;
+    }
+
+    public Map<String, List<Edge>> upsertedCities() {
+        return upsertedCities;
+    }
+
+    // Coordenadas {lat, lon} de las ciudades modificadas que las informan
+    public Map<String, double[]> coordinates() {
+        return coordinates;
+    }
+
+    public Set<String> removedCities() {
+        return removedCities;
+    }
+
+    public boolean isEmpty() {
+        return upsertedCities.isEmpty() && removedCities.isEmpty();
+    }
+
+    public int size() {
+        return upsertedCities.size() + removedCities.size();
+    }
+}
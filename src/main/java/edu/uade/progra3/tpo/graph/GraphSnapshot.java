@@ -0,0 +1,631 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Foto inmutable del grafo de ciudades en formato CSR (compressed sparse row).
+// Cada ciudad tiene un id entero denso; las rutas salientes de v ocupan
+// [outBegin(v), outEnd(v)) dentro de outTargets(v) / outWeights(v), y lo mismo
+// para las entrantes. Los algoritmos recorren siempre a través de estos accesores.
+//
+// Internamente los nodos se agrupan en segmentos de SEGMENT_SIZE ids con su propio
+// CSR, de modo que withChanges() sólo copia los segmentos que toca el delta y
+// comparte el resto con la versión anterior.
+public final class GraphSnapshot {
+    static final int SEGMENT_SHIFT = 10;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final long version;
+    private final long changeMarker;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final NameIndex ids;
+    private final Segment[] segments;
+    // Se calcula la primera vez que se pide; dos hilos pueden calcularla a la vez
+    private volatile Long fingerprint;
+
+    private GraphSnapshot(long version, long changeMarker, int nodeCount, int edgeCount,
+                          NameIndex ids, Segment[] segments) {
+        this.version = version;
+        this.changeMarker = changeMarker;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.ids = ids;
+        this.segments = segments;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // Marca del feed de cambios (updatedAt más alto) que ya está reflejada en el snapshot
+    public long changeMarker() {
+        return changeMarker;
+    }
+
+    // Huella de 64 bits del contenido: nombres por id y rutas salientes de cada ciudad en
+    // orden, con sus km. No depende de la versión ni de la marca del feed, así que dos
+    // snapshots con la misma huella numeran igual las ciudades y las rutas; los archivos
+    // derivados (contraction hierarchy, tabla de distancias) la guardan para validarse.
+    public long fingerprint() {
+        Long cached = fingerprint;
+        if (cached == null) {
+            cached = computeFingerprint();
+            fingerprint = cached;
+        }
+        return cached;
+    }
+
+    private long computeFingerprint() {
+        long hash = mix(nodeCount, edgeCount);
+        for (int v = 0; v < nodeCount; v++) {
+            String name = name(v);
+            if (name == null) {
+                hash = mix(hash, -1);
+                continue;
+            }
+            hash = mix(hash, name.length());
+            for (int i = 0; i < name.length(); i++) {
+                hash = mix(hash, name.charAt(i));
+            }
+            int[] targets = outTargets(v);
+            int[] weights = outWeights(v);
+            int begin = outBegin(v);
+            int end = outEnd(v);
+            hash = mix(hash, end - begin);
+            for (int e = begin; e < end; e++) {
+                hash = mix(hash, ((long) targets[e] << 32) | (weights[e] & 0xFFFFFFFFL));
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 31);
+    }
+
+    // Cantidad de ids asignados, incluyendo ciudades eliminadas (ver isAlive)
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    // Devuelve el id de la ciudad o -1 si no existe
+    public int id(String name) {
+        return ids.get(name);
+    }
+
+    public String name(int id) {
+        return segments[id >>> SEGMENT_SHIFT].names[id & SEGMENT_MASK];
+    }
+
+    // Las ciudades eliminadas conservan su id pero no tienen nombre ni rutas
+    public boolean isAlive(int id) {
+        return name(id) != null;
+    }
+
+    // Coordenadas en grados, NaN si la ciudad no las tiene
+    public double latitude(int id) {
+        return segments[id >>> SEGMENT_SHIFT].latitudes[id & SEGMENT_MASK];
+    }
+
+    public double longitude(int id) {
+        return segments[id >>> SEGMENT_SHIFT].longitudes[id & SEGMENT_MASK];
+    }
+
+    public boolean hasCoordinates(int id) {
+        return !Double.isNaN(latitude(id)) && !Double.isNaN(longitude(id));
+    }
+
+    public int outBegin(int v) {
+        return segments[v >>> SEGMENT_SHIFT].outOffsets[v & SEGMENT_MASK];
+    }
+
+    public int outEnd(int v) {
+        return segments[v >>> SEGMENT_SHIFT].outOffsets[(v & SEGMENT_MASK) + 1];
+    }
+
+    public int[] outTargets(int v) {
+        return segments[v >>> SEGMENT_SHIFT].outTargets;
+    }
+
+    public int[] outWeights(int v) {
+        return segments[v >>> SEGMENT_SHIFT].outWeights;
+    }
+
+    public int inBegin(int v) {
+        return segments[v >>> SEGMENT_SHIFT].inOffsets[v & SEGMENT_MASK];
+    }
+
+    public int inEnd(int v) {
+        return segments[v >>> SEGMENT_SHIFT].inOffsets[(v & SEGMENT_MASK) + 1];
+    }
+
+    public int[] inSources(int v) {
+        return segments[v >>> SEGMENT_SHIFT].inSources;
+    }
+
+    public int[] inWeights(int v) {
+        return segments[v >>> SEGMENT_SHIFT].inWeights;
+    }
+
+    // Aplica un delta y devuelve un snapshot nuevo. Sólo se reconstruyen los segmentos
+    // de las ciudades afectadas (las modificadas, sus vecinos viejos y nuevos, y las
+    // que tenían rutas hacia ciudades eliminadas); el costo es proporcional al delta.
+    public GraphSnapshot withChanges(GraphDelta delta, long newVersion, long newChangeMarker) {
+        Map<String, Integer> addedNames = new HashMap<>();
+        int[] nextId = {nodeCount};
+
+        Set<Integer> removed = new HashSet<>();
+        for (String name : delta.removedCities()) {
+            int id = id(name);
+            if (id >= 0) {
+                removed.add(id);
+            }
+        }
+
+        // Nuevas listas salientes de las ciudades reemplazadas (modificadas o eliminadas)
+        Map<Integer, int[][]> replacedOut = new HashMap<>();
+        Map<Integer, double[]> coordinates = new HashMap<>();
+        for (Map.Entry<String, List<GraphDelta.Edge>> city : delta.upsertedCities().entrySet()) {
+            int v = resolve(city.getKey(), addedNames, nextId);
+            double[] latLon = delta.coordinates().get(city.getKey());
+            if (latLon != null) {
+                coordinates.put(v, latLon);
+            }
+            IntPairs out = new IntPairs(city.getValue().size());
+            for (GraphDelta.Edge road : city.getValue()) {
+                int target = resolve(road.target(), addedNames, nextId);
+                if (!removed.contains(target)) {
+                    out.add(target, road.km());
+                }
+            }
+            replacedOut.put(v, new int[][]{out.firsts(), out.seconds()});
+        }
+        for (int r : removed) {
+            replacedOut.put(r, new int[][]{new int[0], new int[0]});
+        }
+
+        int newNodeCount = nextId[0];
+        Set<Integer> touched = new HashSet<>();
+        Map<Integer, List<int[]>> addedIn = new HashMap<>();
+        for (Map.Entry<Integer, int[][]> entry : replacedOut.entrySet()) {
+            int v = entry.getKey();
+            touched.add(v);
+            if (v < nodeCount) {
+                int[] targets = outTargets(v);
+                for (int e = outBegin(v), end = outEnd(v); e < end; e++) {
+                    touched.add(targets[e]);
+                }
+            }
+            int[][] out = entry.getValue();
+            for (int i = 0; i < out[0].length; i++) {
+                touched.add(out[0][i]);
+                addedIn.computeIfAbsent(out[0][i], k -> new ArrayList<>()).add(new int[]{v, out[1][i]});
+            }
+        }
+        for (int r : removed) {
+            int[] sources = inSources(r);
+            for (int e = inBegin(r), end = inEnd(r); e < end; e++) {
+                touched.add(sources[e]);
+            }
+        }
+        for (int v = nodeCount; v < newNodeCount; v++) {
+            touched.add(v);
+        }
+
+        // Listas finales de cada nodo tocado: {targets, km, sources, km}
+        Map<Integer, int[][]> overrides = new HashMap<>();
+        int newEdgeCount = edgeCount;
+        for (int v : touched) {
+            int[][] lists = new int[4][];
+            int oldOut = v < nodeCount ? outEnd(v) - outBegin(v) : 0;
+            if (replacedOut.containsKey(v)) {
+                lists[0] = replacedOut.get(v)[0];
+                lists[1] = replacedOut.get(v)[1];
+            } else {
+                IntPairs out = new IntPairs(oldOut);
+                if (v < nodeCount) {
+                    int[] targets = outTargets(v);
+                    int[] km = outWeights(v);
+                    for (int e = outBegin(v), end = outEnd(v); e < end; e++) {
+                        if (!removed.contains(targets[e])) {
+                            out.add(targets[e], km[e]);
+                        }
+                    }
+                }
+                lists[0] = out.firsts();
+                lists[1] = out.seconds();
+            }
+            newEdgeCount += lists[0].length - oldOut;
+
+            IntPairs in = new IntPairs(v < nodeCount ? inEnd(v) - inBegin(v) : 0);
+            if (!removed.contains(v)) {
+                if (v < nodeCount) {
+                    int[] sources = inSources(v);
+                    int[] km = inWeights(v);
+                    for (int e = inBegin(v), end = inEnd(v); e < end; e++) {
+                        if (!replacedOut.containsKey(sources[e])) {
+                            in.add(sources[e], km[e]);
+                        }
+                    }
+                }
+                for (int[] edge : addedIn.getOrDefault(v, List.of())) {
+                    in.add(edge[0], edge[1]);
+                }
+            }
+            lists[2] = in.firsts();
+            lists[3] = in.seconds();
+            overrides.put(v, lists);
+        }
+
+        int segmentCount = (newNodeCount + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT;
+        Segment[] newSegments = Arrays.copyOf(segments, segmentCount);
+        Set<Integer> dirtySegments = new HashSet<>();
+        for (int v : touched) {
+            dirtySegments.add(v >>> SEGMENT_SHIFT);
+        }
+        for (int s : dirtySegments) {
+            newSegments[s] = rebuildSegment(s, newNodeCount, overrides, addedNames, removed, coordinates);
+        }
+
+        Set<String> removedNames = new HashSet<>();
+        for (int r : removed) {
+            removedNames.add(name(r));
+        }
+        return new GraphSnapshot(newVersion, newChangeMarker, newNodeCount, newEdgeCount,
+                ids.with(addedNames, removedNames), newSegments);
+    }
+
+    private int resolve(String name, Map<String, Integer> addedNames, int[] nextId) {
+        int id = id(name);
+        if (id >= 0) {
+            return id;
+        }
+        return addedNames.computeIfAbsent(name, k -> nextId[0]++);
+    }
+
+    private Segment rebuildSegment(int s, int newNodeCount, Map<Integer, int[][]> overrides,
+                                   Map<String, Integer> addedNames, Set<Integer> removed,
+                                   Map<Integer, double[]> coordinates) {
+        Segment old = s < segments.length ? segments[s] : null;
+        int lo = s << SEGMENT_SHIFT;
+        int hi = Math.min(newNodeCount, lo + SEGMENT_SIZE);
+
+        String[] names = old != null ? old.names.clone() : new String[SEGMENT_SIZE];
+        for (Map.Entry<String, Integer> added : addedNames.entrySet()) {
+            int v = added.getValue();
+            if (v >>> SEGMENT_SHIFT == s) {
+                names[v & SEGMENT_MASK] = added.getKey();
+            }
+        }
+        for (int r : removed) {
+            if (r >>> SEGMENT_SHIFT == s) {
+                names[r & SEGMENT_MASK] = null;
+            }
+        }
+        double[] latitudes = old != null ? old.latitudes.clone() : emptyCoordinates();
+        double[] longitudes = old != null ? old.longitudes.clone() : emptyCoordinates();
+        for (Map.Entry<Integer, double[]> city : coordinates.entrySet()) {
+            int v = city.getKey();
+            if (v >>> SEGMENT_SHIFT == s) {
+                latitudes[v & SEGMENT_MASK] = city.getValue()[0];
+                longitudes[v & SEGMENT_MASK] = city.getValue()[1];
+            }
+        }
+
+        int outTotal = 0;
+        int inTotal = 0;
+        for (int v = lo; v < hi; v++) {
+            int[][] lists = overrides.get(v);
+            outTotal += lists != null ? lists[0].length : outEnd(v) - outBegin(v);
+            inTotal += lists != null ? lists[2].length : inEnd(v) - inBegin(v);
+        }
+
+        int[] outOffsets = new int[SEGMENT_SIZE + 1];
+        int[] outTargets = new int[outTotal];
+        int[] outWeights = new int[outTotal];
+        int[] inOffsets = new int[SEGMENT_SIZE + 1];
+        int[] inSources = new int[inTotal];
+        int[] inWeights = new int[inTotal];
+        int o = 0;
+        int i = 0;
+        for (int v = lo; v < lo + SEGMENT_SIZE; v++) {
+            int local = v & SEGMENT_MASK;
+            outOffsets[local] = o;
+            inOffsets[local] = i;
+            if (v >= hi) {
+                continue;
+            }
+            int[][] lists = overrides.get(v);
+            if (lists != null) {
+                System.arraycopy(lists[0], 0, outTargets, o, lists[0].length);
+                System.arraycopy(lists[1], 0, outWeights, o, lists[1].length);
+                o += lists[0].length;
+                System.arraycopy(lists[2], 0, inSources, i, lists[2].length);
+                System.arraycopy(lists[3], 0, inWeights, i, lists[3].length);
+                i += lists[2].length;
+            } else {
+                int begin = old.outOffsets[local];
+                int length = old.outOffsets[local + 1] - begin;
+                System.arraycopy(old.outTargets, begin, outTargets, o, length);
+                System.arraycopy(old.outWeights, begin, outWeights, o, length);
+                o += length;
+                begin = old.inOffsets[local];
+                length = old.inOffsets[local + 1] - begin;
+                System.arraycopy(old.inSources, begin, inSources, i, length);
+                System.arraycopy(old.inWeights, begin, inWeights, i, length);
+                i += length;
+            }
+        }
+        outOffsets[SEGMENT_SIZE] = o;
+        inOffsets[SEGMENT_SIZE] = i;
+        return new Segment(names, latitudes, longitudes,
+                outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights);
+    }
+
+    private static double[] emptyCoordinates() {
+        double[] coordinates = new double[SEGMENT_SIZE];
+        Arrays.fill(coordinates, Double.NaN);
+        return coordinates;
+    }
+
+    // Arma el snapshot desde un CSR global (ids 0..nodeCount-1, nombre null para las
+    // eliminadas), partiéndolo en segmentos con offsets locales
+    static GraphSnapshot fromCsr(long version, long changeMarker, int nodeCount, String[] names,
+                                 double[] latitudes, double[] longitudes,
+                                 int[] outOffsets, int[] outTargets, int[] outWeights,
+                                 int[] inOffsets, int[] inSources, int[] inWeights) {
+        int n = nodeCount;
+        Map<String, Integer> ids = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            if (names[v] != null) {
+                ids.put(names[v], v);
+            }
+        }
+        Segment[] segments = new Segment[(n + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT];
+        for (int s = 0; s < segments.length; s++) {
+            int lo = s << SEGMENT_SHIFT;
+            int hi = Math.min(n, lo + SEGMENT_SIZE);
+            segments[s] = new Segment(
+                    Arrays.copyOf(Arrays.copyOfRange(names, lo, hi), SEGMENT_SIZE),
+                    localCoordinates(latitudes, lo, hi),
+                    localCoordinates(longitudes, lo, hi),
+                    localOffsets(outOffsets, lo, hi),
+                    Arrays.copyOfRange(outTargets, outOffsets[lo], outOffsets[hi]),
+                    Arrays.copyOfRange(outWeights, outOffsets[lo], outOffsets[hi]),
+                    localOffsets(inOffsets, lo, hi),
+                    Arrays.copyOfRange(inSources, inOffsets[lo], inOffsets[hi]),
+                    Arrays.copyOfRange(inWeights, inOffsets[lo], inOffsets[hi]));
+        }
+        return new GraphSnapshot(version, changeMarker, n, outOffsets[n],
+                new NameIndex(Map.copyOf(ids), Map.of()), segments);
+    }
+
+    private static double[] localCoordinates(double[] coordinates, int lo, int hi) {
+        double[] local = emptyCoordinates();
+        System.arraycopy(coordinates, lo, local, 0, hi - lo);
+        return local;
+    }
+
+    private static int[] localOffsets(int[] offsets, int lo, int hi) {
+        int[] local = new int[SEGMENT_SIZE + 1];
+        for (int v = lo; v <= lo + SEGMENT_SIZE; v++) {
+            local[v - lo] = offsets[Math.min(v, hi)] - offsets[lo];
+        }
+        return local;
+    }
+
+    public static Builder builder(long version) {
+        return new Builder(version);
+    }
+
+    // CSR de un bloque de SEGMENT_SIZE ids consecutivos, con offsets locales al bloque
+    private static final class Segment {
+        final String[] names;
+        final double[] latitudes;
+        final double[] longitudes;
+        final int[] outOffsets;
+        final int[] outTargets;
+        final int[] outWeights;
+        final int[] inOffsets;
+        final int[] inSources;
+        final int[] inWeights;
+
+        Segment(String[] names, double[] latitudes, double[] longitudes,
+                int[] outOffsets, int[] outTargets, int[] outWeights,
+                int[] inOffsets, int[] inSources, int[] inWeights) {
+            this.names = names;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.outOffsets = outOffsets;
+            this.outTargets = outTargets;
+            this.outWeights = outWeights;
+            this.inOffsets = inOffsets;
+            this.inSources = inSources;
+            this.inWeights = inWeights;
+        }
+    }
+
+    // Par de arreglos int paralelos que crecen a demanda
+    private static final class IntPairs {
+        private int[] firsts;
+        private int[] seconds;
+        private int size;
+
+        IntPairs(int capacity) {
+            firsts = new int[Math.max(capacity, 4)];
+            seconds = new int[firsts.length];
+        }
+
+        void add(int first, int second) {
+            if (size == firsts.length) {
+                firsts = Arrays.copyOf(firsts, size * 2);
+                seconds = Arrays.copyOf(seconds, size * 2);
+            }
+            firsts[size] = first;
+            seconds[size] = second;
+            size++;
+        }
+
+        int[] firsts() {
+            return Arrays.copyOf(firsts, size);
+        }
+
+        int[] seconds() {
+            return Arrays.copyOf(seconds, size);
+        }
+    }
+
+    // Diccionario nombre -> id: un mapa base compartido entre versiones más un overlay
+    // chico con las altas y bajas posteriores, que se compacta cuando crece demasiado.
+    private static final class NameIndex {
+        private static final int REMOVED = -1;
+
+        private final Map<String, Integer> base;
+        private final Map<String, Integer> overlay;
+
+        NameIndex(Map<String, Integer> base, Map<String, Integer> overlay) {
+            this.base = base;
+            this.overlay = overlay;
+        }
+
+        int get(String name) {
+            Integer id = overlay.get(name);
+            if (id == null) {
+                id = base.get(name);
+            }
+            return id == null ? -1 : id;
+        }
+
+        NameIndex with(Map<String, Integer> added, Set<String> removed) {
+            Map<String, Integer> merged = new HashMap<>(overlay);
+            merged.putAll(added);
+            for (String name : removed) {
+                merged.put(name, REMOVED);
+            }
+            if (merged.size() <= base.size() / 8 + SEGMENT_SIZE) {
+                return new NameIndex(base, merged);
+            }
+            Map<String, Integer> compacted = new HashMap<>(base);
+            merged.forEach((name, id) -> {
+                if (id == REMOVED) {
+                    compacted.remove(name);
+                } else {
+                    compacted.put(name, id);
+                }
+            });
+            return new NameIndex(compacted, Map.of());
+        }
+    }
+
+    // Acumula ciudades y rutas en arreglos primitivos y arma el CSR al final
+    public static final class Builder {
+        private final long version;
+        private long changeMarker;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] names = new String[16];
+        private double[] latitudes = new double[16];
+        private double[] longitudes = new double[16];
+        private int nodeCount;
+
+        private int[] from = new int[64];
+        private int[] to = new int[64];
+        private int[] km = new int[64];
+        private int edgeCount;
+
+        private Builder(long version) {
+            this.version = version;
+        }
+
+        public Builder changeMarker(long changeMarker) {
+            this.changeMarker = changeMarker;
+            return this;
+        }
+
+        public int addCity(String name) {
+            return addCity(name, Double.NaN, Double.NaN);
+        }
+
+        // Si la ciudad ya existía sólo se actualizan las coordenadas conocidas
+        public int addCity(String name, double latitude, double longitude) {
+            Integer existing = ids.get(name);
+            if (existing != null) {
+                if (!Double.isNaN(latitude)) {
+                    latitudes[existing] = latitude;
+                    longitudes[existing] = longitude;
+                }
+                return existing;
+            }
+            if (nodeCount == names.length) {
+                names = Arrays.copyOf(names, nodeCount * 2);
+                latitudes = Arrays.copyOf(latitudes, nodeCount * 2);
+                longitudes = Arrays.copyOf(longitudes, nodeCount * 2);
+            }
+            names[nodeCount] = name;
+            latitudes[nodeCount] = latitude;
+            longitudes[nodeCount] = longitude;
+            ids.put(name, nodeCount);
+            return nodeCount++;
+        }
+
+        public Builder addRoad(String source, String target, int distance) {
+            return addRoad(addCity(source), addCity(target), distance);
+        }
+
+        public Builder addRoad(int source, int target, int distance) {
+            if (edgeCount == from.length) {
+                from = Arrays.copyOf(from, edgeCount * 2);
+                to = Arrays.copyOf(to, edgeCount * 2);
+                km = Arrays.copyOf(km, edgeCount * 2);
+            }
+            from[edgeCount] = source;
+            to[edgeCount] = target;
+            km[edgeCount] = distance;
+            edgeCount++;
+            return this;
+        }
+
+        public GraphSnapshot build() {
+            int n = nodeCount;
+            int[] outOffsets = new int[n + 1];
+            int[] inOffsets = new int[n + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                outOffsets[from[e] + 1]++;
+                inOffsets[to[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                outOffsets[v + 1] += outOffsets[v];
+                inOffsets[v + 1] += inOffsets[v];
+            }
+
+            int[] outTargets = new int[edgeCount];
+            int[] outWeights = new int[edgeCount];
+            int[] inSources = new int[edgeCount];
+            int[] inWeights = new int[edgeCount];
+            int[] outPos = Arrays.copyOf(outOffsets, n);
+            int[] inPos = Arrays.copyOf(inOffsets, n);
+            for (int e = 0; e < edgeCount; e++) {
+                int o = outPos[from[e]]++;
+                outTargets[o] = to[e];
+                outWeights[o] = km[e];
+                int i = inPos[to[e]]++;
+                inSources[i] = from[e];
+                inWeights[i] = km[e];
+            }
+
+            return fromCsr(version, changeMarker, n, names, latitudes, longitudes,
+                    outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+
+// Recorridos BFS / DFS sobre el snapshot. Por defecto las rutas se consideran en ambos
+// sentidos, igual que el relationshipFilter 'ROAD' de apoc.path.expandConfig; con
+// Direction se limitan a las salientes ('ROAD>') o a las entrantes ('<ROAD').
+//
+// Los visitados van en un bitset y el orden, los niveles y los padres en arreglos del
+// hilo que se reutilizan entre llamadas: una vez que alcanzan el tamaño del grafo, un
+// recorrido no genera basura. El bitset se limpia al final recorriendo sólo lo visitado.
+public final class GraphTraversal {
+    public static final int NO_DEPTH_LIMIT = Integer.MAX_VALUE;
+
+    private static final ThreadLocal<Result> SCRATCH = ThreadLocal.withInitial(Result::new);
+
+    public enum Direction {
+        OUTGOING, INCOMING, BOTH
+    }
+
+    public enum Mode {
+        SEQUENTIAL,
+        // BFS por niveles en el pool (ParallelBfs); cada nivel sale ordenado por id
+        PARALLEL
+    }
+
+    // Nodos alcanzados en orden de visita, con su nivel (BFS) o profundidad en el árbol
+    // del DFS y el nodo desde el que se llegó (-1 para el origen). Vive en los buffers
+    // del hilo: vale hasta el próximo recorrido en el mismo hilo.
+    public static final class Result {
+        private long[] visited = new long[0];
+        private int[] order = new int[0];
+        private int[] depth = new int[0];
+        private int[] parent = new int[0];
+        // DFS: posición en order de cada marco de la pila y su próxima arista
+        private int[] frames = new int[0];
+        private int[] cursor = new int[0];
+        private int count;
+
+        public int count() {
+            return count;
+        }
+
+        public int node(int i) {
+            return order[i];
+        }
+
+        public int depth(int i) {
+            return depth[i];
+        }
+
+        public int parent(int i) {
+            return parent[i];
+        }
+
+        // Copia de los ids en orden de visita
+        public int[] nodes() {
+            return Arrays.copyOf(order, count);
+        }
+
+        private Result begin(int n) {
+            if (order.length < n) {
+                int capacity = Math.max(n, order.length + (order.length >> 1));
+                visited = new long[(capacity + 63) >>> 6];
+                order = new int[capacity];
+                depth = new int[capacity];
+                parent = new int[capacity];
+                frames = new int[capacity];
+                cursor = new int[capacity];
+            }
+            count = 0;
+            return this;
+        }
+
+        // Marca v como visitado y lo agrega al orden; false si ya lo estaba
+        private boolean visit(int v, int level, int from) {
+            long bit = 1L << v;
+            if ((visited[v >>> 6] & bit) != 0) {
+                return false;
+            }
+            visited[v >>> 6] |= bit;
+            order[count] = v;
+            depth[count] = level;
+            parent[count] = from;
+            count++;
+            return true;
+        }
+
+        private boolean isVisited(int v) {
+            return (visited[v >>> 6] & (1L << v)) != 0;
+        }
+
+        private Result finish() {
+            for (int i = 0; i < count; i++) {
+                visited[order[i] >>> 6] = 0;
+            }
+            return this;
+        }
+    }
+
+    private GraphTraversal() {
+    }
+
+    // BFS - devuelve los ids en orden de visita
+    public static int[] bfs(GraphSnapshot graph, int start) {
+        return bfs(graph, start, Direction.BOTH, NO_DEPTH_LIMIT).nodes();
+    }
+
+    // DFS - orden de visita en preorden
+    public static int[] dfs(GraphSnapshot graph, int start) {
+        return dfs(graph, start, Direction.BOTH, NO_DEPTH_LIMIT).nodes();
+    }
+
+    // BFS hasta maxDepth rutas desde start; el orden hace de cola
+    public static Result bfs(GraphSnapshot graph, int start, Direction direction, int maxDepth) {
+        Result r = SCRATCH.get().begin(graph.nodeCount());
+        r.visit(start, 0, -1);
+        for (int head = 0; head < r.count; head++) {
+            int level = r.depth[head];
+            if (level >= maxDepth) {
+                // Los que siguen en la cola están en este nivel o el siguiente
+                break;
+            }
+            int v = r.order[head];
+            if (direction != Direction.INCOMING) {
+                int[] targets = graph.outTargets(v);
+                for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                    r.visit(targets[e], level + 1, v);
+                }
+            }
+            if (direction != Direction.OUTGOING) {
+                int[] sources = graph.inSources(v);
+                for (int e = graph.inBegin(v), end = graph.inEnd(v); e < end; e++) {
+                    r.visit(sources[e], level + 1, v);
+                }
+            }
+        }
+        return r.finish();
+    }
+
+    // DFS equivalente al recursivo (salientes y después entrantes, en orden de adyacencia)
+    // con una pila explícita de a lo sumo un marco por nodo; cada marco recuerda por qué
+    // arista sigue. Con maxDepth no se expanden los nodos a esa profundidad.
+    public static Result dfs(GraphSnapshot graph, int start, Direction direction, int maxDepth) {
+        Result r = SCRATCH.get().begin(graph.nodeCount());
+        r.visit(start, 0, -1);
+        int top = 0;
+        r.frames[0] = 0;
+        r.cursor[0] = 0;
+        while (top >= 0) {
+            int position = r.frames[top];
+            int v = r.order[position];
+            int level = r.depth[position];
+            int outCount = direction == Direction.INCOMING ? 0 : graph.outEnd(v) - graph.outBegin(v);
+            int degree = outCount + (direction == Direction.OUTGOING ? 0 : graph.inEnd(v) - graph.inBegin(v));
+            int k = level >= maxDepth ? degree : r.cursor[top];
+            int next = -1;
+            while (k < degree) {
+                int w = k < outCount
+                        ? graph.outTargets(v)[graph.outBegin(v) + k]
+                        : graph.inSources(v)[graph.inBegin(v) + k - outCount];
+                k++;
+                if (!r.isVisited(w)) {
+                    next = w;
+                    break;
+                }
+            }
+            if (next < 0) {
+                top--;
+                continue;
+            }
+            r.cursor[top] = k;
+            r.visit(next, level + 1, v);
+            top++;
+            r.frames[top] = r.count - 1;
+            r.cursor[top] = 0;
+        }
+        return r.finish();
+    }
+}
@@ -0,0 +1,122 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+
+// Heap binario de ids de nodo con prioridad long y decrease-key, sin objetos por
+// entrada. pos[] no necesita limpiarse entre usos: un nodo está en el heap sólo si
+// su posición es menor que size y el heap lo tiene en esa posición.
+public final class IndexedMinHeap {
+    private int[] heap;
+    private int[] pos;
+    private long[] key;
+    private int size;
+    private final SearchWork work = SearchWork.current();
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[Math.max(capacity, 1)];
+        pos = new int[heap.length];
+        key = new long[heap.length];
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity > pos.length) {
+            heap = Arrays.copyOf(heap, capacity);
+            pos = Arrays.copyOf(pos, capacity);
+            key = Arrays.copyOf(key, capacity);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int v) {
+        int p = pos[v];
+        return p < size && heap[p] == v;
+    }
+
+    public long minKey() {
+        return key[heap[0]];
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    // Inserta v o baja su prioridad si ya estaba y la nueva es menor
+    public void push(int v, long priority) {
+        if (contains(v)) {
+            if (priority < key[v]) {
+                key[v] = priority;
+                siftUp(pos[v]);
+            }
+            return;
+        }
+        key[v] = priority;
+        heap[size] = v;
+        pos[v] = size;
+        siftUp(size++);
+    }
+
+    public int pop() {
+        work.settled++;
+        int min = heap[0];
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            pos[last] = 0;
+            siftDown(0);
+        }
+        // Invalida la posición para que contains() no lo vea si otro nodo ocupa ese lugar
+        pos[min] = Integer.MAX_VALUE;
+        return min;
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        long k = key[v];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (key[p] <= k) {
+                break;
+            }
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+
+    private void siftDown(int i) {
+        int v = heap[i];
+        long k = key[v];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int c = heap[child];
+            int right = child + 1;
+            if (right < size && key[heap[right]] < key[c]) {
+                child = right;
+                c = heap[child];
+            }
+            if (k <= key[c]) {
+                break;
+            }
+            heap[i] = c;
+            pos[c] = i;
+            i = child;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+}
@@ -0,0 +1,157 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Los k caminos simples más cortos entre dos ciudades (algoritmo de Yen).
+// Cada camino nuevo se obtiene desviándose de uno ya aceptado en algún nodo
+// ("spur"): se prohíben los nodos del prefijo y las rutas que ya usaron los caminos
+// aceptados con ese mismo prefijo, y se completa con un Dijkstra desde el spur.
+public final class KShortestPaths {
+
+    private static final ThreadLocal<SearchScratch> SCRATCH = ThreadLocal.withInitial(SearchScratch::new);
+    private static final ThreadLocal<SearchScratch> BANNED = ThreadLocal.withInitial(SearchScratch::new);
+
+    private KShortestPaths() {
+    }
+
+    // Caminos en orden creciente de distancia, a lo sumo k y ninguno de más de maxDistance km
+    public static List<PathResult> yen(GraphSnapshot graph, int source, int target, int k, long maxDistance) {
+        List<PathResult> accepted = new ArrayList<>();
+        if (k <= 0 || source == target) {
+            return accepted;
+        }
+        PathResult first = ShortestPaths.shortestPath(graph, source, target, ShortestPaths.Algorithm.BIDIRECTIONAL);
+        if (first.isEmpty() || first.distance() > maxDistance) {
+            return accepted;
+        }
+        accepted.add(first);
+
+        PriorityQueue<PathResult> candidates = new PriorityQueue<>((a, b) -> Long.compare(a.distance(), b.distance()));
+        Set<String> seen = new HashSet<>();
+        seen.add(Arrays.toString(first.nodes()));
+
+        while (accepted.size() < k) {
+            int[] previous = accepted.get(accepted.size() - 1).nodes();
+            long rootDistance = 0;
+            for (int i = 0; i + 1 < previous.length; i++) {
+                int spur = previous[i];
+                SearchScratch banned = BANNED.get().begin(graph.nodeCount());
+                for (int j = 0; j < i; j++) {
+                    banned.set(previous[j], 0, -1);
+                }
+                // Siguientes nodos prohibidos desde el spur: los que usan los caminos con el mismo prefijo
+                int[] bannedNext = new int[accepted.size()];
+                int bannedCount = 0;
+                for (PathResult path : accepted) {
+                    int[] nodes = path.nodes();
+                    if (nodes.length > i + 1 && Arrays.equals(nodes, 0, i + 1, previous, 0, i + 1)) {
+                        bannedNext[bannedCount++] = nodes[i + 1];
+                    }
+                }
+
+                PathResult spurPath = restrictedDijkstra(graph, spur, target, banned, bannedNext, bannedCount,
+                        maxDistance - rootDistance);
+                if (!spurPath.isEmpty()) {
+                    int[] nodes = new int[i + spurPath.nodes().length];
+                    System.arraycopy(previous, 0, nodes, 0, i);
+                    System.arraycopy(spurPath.nodes(), 0, nodes, i, spurPath.nodes().length);
+                    if (seen.add(Arrays.toString(nodes))) {
+                        candidates.add(new PathResult(nodes, rootDistance + spurPath.distance()));
+                    }
+                }
+                rootDistance += edgeWeight(graph, previous[i], previous[i + 1]);
+            }
+
+            PathResult next = candidates.poll();
+            if (next == null || next.distance() > maxDistance) {
+                break;
+            }
+            accepted.add(next);
+        }
+        return accepted;
+    }
+
+    // Dijkstra desde spur que no entra a nodos prohibidos ni toma, desde el spur, las
+    // rutas hacia bannedNext; se corta al pasar limit km
+    private static PathResult restrictedDijkstra(GraphSnapshot graph, int spur, int target, SearchScratch banned,
+                                                 int[] bannedNext, int bannedCount, long limit) {
+        SearchScratch scratch = SCRATCH.get().begin(graph.nodeCount());
+        IndexedMinHeap heap = scratch.heap();
+        scratch.set(spur, 0, -1);
+        heap.push(spur, 0);
+        while (!heap.isEmpty() && heap.minKey() <= limit) {
+            int v = heap.pop();
+            if (v == target) {
+                break;
+            }
+            long dv = scratch.dist(v);
+            int[] targets = graph.outTargets(v);
+            int[] outKm = graph.outWeights(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                relax(scratch, banned, v, targets[e], dv + outKm[e], spur, bannedNext, bannedCount);
+            }
+            int[] sources = graph.inSources(v);
+            int[] inKm = graph.inWeights(v);
+            for (int e = graph.inBegin(v), end = graph.inEnd(v); e < end; e++) {
+                relax(scratch, banned, v, sources[e], dv + inKm[e], spur, bannedNext, bannedCount);
+            }
+        }
+
+        long distance = scratch.dist(target);
+        if (distance == ShortestPaths.UNREACHABLE || distance > limit) {
+            return PathResult.EMPTY;
+        }
+        int length = 0;
+        for (int v = target; v != -1; v = scratch.parent(v)) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target; v != -1; v = scratch.parent(v)) {
+            path[--length] = v;
+        }
+        return new PathResult(path, distance);
+    }
+
+    private static void relax(SearchScratch scratch, SearchScratch banned, int v, int w, long candidate,
+                              int spur, int[] bannedNext, int bannedCount) {
+        if (banned.dist(w) != ShortestPaths.UNREACHABLE || w == spur) {
+            return;
+        }
+        if (v == spur) {
+            for (int i = 0; i < bannedCount; i++) {
+                if (bannedNext[i] == w) {
+                    return;
+                }
+            }
+        }
+        if (candidate < scratch.dist(w)) {
+            scratch.set(w, candidate, v);
+            scratch.heap().push(w, candidate);
+        }
+    }
+
+    // Km de la ruta más corta entre dos ciudades vecinas, en cualquier sentido
+    static int edgeWeight(GraphSnapshot graph, int v, int w) {
+        int best = Integer.MAX_VALUE;
+        int[] targets = graph.outTargets(v);
+        int[] outKm = graph.outWeights(v);
+        for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+            if (targets[e] == w) {
+                best = Math.min(best, outKm[e]);
+            }
+        }
+        int[] sources = graph.inSources(v);
+        int[] inKm = graph.inWeights(v);
+        for (int e = graph.inBegin(v), end = graph.inEnd(v); e < end; e++) {
+            if (sources[e] == w) {
+                best = Math.min(best, inKm[e]);
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,214 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// Árbol (bosque) de expansión mínima sobre el grafo no dirigido de rutas.
+// Trabaja con arreglos primitivos: ninguna arista se representa como objeto.
+public final class MinimumSpanningTree {
+
+    public enum Mode {
+        SEQUENTIAL,
+        // Borůvka en paralelo, independientemente del endpoint (prim o kruskal)
+        PARALLEL
+    }
+
+    // Cantidad de aristas que procesa cada tarea en las rondas de Borůvka
+    private static final int BORUVKA_CHUNK = 1 << 14;
+    private static final long NO_EDGE = Long.MAX_VALUE;
+
+    private MinimumSpanningTree() {
+    }
+
+    // Kruskal: aristas ordenadas por km empaquetadas en un long (km << 32 | índice)
+    // y unión-búsqueda para descartar las que cierran ciclos. O(E log E).
+    public static SpanningForest kruskal(GraphSnapshot graph) {
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] km = new int[m];
+        long[] order = new long[m];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int[] targets = graph.outTargets(v);
+            int[] weights = graph.outWeights(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                if (targets[e] == v) {
+                    continue;
+                }
+                from[count] = v;
+                to[count] = targets[e];
+                km[count] = weights[e];
+                order[count] = ((long) weights[e] << 32) | count;
+                count++;
+            }
+        }
+        Arrays.parallelSort(order, 0, count);
+
+        UnionFind sets = new UnionFind(n);
+        ForestBuilder forest = new ForestBuilder(n);
+        for (int i = 0; i < count && forest.size < n - 1; i++) {
+            int e = (int) order[i];
+            if (sets.union(from[e], to[e])) {
+                forest.add(from[e], to[e], km[e]);
+            }
+        }
+        return forest.build();
+    }
+
+    // Prim "eager": heap indexado con la arista más barata hacia cada nodo fuera del árbol.
+    // Se reinicia desde cada nodo no visitado para cubrir todas las componentes. O(E log V).
+    public static SpanningForest prim(GraphSnapshot graph) {
+        int n = graph.nodeCount();
+        boolean[] inTree = new boolean[n];
+        int[] bestFrom = new int[n];
+        int[] bestKm = new int[n];
+        Arrays.fill(bestKm, Integer.MAX_VALUE);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        ForestBuilder forest = new ForestBuilder(n);
+
+        for (int root = 0; root < n; root++) {
+            if (inTree[root]) {
+                continue;
+            }
+            bestFrom[root] = -1;
+            heap.push(root, 0);
+            while (!heap.isEmpty()) {
+                int v = heap.pop();
+                inTree[v] = true;
+                if (bestFrom[v] >= 0) {
+                    forest.add(bestFrom[v], v, bestKm[v]);
+                }
+                int[] targets = graph.outTargets(v);
+                int[] outKm = graph.outWeights(v);
+                for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                    offer(heap, inTree, bestFrom, bestKm, v, targets[e], outKm[e]);
+                }
+                int[] sources = graph.inSources(v);
+                int[] inKm = graph.inWeights(v);
+                for (int e = graph.inBegin(v), end = graph.inEnd(v); e < end; e++) {
+                    offer(heap, inTree, bestFrom, bestKm, v, sources[e], inKm[e]);
+                }
+            }
+        }
+        return forest.build();
+    }
+
+    // Borůvka paralelo: en cada ronda cada componente elige en paralelo su arista de salida
+    // más barata (mínimo con CAS sobre km << 32 | índice, lo que desempata de forma
+    // consistente) y después se unen con unión-búsqueda sin locks. O(log V) rondas.
+    public static SpanningForest boruvka(GraphSnapshot graph, ForkJoinPool pool) {
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] km = new int[m];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int[] targets = graph.outTargets(v);
+            int[] weights = graph.outWeights(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                if (targets[e] != v) {
+                    from[count] = v;
+                    to[count] = targets[e];
+                    km[count] = weights[e];
+                    count++;
+                }
+            }
+        }
+
+        int edges = count;
+        int chunks = (edges + BORUVKA_CHUNK - 1) / BORUVKA_CHUNK;
+        ConcurrentUnionFind sets = new ConcurrentUnionFind(n);
+        AtomicLongArray cheapest = new AtomicLongArray(n);
+        boolean[] chosen = new boolean[edges];
+        AtomicBoolean merged = new AtomicBoolean(true);
+
+        while (merged.get()) {
+            merged.set(false);
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> cheapest.set(v, NO_EDGE))).join();
+
+            pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int end = Math.min(edges, (chunk + 1) * BORUVKA_CHUNK);
+                for (int e = chunk * BORUVKA_CHUNK; e < end; e++) {
+                    int cu = sets.find(from[e]);
+                    int cw = sets.find(to[e]);
+                    if (cu != cw) {
+                        long key = ((long) km[e] << 32) | e;
+                        lowerTo(cheapest, cu, key);
+                        lowerTo(cheapest, cw, key);
+                    }
+                }
+            })).join();
+
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(c -> {
+                long key = cheapest.get(c);
+                if (key != NO_EDGE) {
+                    int e = (int) key;
+                    // Dos componentes pueden elegir la misma arista: sólo una unión tiene éxito
+                    if (sets.union(from[e], to[e])) {
+                        chosen[e] = true;
+                        merged.set(true);
+                    }
+                }
+            })).join();
+        }
+
+        ForestBuilder forest = new ForestBuilder(n);
+        for (int e = 0; e < edges; e++) {
+            if (chosen[e]) {
+                forest.add(from[e], to[e], km[e]);
+            }
+        }
+        return forest.build();
+    }
+
+    private static void lowerTo(AtomicLongArray cheapest, int component, long key) {
+        long current = cheapest.get(component);
+        while (key < current && !cheapest.compareAndSet(component, current, key)) {
+            current = cheapest.get(component);
+        }
+    }
+
+    private static void offer(IndexedMinHeap heap, boolean[] inTree, int[] bestFrom, int[] bestKm,
+                              int v, int w, int km) {
+        if (!inTree[w] && km < bestKm[w]) {
+            bestKm[w] = km;
+            bestFrom[w] = v;
+            heap.push(w, km);
+        }
+    }
+
+    // Acumula las aristas elegidas (a lo sumo n - 1)
+    static final class ForestBuilder {
+        private final int[] sources;
+        private final int[] targets;
+        private final int[] weights;
+        private int size;
+        private long totalCost;
+
+        ForestBuilder(int n) {
+            int capacity = Math.max(n - 1, 0);
+            sources = new int[capacity];
+            targets = new int[capacity];
+            weights = new int[capacity];
+        }
+
+        void add(int source, int target, int km) {
+            sources[size] = source;
+            targets[size] = target;
+            weights[size] = km;
+            totalCost += km;
+            size++;
+        }
+
+        SpanningForest build() {
+            return new SpanningForest(Arrays.copyOf(sources, size), Arrays.copyOf(targets, size),
+                    Arrays.copyOf(weights, size), totalCost);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// BFS por niveles en paralelo para recorridos que alcanzan buena parte del grafo.
+// Cada nivel se expande entero antes de pasar al siguiente, de a bloques en el pool, y
+// elige entre dos estrategias (direction-optimizing, Beamer et al.):
+// - top-down: cada nodo de la frontera reclama con CAS a sus vecinos sin visitar;
+// - bottom-up: cada nodo sin visitar busca algún vecino en la frontera y para en el
+//   primero. Conviene cuando la frontera tiene más aristas que lo que queda por visitar.
+// Visitados y frontera son bitsets atómicos. Como un nodo entra siempre en el nivel de su
+// distancia, el conjunto y los niveles no dependen de qué hilo llegó primero, y dentro de
+// cada nivel el resultado se ordena por id: dos llamadas devuelven exactamente lo mismo.
+// No hay padres: en top-down dependerían de la carrera.
+public final class ParallelBfs {
+    // Nodos de la frontera que expande cada tarea en top-down
+    private static final int CHUNK_NODES = 1 << 12;
+    // Palabras del bitset (64 nodos cada una) que recorre cada tarea
+    private static final int CHUNK_WORDS = 1 << 10;
+    // Con menos aristas en la frontera el nivel se expande en el hilo que llama
+    private static final long PARALLEL_EDGES = 1 << 14;
+    // Umbrales de Beamer: a bottom-up si aristas(frontera) > aristas(sin visitar) / ALPHA,
+    // de vuelta a top-down si |frontera| < n / BETA
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    // Nodos alcanzados por nivel y, dentro de cada nivel, por id
+    public static final class Result {
+        private final int[] order;
+        private final int[] levelStarts;
+        private final int levels;
+
+        private Result(int[] order, int[] levelStarts, int levels) {
+            this.order = order;
+            this.levelStarts = levelStarts;
+            this.levels = levels;
+        }
+
+        public int count() {
+            return levelStarts[levels];
+        }
+
+        public int node(int i) {
+            return order[i];
+        }
+
+        public int levelCount() {
+            return levels;
+        }
+
+        public int levelBegin(int level) {
+            return levelStarts[level];
+        }
+
+        public int levelEnd(int level) {
+            return levelStarts[level + 1];
+        }
+
+        public int[] nodes() {
+            return Arrays.copyOf(order, count());
+        }
+    }
+
+    private final GraphSnapshot graph;
+    private final GraphTraversal.Direction direction;
+    private final ForkJoinPool pool;
+    private final int n;
+    private final int words;
+    private final AtomicLongArray visited;
+    private AtomicLongArray frontier;
+    private AtomicLongArray next;
+    private final int[] order;
+    private int count;
+
+    private ParallelBfs(GraphSnapshot graph, GraphTraversal.Direction direction, ForkJoinPool pool) {
+        this.graph = graph;
+        this.direction = direction;
+        this.pool = pool;
+        this.n = graph.nodeCount();
+        this.words = (n + 63) >>> 6;
+        this.visited = new AtomicLongArray(words);
+        this.frontier = new AtomicLongArray(words);
+        this.next = new AtomicLongArray(words);
+        this.order = new int[n];
+    }
+
+    public static Result bfs(GraphSnapshot graph, int start, GraphTraversal.Direction direction, int maxDepth,
+                             ForkJoinPool pool) {
+        return new ParallelBfs(graph, direction, pool).run(start, maxDepth);
+    }
+
+    private Result run(int start, int maxDepth) {
+        int[] levelStarts = new int[16];
+        claim(visited, start);
+        claim(frontier, start);
+        order[count++] = start;
+        levelStarts[1] = 1;
+        int levels = 1;
+
+        long frontierEdges = degree(start);
+        long unexploredEdges = (direction == GraphTraversal.Direction.BOTH ? 2L : 1L) * graph.edgeCount()
+                - frontierEdges;
+        boolean topDown = true;
+        // levels es también la profundidad del próximo nivel
+        while (levels <= maxDepth) {
+            int begin = levelStarts[levels - 1];
+            int end = levelStarts[levels];
+            if (topDown && frontierEdges > unexploredEdges / ALPHA) {
+                topDown = false;
+            } else if (!topDown && end - begin < n / BETA) {
+                topDown = true;
+            }
+
+            if (!topDown) {
+                forEachChunk(chunks(words, CHUNK_WORDS), true, this::bottomUp);
+                frontierEdges = collect();
+            } else if (frontierEdges < PARALLEL_EDGES) {
+                frontierEdges = topDownInline(begin, end);
+            } else {
+                forEachChunk(chunks(end - begin, CHUNK_NODES), true, chunk -> topDown(
+                        begin + chunk * CHUNK_NODES, Math.min(end, begin + (chunk + 1) * CHUNK_NODES)));
+                frontierEdges = collect();
+            }
+            if (count == end) {
+                break;
+            }
+            unexploredEdges -= frontierEdges;
+
+            // La frontera vieja pasa a ser el próximo bitset de salida: se limpian sus palabras
+            AtomicLongArray old = frontier;
+            forEachChunk(chunks(end - begin, CHUNK_NODES), end - begin >= CHUNK_NODES, chunk -> {
+                for (int i = begin + chunk * CHUNK_NODES, last = Math.min(end, i + CHUNK_NODES); i < last; i++) {
+                    old.set(order[i] >>> 6, 0);
+                }
+            });
+            frontier = next;
+            next = old;
+
+            if (levels + 1 == levelStarts.length) {
+                levelStarts = Arrays.copyOf(levelStarts, levelStarts.length * 2);
+            }
+            levelStarts[++levels] = count;
+        }
+        return new Result(order, levelStarts, levels);
+    }
+
+    // Expande en el hilo que llama un nivel con pocas aristas; el nivel nuevo se ordena por id
+    private long topDownInline(int begin, int end) {
+        int first = count;
+        long edges = 0;
+        for (int i = begin; i < end; i++) {
+            int v = order[i];
+            if (direction != GraphTraversal.Direction.INCOMING) {
+                int[] targets = graph.outTargets(v);
+                for (int e = graph.outBegin(v), last = graph.outEnd(v); e < last; e++) {
+                    edges += reach(targets[e]);
+                }
+            }
+            if (direction != GraphTraversal.Direction.OUTGOING) {
+                int[] sources = graph.inSources(v);
+                for (int e = graph.inBegin(v), last = graph.inEnd(v); e < last; e++) {
+                    edges += reach(sources[e]);
+                }
+            }
+        }
+        Arrays.sort(order, first, count);
+        return edges;
+    }
+
+    private long reach(int w) {
+        if (!claim(visited, w)) {
+            return 0;
+        }
+        claim(next, w);
+        order[count++] = w;
+        return degree(w);
+    }
+
+    private void topDown(int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            int v = order[i];
+            if (direction != GraphTraversal.Direction.INCOMING) {
+                int[] targets = graph.outTargets(v);
+                for (int e = graph.outBegin(v), last = graph.outEnd(v); e < last; e++) {
+                    if (claim(visited, targets[e])) {
+                        claim(next, targets[e]);
+                    }
+                }
+            }
+            if (direction != GraphTraversal.Direction.OUTGOING) {
+                int[] sources = graph.inSources(v);
+                for (int e = graph.inBegin(v), last = graph.inEnd(v); e < last; e++) {
+                    if (claim(visited, sources[e])) {
+                        claim(next, sources[e]);
+                    }
+                }
+            }
+        }
+    }
+
+    // Cada tarea es dueña de sus palabras de visited y next: no hace falta CAS
+    private void bottomUp(int chunk) {
+        for (int i = chunk * CHUNK_WORDS, last = Math.min(words, i + CHUNK_WORDS); i < last; i++) {
+            long seen = visited.get(i);
+            long unvisited = ~seen;
+            if (i == words - 1 && (n & 63) != 0) {
+                unvisited &= (1L << (n & 63)) - 1;
+            }
+            long found = 0;
+            while (unvisited != 0) {
+                int bit = Long.numberOfTrailingZeros(unvisited);
+                unvisited &= unvisited - 1;
+                if (reachedFromFrontier((i << 6) + bit)) {
+                    found |= 1L << bit;
+                }
+            }
+            if (found != 0) {
+                visited.set(i, seen | found);
+                next.set(i, found);
+            }
+        }
+    }
+
+    // Busca un vecino de v en la frontera siguiendo las aristas al revés del recorrido
+    private boolean reachedFromFrontier(int v) {
+        if (direction != GraphTraversal.Direction.INCOMING) {
+            int[] sources = graph.inSources(v);
+            for (int e = graph.inBegin(v), last = graph.inEnd(v); e < last; e++) {
+                if (isSet(frontier, sources[e])) {
+                    return true;
+                }
+            }
+        }
+        if (direction != GraphTraversal.Direction.OUTGOING) {
+            int[] targets = graph.outTargets(v);
+            for (int e = graph.outBegin(v), last = graph.outEnd(v); e < last; e++) {
+                if (isSet(frontier, targets[e])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Agrega al orden los nodos marcados en next, por id, y devuelve la suma de sus grados.
+    // Dos pasadas por bloques: contar bits y, con los desplazamientos acumulados, copiar.
+    private long collect() {
+        int chunks = chunks(words, CHUNK_WORDS);
+        int[] offsets = new int[chunks + 1];
+        long[] edges = new long[chunks];
+        forEachChunk(chunks, true, chunk -> {
+            int found = 0;
+            for (int i = chunk * CHUNK_WORDS, last = Math.min(words, i + CHUNK_WORDS); i < last; i++) {
+                found += Long.bitCount(next.get(i));
+            }
+            offsets[chunk + 1] = found;
+        });
+        offsets[0] = count;
+        for (int c = 0; c < chunks; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        forEachChunk(chunks, true, chunk -> {
+            int position = offsets[chunk];
+            long degrees = 0;
+            for (int i = chunk * CHUNK_WORDS, last = Math.min(words, i + CHUNK_WORDS); i < last; i++) {
+                long bits = next.get(i);
+                while (bits != 0) {
+                    int v = (i << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    order[position++] = v;
+                    degrees += degree(v);
+                }
+            }
+            edges[chunk] = degrees;
+        });
+        count = offsets[chunks];
+        long total = 0;
+        for (long degrees : edges) {
+            total += degrees;
+        }
+        return total;
+    }
+
+    private int degree(int v) {
+        int degree = 0;
+        if (direction != GraphTraversal.Direction.INCOMING) {
+            degree += graph.outEnd(v) - graph.outBegin(v);
+        }
+        if (direction != GraphTraversal.Direction.OUTGOING) {
+            degree += graph.inEnd(v) - graph.inBegin(v);
+        }
+        return degree;
+    }
+
+    private void forEachChunk(int chunks, boolean parallel, IntConsumer body) {
+        if (parallel && chunks > 1) {
+            pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(body)).join();
+        } else {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                body.accept(chunk);
+            }
+        }
+    }
+
+    private static int chunks(int size, int chunk) {
+        return (size + chunk - 1) / chunk;
+    }
+
+    // Prende el bit de v; true si estaba apagado (sólo un hilo gana)
+    private static boolean claim(AtomicLongArray bits, int v) {
+        int i = v >>> 6;
+        long bit = 1L << v;
+        long current = bits.get(i);
+        while ((current & bit) == 0) {
+            if (bits.compareAndSet(i, current, current | bit)) {
+                return true;
+            }
+            current = bits.get(i);
+        }
+        return false;
+    }
+
+    private static boolean isSet(AtomicLongArray bits, int v) {
+        return (bits.get(v >>> 6) & (1L << v)) != 0;
+    }
+}
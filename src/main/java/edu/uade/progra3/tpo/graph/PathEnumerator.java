@@ -0,0 +1,133 @@
+package edu.uade.progra3.tpo.graph;
+
+// Enumeración de caminos simples por DFS iterativo, entregando cada camino a un
+// visitante a medida que se encuentra (nada se acumula en memoria). El visitante
+// puede cortar la enumeración devolviendo false.
+public final class PathEnumerator {
+
+    @FunctionalInterface
+    public interface PathVisitor {
+        // path[0..length) son los ids del camino; el arreglo se reutiliza entre llamadas
+        boolean visit(int[] path, int length, long distance);
+    }
+
+    public static final long NO_DISTANCE_LIMIT = Long.MAX_VALUE;
+
+    private static final ThreadLocal<SearchScratch> HOPS = ThreadLocal.withInitial(SearchScratch::new);
+    private static final ThreadLocal<SearchScratch> DISTANCES = ThreadLocal.withInitial(SearchScratch::new);
+
+    private PathEnumerator() {
+    }
+
+    // Caminos simples entre source y target de hasta maxLength rutas, en ambos sentidos
+    public static void simplePaths(GraphSnapshot graph, int source, int target, int maxLength, PathVisitor visitor) {
+        simplePaths(graph, source, target, maxLength, NO_DISTANCE_LIMIT, visitor);
+    }
+
+    // Igual, descartando los caminos de más de maxDistance km. Antes de enumerar se
+    // calculan desde target la cantidad mínima de rutas y los km mínimos (búsquedas
+    // acotadas por maxLength y maxDistance) y se poda toda rama que ya no pueda llegar.
+    public static void simplePaths(GraphSnapshot graph, int source, int target, int maxLength, long maxDistance,
+                                   PathVisitor visitor) {
+        if (source == target || maxLength < 1) {
+            return;
+        }
+        SearchScratch hops = ShortestPaths.boundedSearch(graph, target, maxLength, true, HOPS.get());
+        SearchScratch distances = maxDistance == NO_DISTANCE_LIMIT
+                ? null
+                : ShortestPaths.boundedSearch(graph, target, maxDistance, false, DISTANCES.get());
+        enumerate(graph, source, target, maxLength, maxDistance, hops, distances, false, visitor);
+    }
+
+    // Ciclos dirigidos (siguiendo ROAD salientes) que salen y vuelven a start, con al menos
+    // dos rutas y sin repetir ciudades intermedias
+    public static void cycles(GraphSnapshot graph, int start, int maxLength, PathVisitor visitor) {
+        enumerate(graph, start, start, maxLength, NO_DISTANCE_LIMIT, null, null, true, visitor);
+    }
+
+    private static void enumerate(GraphSnapshot graph, int source, int target, int maxLength, long maxDistance,
+                                  SearchScratch hops, SearchScratch distances,
+                                  boolean directedCycle, PathVisitor visitor) {
+        // Un camino simple (o ciclo) no tiene más rutas que ciudades: los arreglos se
+        // dimensionan por el grafo y no por el largo pedido
+        int depthLimit = Math.min(maxLength, graph.nodeCount());
+        if (depthLimit < 1) {
+            return;
+        }
+        long[] onPath = new long[(graph.nodeCount() + 63) >>> 6];
+        int[] path = new int[depthLimit + 1];
+        // cursor[d]: próxima arista a probar desde path[d]; primero salientes y luego entrantes
+        int[] cursor = new int[depthLimit + 1];
+        long[] distance = new long[depthLimit + 1];
+
+        path[0] = source;
+        set(onPath, source);
+        int depth = 0;
+        cursor[0] = 0;
+
+        while (depth >= 0) {
+            int v = path[depth];
+            int outDegree = graph.outEnd(v) - graph.outBegin(v);
+            int degree = directedCycle ? outDegree : outDegree + graph.inEnd(v) - graph.inBegin(v);
+            if (depth == depthLimit || cursor[depth] >= degree) {
+                clear(onPath, v);
+                depth--;
+                continue;
+            }
+
+            int c = cursor[depth]++;
+            int w;
+            int km;
+            if (c < outDegree) {
+                int e = graph.outBegin(v) + c;
+                w = graph.outTargets(v)[e];
+                km = graph.outWeights(v)[e];
+            } else {
+                int e = graph.inBegin(v) + c - outDegree;
+                w = graph.inSources(v)[e];
+                km = graph.inWeights(v)[e];
+            }
+            long d = distance[depth] + km;
+            if (d > maxDistance) {
+                continue;
+            }
+
+            if (w == target) {
+                if (!directedCycle || depth >= 1) {
+                    path[depth + 1] = w;
+                    if (!visitor.visit(path, depth + 2, d)) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            if (get(onPath, w)) {
+                continue;
+            }
+            // Poda: faltan más rutas de las que quedan, o más km de los que quedan
+            if (hops != null && hops.dist(w) > depthLimit - depth - 1) {
+                continue;
+            }
+            if (distances != null && distances.dist(w) > maxDistance - d) {
+                continue;
+            }
+            depth++;
+            path[depth] = w;
+            distance[depth] = d;
+            cursor[depth] = 0;
+            set(onPath, w);
+        }
+    }
+
+    private static boolean get(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    private static void clear(long[] bits, int i) {
+        bits[i >>> 6] &= ~(1L << i);
+    }
+}
@@ -0,0 +1,12 @@
+package edu.uade.progra3.tpo.graph;
+
+// Camino como secuencia de ids de ciudad y su distancia total en km.
+// Un camino vacío indica que no hay ruta entre los extremos.
+public record PathResult(int[] nodes, long distance) {
+
+    public static final PathResult EMPTY = new PathResult(new int[0], 0);
+
+    public boolean isEmpty() {
+        return nodes.length == 0;
+    }
+}
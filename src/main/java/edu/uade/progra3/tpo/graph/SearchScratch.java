@@ -0,0 +1,52 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+
+// Arreglos de trabajo reutilizables para una búsqueda (distancias, padres, heap).
+// En lugar de limpiarlos en cada consulta se usa un sello de época: una entrada
+// sólo es válida si stamp[v] coincide con la época actual.
+public final class SearchScratch {
+    private long[] dist = new long[0];
+    private int[] parent = new int[0];
+    private int[] stamp = new int[0];
+    private int epoch;
+    private final IndexedMinHeap heap = new IndexedMinHeap(1);
+    private final SearchWork work = SearchWork.current();
+
+    // Prepara el scratch para una búsqueda nueva sobre un grafo de n nodos
+    public SearchScratch begin(int n) {
+        if (stamp.length < n) {
+            int capacity = Math.max(n, stamp.length + (stamp.length >> 1));
+            dist = new long[capacity];
+            parent = new int[capacity];
+            stamp = new int[capacity];
+            heap.ensureCapacity(capacity);
+            epoch = 0;
+        }
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        heap.clear();
+        return this;
+    }
+
+    public long dist(int v) {
+        return stamp[v] == epoch ? dist[v] : ShortestPaths.UNREACHABLE;
+    }
+
+    public int parent(int v) {
+        return stamp[v] == epoch ? parent[v] : -1;
+    }
+
+    public void set(int v, long distance, int from) {
+        work.relaxed++;
+        stamp[v] = epoch;
+        dist[v] = distance;
+        parent[v] = from;
+    }
+
+    public IndexedMinHeap heap() {
+        return heap;
+    }
+}
@@ -0,0 +1,28 @@
+package edu.uade.progra3.tpo.graph;
+
+// Trabajo acumulado por las búsquedas de un hilo: nodos asentados (extraídos de un
+// IndexedMinHeap) y rutas relajadas (etiquetas mejoradas en un SearchScratch). Cada
+// heap y scratch suma en el contador del hilo que lo creó, que con los ThreadLocal de
+// este paquete es el mismo que lo usa. La diferencia entre dos lecturas en el mismo
+// hilo es el trabajo hecho en el medio; lo que corre en un pool queda en sus hilos.
+public final class SearchWork {
+    private static final ThreadLocal<SearchWork> CURRENT = ThreadLocal.withInitial(SearchWork::new);
+
+    long settled;
+    long relaxed;
+
+    private SearchWork() {
+    }
+
+    public static SearchWork current() {
+        return CURRENT.get();
+    }
+
+    public long settled() {
+        return settled;
+    }
+
+    public long relaxed() {
+        return relaxed;
+    }
+}
@@ -0,0 +1,219 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+
+// Caminos mínimos sobre el snapshot, tratando cada ROAD como bidireccional
+// (mismo criterio que apoc.algo.dijkstra con 'ROAD' sin dirección).
+// Las búsquedas usan un heap indexado de primitivos y arreglos de trabajo por
+// hilo, así que una consulta no asigna memoria salvo el camino resultante.
+public final class ShortestPaths {
+
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    public enum Algorithm {
+        DIJKSTRA,
+        BIDIRECTIONAL,
+        // Requiere coordenadas; asume que ninguna ruta es más corta que la distancia en línea recta
+        ASTAR,
+        // Consulta sobre ContractionHierarchy; sin jerarquía disponible se resuelve como BIDIRECTIONAL
+        CH
+    }
+
+    private static final ThreadLocal<SearchScratch> FORWARD = ThreadLocal.withInitial(SearchScratch::new);
+    private static final ThreadLocal<SearchScratch> BACKWARD = ThreadLocal.withInitial(SearchScratch::new);
+
+    private ShortestPaths() {
+    }
+
+    public static PathResult shortestPath(GraphSnapshot graph, int source, int target) {
+        return shortestPath(graph, source, target, Algorithm.BIDIRECTIONAL);
+    }
+
+    public static PathResult shortestPath(GraphSnapshot graph, int source, int target, Algorithm algorithm) {
+        if (source == target) {
+            return new PathResult(new int[]{source}, 0);
+        }
+        return switch (algorithm) {
+            case DIJKSTRA -> search(graph, source, target, false);
+            case BIDIRECTIONAL, CH -> bidirectional(graph, source, target);
+            case ASTAR -> search(graph, source, target, true);
+        };
+    }
+
+    // Dijkstra unidireccional o A*. Con A* un nodo ya extraído vuelve al heap si se le
+    // encuentra un camino mejor, así alcanza con que la heurística sea admisible
+    // (las ciudades sin coordenadas usan heurística 0).
+    private static PathResult search(GraphSnapshot graph, int source, int target, boolean astar) {
+        SearchScratch scratch = FORWARD.get().begin(graph.nodeCount());
+        IndexedMinHeap heap = scratch.heap();
+        boolean useHeuristic = astar && graph.hasCoordinates(target);
+        double targetLat = useHeuristic ? Math.toRadians(graph.latitude(target)) : 0;
+        double targetLon = useHeuristic ? Math.toRadians(graph.longitude(target)) : 0;
+
+        scratch.set(source, 0, -1);
+        heap.push(source, 0);
+        while (!heap.isEmpty()) {
+            int v = heap.pop();
+            if (v == target) {
+                break;
+            }
+            long dv = scratch.dist(v);
+
+            int[] targets = graph.outTargets(v);
+            int[] outKm = graph.outWeights(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                int w = targets[e];
+                long candidate = dv + outKm[e];
+                if (candidate < scratch.dist(w)) {
+                    scratch.set(w, candidate, v);
+                    heap.push(w, useHeuristic ? candidate + heuristic(graph, w, targetLat, targetLon) : candidate);
+                }
+            }
+            int[] sources = graph.inSources(v);
+            int[] inKm = graph.inWeights(v);
+            for (int e = graph.inBegin(v), end = graph.inEnd(v); e < end; e++) {
+                int w = sources[e];
+                long candidate = dv + inKm[e];
+                if (candidate < scratch.dist(w)) {
+                    scratch.set(w, candidate, v);
+                    heap.push(w, useHeuristic ? candidate + heuristic(graph, w, targetLat, targetLon) : candidate);
+                }
+            }
+        }
+
+        if (scratch.dist(target) == UNREACHABLE) {
+            return PathResult.EMPTY;
+        }
+        return new PathResult(unwind(scratch, target), scratch.dist(target));
+    }
+
+    // Dijkstra bidireccional: avanza siempre el frente con menor distancia mínima y
+    // corta cuando la suma de ambos mínimos ya no puede mejorar el mejor encuentro.
+    private static PathResult bidirectional(GraphSnapshot graph, int source, int target) {
+        SearchScratch forward = FORWARD.get().begin(graph.nodeCount());
+        SearchScratch backward = BACKWARD.get().begin(graph.nodeCount());
+        forward.set(source, 0, -1);
+        forward.heap().push(source, 0);
+        backward.set(target, 0, -1);
+        backward.heap().push(target, 0);
+
+        long[] best = {UNREACHABLE};
+        int[] meeting = {-1};
+        while (!forward.heap().isEmpty() && !backward.heap().isEmpty()) {
+            if (forward.heap().minKey() + backward.heap().minKey() >= best[0]) {
+                break;
+            }
+            if (forward.heap().minKey() <= backward.heap().minKey()) {
+                expand(graph, forward, backward, best, meeting);
+            } else {
+                expand(graph, backward, forward, best, meeting);
+            }
+        }
+
+        if (meeting[0] < 0) {
+            return PathResult.EMPTY;
+        }
+        int[] head = unwind(forward, meeting[0]);
+        int tailLength = 0;
+        for (int v = backward.parent(meeting[0]); v != -1; v = backward.parent(v)) {
+            tailLength++;
+        }
+        int[] path = Arrays.copyOf(head, head.length + tailLength);
+        int i = head.length;
+        for (int v = backward.parent(meeting[0]); v != -1; v = backward.parent(v)) {
+            path[i++] = v;
+        }
+        return new PathResult(path, best[0]);
+    }
+
+    private static void expand(GraphSnapshot graph, SearchScratch side, SearchScratch other,
+                               long[] best, int[] meeting) {
+        int v = side.heap().pop();
+        long dv = side.dist(v);
+
+        int[] targets = graph.outTargets(v);
+        int[] outKm = graph.outWeights(v);
+        for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+            relax(side, other, v, targets[e], dv + outKm[e], best, meeting);
+        }
+        int[] sources = graph.inSources(v);
+        int[] inKm = graph.inWeights(v);
+        for (int e = graph.inBegin(v), end = graph.inEnd(v); e < end; e++) {
+            relax(side, other, v, sources[e], dv + inKm[e], best, meeting);
+        }
+    }
+
+    private static void relax(SearchScratch side, SearchScratch other, int v, int w, long candidate,
+                              long[] best, int[] meeting) {
+        if (candidate < side.dist(w)) {
+            side.set(w, candidate, v);
+            side.heap().push(w, candidate);
+        }
+        long otherDist = other.dist(w);
+        if (otherDist != UNREACHABLE && side.dist(w) + otherDist < best[0]) {
+            best[0] = side.dist(w) + otherDist;
+            meeting[0] = w;
+        }
+    }
+
+    // Dijkstra acotado desde source (en km, o en cantidad de rutas si countHops). Al
+    // terminar, toda etiqueta <= limit es exacta y cualquier nodo con etiqueta mayor
+    // (o sin etiqueta) está a más de limit.
+    public static SearchScratch boundedSearch(GraphSnapshot graph, int source, long limit, boolean countHops,
+                                              SearchScratch scratch) {
+        scratch.begin(graph.nodeCount());
+        IndexedMinHeap heap = scratch.heap();
+        scratch.set(source, 0, -1);
+        heap.push(source, 0);
+        while (!heap.isEmpty() && heap.minKey() <= limit) {
+            int v = heap.pop();
+            long dv = scratch.dist(v);
+            int[] targets = graph.outTargets(v);
+            int[] outKm = graph.outWeights(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                long candidate = dv + (countHops ? 1 : outKm[e]);
+                if (candidate < scratch.dist(targets[e])) {
+                    scratch.set(targets[e], candidate, v);
+                    heap.push(targets[e], candidate);
+                }
+            }
+            int[] sources = graph.inSources(v);
+            int[] inKm = graph.inWeights(v);
+            for (int e = graph.inBegin(v), end = graph.inEnd(v); e < end; e++) {
+                long candidate = dv + (countHops ? 1 : inKm[e]);
+                if (candidate < scratch.dist(sources[e])) {
+                    scratch.set(sources[e], candidate, v);
+                    heap.push(sources[e], candidate);
+                }
+            }
+        }
+        return scratch;
+    }
+
+    // Cota inferior en km: distancia sobre la esfera (haversine) hasta el destino
+    private static long heuristic(GraphSnapshot graph, int v, double targetLat, double targetLon) {
+        if (!graph.hasCoordinates(v)) {
+            return 0;
+        }
+        double lat = Math.toRadians(graph.latitude(v));
+        double lon = Math.toRadians(graph.longitude(v));
+        double sinLat = Math.sin((targetLat - lat) / 2);
+        double sinLon = Math.sin((targetLon - lon) / 2);
+        double a = sinLat * sinLat + Math.cos(lat) * Math.cos(targetLat) * sinLon * sinLon;
+        return (long) (2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a))));
+    }
+
+    private static int[] unwind(SearchScratch scratch, int target) {
+        int length = 0;
+        for (int v = target; v != -1; v = scratch.parent(v)) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target; v != -1; v = scratch.parent(v)) {
+            path[--length] = v;
+        }
+        return path;
+    }
+}
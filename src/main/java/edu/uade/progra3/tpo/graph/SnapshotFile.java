@@ -0,0 +1,208 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Snapshot guardado en disco para arrancar sin esperar a Neo4j. Se escribe con
+// FileChannel en bloques y se lee mapeando el archivo y copiando cada sección de
+// una vez a los arreglos del CSR, así que los ids, el orden de las rutas y la marca
+// del feed de cambios quedan idénticos a los del snapshot guardado.
+//
+// Formato: cabecera de HEADER_BYTES (magic, formato, marca, ciudades, rutas, largo y
+// CRC32C del cuerpo) y cuerpo con los nombres (largo en bytes UTF-8, -1 si la ciudad
+// fue eliminada), latitudes, longitudes y el CSR global de salientes y entrantes.
+public final class SnapshotFile {
+    private static final int FILE_MAGIC = 0x47533031; // "GS01"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private SnapshotFile() {
+    }
+
+    public static void write(GraphSnapshot graph, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int n = graph.nodeCount();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Body body = new Body(channel);
+            for (int v = 0; v < n; v++) {
+                String name = graph.name(v);
+                if (name == null) {
+                    body.putInt(-1);
+                } else {
+                    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                    body.putInt(bytes.length);
+                    body.putBytes(bytes);
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                body.putDouble(graph.latitude(v));
+            }
+            for (int v = 0; v < n; v++) {
+                body.putDouble(graph.longitude(v));
+            }
+            writeAdjacency(body, graph, true);
+            writeAdjacency(body, graph, false);
+            body.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(FILE_MAGIC).putInt(FORMAT).putLong(graph.changeMarker())
+                    .putInt(n).putInt(graph.edgeCount())
+                    .putLong(body.length).putInt((int) body.crc.getValue());
+            header.position(0);
+            writeFully(channel, header, 0);
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Offsets globales, destinos (u orígenes) y km, en ese orden
+    private static void writeAdjacency(Body body, GraphSnapshot graph, boolean outgoing) throws IOException {
+        int n = graph.nodeCount();
+        int offset = 0;
+        body.putInt(0);
+        for (int v = 0; v < n; v++) {
+            offset += outgoing ? graph.outEnd(v) - graph.outBegin(v) : graph.inEnd(v) - graph.inBegin(v);
+            body.putInt(offset);
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            for (int v = 0; v < n; v++) {
+                int[] values = outgoing
+                        ? (pass == 0 ? graph.outTargets(v) : graph.outWeights(v))
+                        : (pass == 0 ? graph.inSources(v) : graph.inWeights(v));
+                int begin = outgoing ? graph.outBegin(v) : graph.inBegin(v);
+                int end = outgoing ? graph.outEnd(v) : graph.inEnd(v);
+                for (int e = begin; e < end; e++) {
+                    body.putInt(values[e]);
+                }
+            }
+        }
+    }
+
+    public static GraphSnapshot read(Path file, long version) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Snapshot truncado: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != FILE_MAGIC || header.getInt() != FORMAT) {
+                throw new IOException("Formato de snapshot desconocido: " + file);
+            }
+            long changeMarker = header.getLong();
+            int n = header.getInt();
+            int edgeCount = header.getInt();
+            long length = header.getLong();
+            int checksum = header.getInt();
+            if (channel.size() != HEADER_BYTES + length) {
+                throw new IOException("Snapshot truncado: " + file);
+            }
+
+            MappedByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, length);
+            CRC32C crc = new CRC32C();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Checksum inválido en " + file);
+            }
+
+            String[] names = new String[n];
+            for (int v = 0; v < n; v++) {
+                int size = body.getInt();
+                if (size >= 0) {
+                    byte[] bytes = new byte[size];
+                    body.get(bytes);
+                    names[v] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+            double[] latitudes = new double[n];
+            body.asDoubleBuffer().get(latitudes);
+            body.position(body.position() + n * Double.BYTES);
+            double[] longitudes = new double[n];
+            body.asDoubleBuffer().get(longitudes);
+            body.position(body.position() + n * Double.BYTES);
+            int[] outOffsets = ints(body, n + 1);
+            int[] outTargets = ints(body, edgeCount);
+            int[] outWeights = ints(body, edgeCount);
+            int[] inOffsets = ints(body, n + 1);
+            int[] inSources = ints(body, edgeCount);
+            int[] inWeights = ints(body, edgeCount);
+            if (outOffsets[n] != edgeCount || inOffsets[n] != edgeCount) {
+                throw new IOException("Snapshot inconsistente: " + file);
+            }
+            return GraphSnapshot.fromCsr(version, changeMarker, n, names, latitudes, longitudes,
+                    outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights);
+        }
+    }
+
+    private static int[] ints(ByteBuffer body, int length) {
+        int[] values = new int[length];
+        body.asIntBuffer().get(values);
+        body.position(body.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // Cuerpo escrito a través de un buffer directo que se vuelca al canal cuando se llena
+    private static final class Body {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final CRC32C crc = new CRC32C();
+        private long length;
+
+        Body(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            int size = buffer.remaining();
+            writeFully(channel, buffer, HEADER_BYTES + length);
+            length += size;
+            buffer.clear();
+        }
+    }
+}
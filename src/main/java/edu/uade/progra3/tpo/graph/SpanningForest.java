@@ -0,0 +1,10 @@
+package edu.uade.progra3.tpo.graph;
+
+// Bosque generador mínimo: la arista i une sources[i] con targets[i] y cuesta weights[i].
+// Si el grafo no es conexo hay un árbol por componente.
+public record SpanningForest(int[] sources, int[] targets, int[] weights, long totalCost) {
+
+    public int size() {
+        return sources.length;
+    }
+}
@@ -0,0 +1,135 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Distancias entre miles de paradas sin armar la matriz completa. Los candidatos de cada
+// parada salen de un Dijkstra acotado que se detiene al encontrar NEIGHBOURS paradas o
+// al asentar settleLimit nodos; cualquier otro par se calcula a pedido con una búsqueda
+// bidireccional y se memoriza. Pasado el deadline las paradas que faltan quedan sin
+// candidatos. Igual que DistanceMatrix, trata las rutas como bidireccionales.
+public final class StopDistances implements TourHeuristic.Distances {
+
+    // Nodos asentados como mínimo por búsqueda de candidatos
+    private static final int MIN_SETTLED = 1024;
+
+    private static final ThreadLocal<SearchScratch> SCRATCH = ThreadLocal.withInitial(SearchScratch::new);
+
+    private final GraphSnapshot graph;
+    private final int[] stops;
+    // Para cada nodo, el índice + 1 de su parada (0 si no es parada)
+    private final int[] stopSlot;
+    private final long settleLimit;
+    private final long deadline;
+    private final int[][] nearStops;
+    private final long[][] nearKm;
+    private final Map<Long, Long> computed = new ConcurrentHashMap<>();
+
+    public StopDistances(GraphSnapshot graph, int[] stops, long deadline) {
+        this.graph = graph;
+        this.stops = stops;
+        this.deadline = deadline;
+        this.stopSlot = new int[graph.nodeCount()];
+        for (int i = 0; i < stops.length; i++) {
+            stopSlot[stops[i]] = i + 1;
+        }
+        // Con paradas repartidas parejo, encontrar NEIGHBOURS de ellas asienta del orden
+        // de NEIGHBOURS * nodos / paradas nodos; el total queda lineal en el grafo
+        long spread = 4L * TourHeuristic.NEIGHBOURS * graph.nodeCount() / Math.max(1, stops.length);
+        this.settleLimit = Math.max(MIN_SETTLED, spread);
+        this.nearStops = new int[stops.length][];
+        this.nearKm = new long[stops.length][];
+    }
+
+    @Override
+    public int size() {
+        return stops.length;
+    }
+
+    @Override
+    public int[] near(int i) {
+        if (System.nanoTime() - deadline > 0) {
+            nearKm[i] = new long[0];
+            nearStops[i] = new int[0];
+            return nearStops[i];
+        }
+        SearchScratch scratch = SCRATCH.get().begin(graph.nodeCount());
+        IndexedMinHeap heap = scratch.heap();
+        int source = stops[i];
+        scratch.set(source, 0, -1);
+        heap.push(source, 0);
+        int[] near = new int[TourHeuristic.NEIGHBOURS];
+        long[] km = new long[TourHeuristic.NEIGHBOURS];
+        int found = 0;
+        long settled = 0;
+        while (!heap.isEmpty() && found < near.length && settled++ < settleLimit) {
+            int v = heap.pop();
+            long dv = scratch.dist(v);
+            if (v != source && stopSlot[v] != 0) {
+                near[found] = stopSlot[v] - 1;
+                km[found++] = dv;
+            }
+            int[] outTargets = graph.outTargets(v);
+            int[] outKm = graph.outWeights(v);
+            for (int e = graph.outBegin(v), end = graph.outEnd(v); e < end; e++) {
+                int w = outTargets[e];
+                if (dv + outKm[e] < scratch.dist(w)) {
+                    scratch.set(w, dv + outKm[e], v);
+                    heap.push(w, dv + outKm[e]);
+                }
+            }
+            int[] inSources = graph.inSources(v);
+            int[] inKm = graph.inWeights(v);
+            for (int e = graph.inBegin(v), end = graph.inEnd(v); e < end; e++) {
+                int w = inSources[e];
+                if (dv + inKm[e] < scratch.dist(w)) {
+                    scratch.set(w, dv + inKm[e], v);
+                    heap.push(w, dv + inKm[e]);
+                }
+            }
+        }
+        // km() lee estas listas desde otros hilos recién cuando TourHeuristic terminó
+        // de calcular todos los candidatos (el join del pool publica las escrituras)
+        nearKm[i] = Arrays.copyOf(km, found);
+        nearStops[i] = Arrays.copyOf(near, found);
+        return nearStops[i];
+    }
+
+    @Override
+    public long km(int i, int j) {
+        if (i == j) {
+            return 0;
+        }
+        long known = candidate(i, j);
+        if (known < 0) {
+            known = candidate(j, i);
+        }
+        if (known >= 0) {
+            return known;
+        }
+        long key = (long) Math.min(i, j) << 32 | Math.max(i, j);
+        Long cached = computed.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        PathResult path = ShortestPaths.shortestPath(graph, stops[i], stops[j]);
+        long km = path.isEmpty() ? DistanceMatrix.UNREACHABLE : path.distance();
+        computed.put(key, km);
+        return km;
+    }
+
+    // Distancia de i a j si j es candidata de i, o -1
+    private long candidate(int i, int j) {
+        int[] near = nearStops[i];
+        if (near == null) {
+            return -1;
+        }
+        for (int k = 0; k < near.length; k++) {
+            if (near[k] == j) {
+                return nearKm[i][k];
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,345 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Viajante heurístico para cientos o miles de paradas: vecino más cercano y después
+// búsqueda local 2-opt + Or-opt. Cada ciudad solo prueba movimientos hacia sus
+// NEIGHBOURS vecinas más cercanas, y una cola de ciudades "activas" (don't-look bits)
+// evita volver a revisar las que no cambiaron. Asume distancias simétricas, como las
+// de DistanceMatrix sobre rutas bidireccionales.
+public final class TourHeuristic {
+
+    static final int NEIGHBOURS = 10;
+
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    // Segmentos de 1 a 3 ciudades para Or-opt
+    private static final int MAX_SEGMENT = 3;
+
+    // Distancias entre paradas: km(i, j) en km o -1 si no hay camino, y near(i) las
+    // vecinas candidatas de i de menor a mayor distancia. dense() indica que km() es
+    // barato para cualquier par (una matriz ya calculada); si no, la construcción
+    // inicial no recorre todas las paradas buscando la más cercana.
+    public interface Distances {
+        int size();
+
+        long km(int i, int j);
+
+        int[] near(int i);
+
+        default boolean dense() {
+            return false;
+        }
+    }
+
+    private record Matrix(long[][] d) implements Distances {
+        @Override
+        public int size() {
+            return d.length;
+        }
+
+        @Override
+        public long km(int i, int j) {
+            return d[i][j];
+        }
+
+        @Override
+        public int[] near(int i) {
+            return nearest(d, i);
+        }
+
+        @Override
+        public boolean dense() {
+            return true;
+        }
+    }
+
+    private TourHeuristic() {
+    }
+
+    // Misma matriz que TravelingSalesman.solve
+    public static TravelingSalesman.Tour solve(long[][] distances, int starts, long deadline, ForkJoinPool pool) {
+        return solve(new Matrix(distances), starts, deadline, pool);
+    }
+
+    // Se corren 'starts' búsquedas en paralelo, cada una construyendo desde una ciudad
+    // distinta, y se queda la mejor. Si se pasa el deadline se devuelve lo mejorado hasta
+    // ese momento.
+    public static TravelingSalesman.Tour solve(Distances distances, int starts, long deadline, ForkJoinPool pool) {
+        int n = distances.size();
+        if (n == 0) {
+            return TravelingSalesman.Tour.NONE;
+        }
+        if (n == 1) {
+            return new TravelingSalesman.Tour(new int[]{0}, 0, true);
+        }
+        int runs = Math.max(1, Math.min(starts, n));
+        int[][] near = new int[n][];
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(i -> near[i] = distances.near(i))).join();
+        TravelingSalesman.Tour best = pool.submit(() -> IntStream.range(0, runs).parallel()
+                .mapToObj(run -> search(distances, near, (int) ((long) run * n / runs), deadline))
+                .min(Comparator.comparingLong(TravelingSalesman.Tour::distance))
+                .orElseThrow()).join();
+        // Algún par de paradas no se conecta: no hay recorrido
+        return best.isEmpty() ? TravelingSalesman.Tour.NONE : best;
+    }
+
+    private static TravelingSalesman.Tour search(Distances d, int[][] near, int first, long deadline) {
+        int n = d.size();
+        int[] tour = nearestNeighbour(d, near, first);
+        int[] pos = new int[n];
+        for (int i = 0; i < n; i++) {
+            pos[tour[i]] = i;
+        }
+        if (n >= 5) {
+            improve(d, near, tour, pos, deadline);
+        }
+
+        long length = 0;
+        for (int i = 0; i < n; i++) {
+            length += w(d, tour[i], tour[(i + 1) % n]);
+            if (length >= INF) {
+                return new TravelingSalesman.Tour(new int[0], INF, false);
+            }
+        }
+        // Se rota para que empiece en la ciudad 0
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = tour[(pos[0] + i) % n];
+        }
+        return new TravelingSalesman.Tour(order, length, false);
+    }
+
+    private static void improve(Distances d, int[][] near, int[] tour, int[] pos, long deadline) {
+        int n = tour.length;
+        // Cola circular de ciudades activas; active[v] es el don't-look bit invertido
+        int[] queue = new int[n];
+        boolean[] active = new boolean[n];
+        int head = 0;
+        int size = n;
+        for (int i = 0; i < n; i++) {
+            queue[i] = tour[i];
+            active[tour[i]] = true;
+        }
+        int[] touched = new int[6];
+        while (size > 0) {
+            // Sin matriz, un paso puede calcular distancias a pedido: se mira el reloj en cada uno
+            if (System.nanoTime() - deadline > 0) {
+                return;
+            }
+            int a = queue[head];
+            head = (head + 1) % n;
+            size--;
+            active[a] = false;
+
+            int count = twoOpt(d, near[a], a, tour, pos, touched);
+            if (count == 0) {
+                count = orOpt(d, near[a], a, tour, pos, touched);
+            }
+            for (int i = 0; i < count; i++) {
+                int v = touched[i];
+                if (!active[v]) {
+                    active[v] = true;
+                    queue[(head + size) % n] = v;
+                    size++;
+                }
+            }
+        }
+    }
+
+    // Cambia las aristas (a,b),(c,e) por (a,c),(b,e) invirtiendo el tramo del medio.
+    // Devuelve cuántas ciudades quedaron en touched (0 si no encontró mejora).
+    private static int twoOpt(Distances d, int[] near, int a, int[] tour, int[] pos, int[] touched) {
+        int n = tour.length;
+        for (int direction = 1; direction >= -1; direction -= 2) {
+            int b = tour[Math.floorMod(pos[a] + direction, n)];
+            long ab = w(d, a, b);
+            for (int c : near) {
+                long ac = w(d, a, c);
+                if (ac >= ab) {
+                    break;
+                }
+                int e = tour[Math.floorMod(pos[c] + direction, n)];
+                if (c == b || e == a) {
+                    continue;
+                }
+                long delta = ac + w(d, b, e) - ab - w(d, c, e);
+                if (delta < 0) {
+                    if (direction == 1) {
+                        reverse(tour, pos, pos[b], pos[c]);
+                    } else {
+                        reverse(tour, pos, pos[c], pos[b]);
+                    }
+                    touched[0] = a;
+                    touched[1] = b;
+                    touched[2] = c;
+                    touched[3] = e;
+                    return 4;
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Saca el tramo de 1 a 3 ciudades que empieza en a y lo reinserta, en cualquier
+    // sentido, al lado de una vecina c (entre c y su siguiente o entre su anterior y c)
+    private static int orOpt(Distances d, int[] near, int a, int[] tour, int[] pos, int[] touched) {
+        int n = tour.length;
+        for (int length = 1; length <= MAX_SEGMENT && length + 3 <= n; length++) {
+            int last = tour[(pos[a] + length - 1) % n];
+            int p = tour[Math.floorMod(pos[a] - 1, n)];
+            int next = tour[(pos[a] + length) % n];
+            long removed = w(d, p, a) + w(d, last, next) - w(d, p, next);
+            for (int c : near) {
+                if (w(d, a, c) >= removed) {
+                    break;
+                }
+                if (Math.floorMod(pos[c] - pos[a], n) < length) {
+                    continue;
+                }
+                for (int side = 0; side < 2; side++) {
+                    // Se inserta entre after y before
+                    int after = side == 0 ? c : tour[Math.floorMod(pos[c] - 1, n)];
+                    int before = side == 0 ? tour[(pos[c] + 1) % n] : c;
+                    if (after == p || Math.floorMod(pos[after] - pos[a], n) < length
+                            || Math.floorMod(pos[before] - pos[a], n) < length) {
+                        continue;
+                    }
+                    long forward = w(d, after, a) + w(d, last, before) - w(d, after, before);
+                    long backward = w(d, after, last) + w(d, a, before) - w(d, after, before);
+                    long added = Math.min(forward, backward);
+                    if (added < removed) {
+                        moveSegment(tour, pos, a, length, after, backward < forward);
+                        touched[0] = a;
+                        touched[1] = last;
+                        touched[2] = p;
+                        touched[3] = next;
+                        touched[4] = after;
+                        touched[5] = before;
+                        return 6;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Invierte tour[i..j] avanzando circularmente; si es más corto, invierte el
+    // complemento (el recorrido resultante es el mismo en sentido contrario)
+    private static void reverse(int[] tour, int[] pos, int i, int j) {
+        int n = tour.length;
+        int length = Math.floorMod(j - i, n) + 1;
+        if (length * 2 > n) {
+            int from = (j + 1) % n;
+            j = Math.floorMod(i - 1, n);
+            i = from;
+            length = n - length;
+        }
+        for (int k = 0; k < length / 2; k++) {
+            int x = tour[i];
+            int y = tour[j];
+            tour[i] = y;
+            pos[y] = i;
+            tour[j] = x;
+            pos[x] = j;
+            i = (i + 1) % n;
+            j = Math.floorMod(j - 1, n);
+        }
+    }
+
+    private static void moveSegment(int[] tour, int[] pos, int a, int length, int after, boolean reversed) {
+        int n = tour.length;
+        int start = pos[a];
+        int[] segment = new int[length];
+        for (int k = 0; k < length; k++) {
+            segment[reversed ? length - 1 - k : k] = tour[(start + k) % n];
+        }
+        int[] rebuilt = new int[n];
+        int size = 0;
+        for (int k = length; k < n; k++) {
+            int v = tour[(start + k) % n];
+            rebuilt[size++] = v;
+            if (v == after) {
+                for (int s : segment) {
+                    rebuilt[size++] = s;
+                }
+            }
+        }
+        System.arraycopy(rebuilt, 0, tour, 0, n);
+        for (int i = 0; i < n; i++) {
+            pos[tour[i]] = i;
+        }
+    }
+
+    // Sigue a la primera candidata sin visitar. Si no queda ninguna, con matriz se busca
+    // la más cercana entre todas; sin ella se toma la siguiente sin visitar en el orden
+    // de las paradas, para no calcular distancias a todas.
+    private static int[] nearestNeighbour(Distances d, int[][] near, int first) {
+        int n = d.size();
+        int[] tour = new int[n];
+        boolean[] visited = new boolean[n];
+        tour[0] = first;
+        visited[first] = true;
+        int cursor = 0;
+        for (int i = 1; i < n; i++) {
+            int from = tour[i - 1];
+            int next = -1;
+            for (int c : near[from]) {
+                if (!visited[c]) {
+                    next = c;
+                    break;
+                }
+            }
+            if (next < 0 && d.dense()) {
+                for (int v = 0; v < n; v++) {
+                    if (!visited[v] && (next < 0 || w(d, from, v) < w(d, from, next))) {
+                        next = v;
+                    }
+                }
+            } else if (next < 0) {
+                while (visited[cursor]) {
+                    cursor++;
+                }
+                next = cursor;
+            }
+            tour[i] = next;
+            visited[next] = true;
+        }
+        return tour;
+    }
+
+    // Las NEIGHBOURS ciudades alcanzables más cercanas a i, de menor a mayor distancia
+    static int[] nearest(long[][] d, int i) {
+        int n = d.length;
+        int[] best = new int[Math.min(NEIGHBOURS, n - 1)];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            if (v == i || w(d, i, v) >= INF) {
+                continue;
+            }
+            if (size == best.length && w(d, i, v) >= w(d, i, best[size - 1])) {
+                continue;
+            }
+            int k = size == best.length ? size - 1 : size++;
+            while (k > 0 && w(d, i, best[k - 1]) > w(d, i, v)) {
+                best[k] = best[k - 1];
+                k--;
+            }
+            best[k] = v;
+        }
+        return Arrays.copyOf(best, size);
+    }
+
+    private static long w(long[][] d, int i, int j) {
+        long km = d[i][j];
+        return km < 0 ? INF : km;
+    }
+
+    private static long w(Distances d, int i, int j) {
+        long km = d.km(i, j);
+        return km < 0 ? INF : km;
+    }
+}
@@ -0,0 +1,280 @@
+package edu.uade.progra3.tpo.graph;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+// Viajante exacto sobre una matriz de distancias (típicamente las de DistanceMatrix
+// entre las ciudades pedidas). El recorrido sale de la ciudad 0, pasa una vez por cada
+// una de las demás y vuelve. Hasta HELD_KARP_MAX_CITIES se resuelve con programación
+// dinámica sobre subconjuntos; por encima, con branch & bound best-first acotado por
+// reducción de filas y columnas, devolviendo el mejor recorrido encontrado si se
+// agota el tiempo.
+public final class TravelingSalesman {
+
+    // 2^17 subconjuntos x 17 ciudades finales = ~18 MB de tabla
+    public static final int HELD_KARP_MAX_CITIES = 18;
+
+    // Memoria máxima de nodos del branch & bound por request. Cada nodo guarda sólo su
+    // ciudad y un puntero al padre (~NODE_BYTES con cabecera y lugar en la cola), y los
+    // vivos son a lo sumo los abiertos más los ya expandidos
+    private static final long MAX_SEARCH_BYTES = 32L << 20;
+    private static final int NODE_BYTES = 48;
+    private static final long MAX_LIVE_NODES = MAX_SEARCH_BYTES / NODE_BYTES;
+
+    // Mayor que cualquier recorrido real y lejos del desborde al sumar
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    // order: índices de la matriz en orden de visita, empezando por 0 (sin repetirlo al
+    // final); distance incluye la vuelta. optimal es false si se cortó por tiempo o memoria.
+    public record Tour(int[] order, long distance, boolean optimal) {
+        public static final Tour NONE = new Tour(new int[0], 0, true);
+
+        public boolean isEmpty() {
+            return order.length == 0;
+        }
+    }
+
+    // Camino parcial como cadena hacia la raíz: el hijo agrega una ciudad sin copiar el camino
+    private record Node(Node parent, int city, int depth, long cost, long bound) {
+    }
+
+    private TravelingSalesman() {
+    }
+
+    // distances[i][j] en km, con DistanceMatrix.UNREACHABLE (-1) si no hay camino.
+    // deadline es un instante de System.nanoTime().
+    public static Tour solve(long[][] distances, long deadline) {
+        return solve(distances, deadline, distances.length <= HELD_KARP_MAX_CITIES);
+    }
+
+    static Tour solve(long[][] distances, long deadline, boolean heldKarp) {
+        int n = distances.length;
+        if (n == 0) {
+            return Tour.NONE;
+        }
+        if (n == 1) {
+            return new Tour(new int[]{0}, 0, true);
+        }
+        long[][] d = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                d[i][j] = i == j || distances[i][j] < 0 ? INF : distances[i][j];
+            }
+        }
+        return heldKarp ? heldKarp(d) : branchAndBound(d, deadline);
+    }
+
+    // dp[mask][j]: costo mínimo de salir de 0, visitar exactamente las ciudades de mask
+    // (ciudades 1..n-1 corridas a los bits 0..n-2) y terminar en la ciudad j + 1
+    private static Tour heldKarp(long[][] d) {
+        int n = d.length;
+        int m = n - 1;
+        long[] dp = new long[(1 << m) * m];
+        Arrays.fill(dp, INF);
+        for (int j = 0; j < m; j++) {
+            dp[(1 << j) * m + j] = d[0][j + 1];
+        }
+        for (int mask = 1; mask < 1 << m; mask++) {
+            for (int j = 0; j < m; j++) {
+                long cost = dp[mask * m + j];
+                if (cost >= INF || (mask & (1 << j)) == 0) {
+                    continue;
+                }
+                for (int k = 0; k < m; k++) {
+                    if ((mask & (1 << k)) != 0 || d[j + 1][k + 1] >= INF) {
+                        continue;
+                    }
+                    int next = (mask | (1 << k)) * m + k;
+                    dp[next] = Math.min(dp[next], cost + d[j + 1][k + 1]);
+                }
+            }
+        }
+
+        int full = (1 << m) - 1;
+        long best = INF;
+        int last = -1;
+        for (int j = 0; j < m; j++) {
+            if (dp[full * m + j] < INF && d[j + 1][0] < INF && dp[full * m + j] + d[j + 1][0] < best) {
+                best = dp[full * m + j] + d[j + 1][0];
+                last = j;
+            }
+        }
+        if (last < 0) {
+            return Tour.NONE;
+        }
+
+        // Se reconstruye hacia atrás buscando el predecesor que explica cada valor de la tabla
+        int[] order = new int[n];
+        int mask = full;
+        for (int position = n - 1; position > 0; position--) {
+            order[position] = last + 1;
+            int previousMask = mask & ~(1 << last);
+            int previous = -1;
+            for (int j = 0; j < m && previousMask != 0; j++) {
+                if ((previousMask & (1 << j)) != 0 && dp[previousMask * m + j] < INF
+                        && dp[previousMask * m + j] + d[j + 1][last + 1] == dp[mask * m + last]) {
+                    previous = j;
+                    break;
+                }
+            }
+            mask = previousMask;
+            last = previous;
+        }
+        return new Tour(order, best, true);
+    }
+
+    private static Tour branchAndBound(long[][] d, long deadline) {
+        int n = d.length;
+        int[] bestOrder = nearestNeighbour(d);
+        long best = bestOrder == null ? INF : tourLength(d, bestOrder);
+
+        PriorityQueue<Node> open = new PriorityQueue<>((a, b) -> a.bound() != b.bound()
+                ? Long.compare(a.bound(), b.bound())
+                : Integer.compare(b.depth(), a.depth()));
+        boolean[] visited = new boolean[n];
+        long[] rowMin = new long[n];
+        visited[0] = true;
+        open.add(new Node(null, 0, 1, 0, lowerBound(d, 0, 1, 0, visited, rowMin)));
+
+        boolean optimal = true;
+        long expanded = 0;
+        while (!open.isEmpty()) {
+            Node node = open.poll();
+            if (node.bound() >= best) {
+                break;
+            }
+            // Cada expansión cuesta O(n³) (una cota O(n²) por hijo): el plazo se mira en
+            // cada una y entre hijos, no cada tantas
+            if (System.nanoTime() - deadline > 0 || ++expanded + open.size() > MAX_LIVE_NODES) {
+                optimal = false;
+                break;
+            }
+            int last = node.city();
+            Arrays.fill(visited, false);
+            for (Node step = node; step != null; step = step.parent()) {
+                visited[step.city()] = true;
+            }
+            for (int w = 1; w < n; w++) {
+                if (visited[w] || d[last][w] >= INF) {
+                    continue;
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    optimal = false;
+                    break;
+                }
+                long cost = node.cost() + d[last][w];
+                if (node.depth() + 1 == n) {
+                    if (d[w][0] < INF && cost + d[w][0] < best) {
+                        best = cost + d[w][0];
+                        bestOrder = order(node, w, n);
+                    }
+                    continue;
+                }
+                visited[w] = true;
+                long bound = lowerBound(d, w, node.depth() + 1, cost, visited, rowMin);
+                visited[w] = false;
+                if (bound < best) {
+                    open.add(new Node(node, w, node.depth() + 1, cost, bound));
+                }
+            }
+            if (!optimal) {
+                break;
+            }
+        }
+        if (bestOrder == null || best >= INF) {
+            return Tour.NONE;
+        }
+        return new Tour(bestOrder, best, optimal);
+    }
+
+    // Recorrido completo a partir de la cadena de node más la última ciudad
+    private static int[] order(Node node, int last, int n) {
+        int[] order = new int[n];
+        order[n - 1] = last;
+        for (Node step = node; step != null; step = step.parent()) {
+            order[step.depth() - 1] = step.city();
+        }
+        return order;
+    }
+
+    // Costo del camino parcial más la reducción de la submatriz que queda por recorrer:
+    // filas = última ciudad y no visitadas, columnas = no visitadas y la ciudad 0. Cada
+    // fila necesita un sucesor y cada columna un predecesor, así que la suma de los
+    // mínimos por fila y luego por columna (sobre la matriz ya reducida) es una cota inferior.
+    private static long lowerBound(long[][] d, int last, int depth, long cost, boolean[] visited, long[] rowMin) {
+        int n = d.length;
+        boolean closing = depth == n;
+        long bound = cost;
+        for (int r = 0; r < n; r++) {
+            if (r != last && visited[r]) {
+                continue;
+            }
+            long min = INF;
+            for (int c = 0; c < n; c++) {
+                if (allowed(visited, last, closing, r, c)) {
+                    min = Math.min(min, d[r][c]);
+                }
+            }
+            if (min >= INF) {
+                return INF;
+            }
+            rowMin[r] = min;
+            bound += min;
+        }
+        for (int c = 0; c < n; c++) {
+            if (c != 0 && visited[c]) {
+                continue;
+            }
+            long min = INF;
+            for (int r = 0; r < n; r++) {
+                if ((r == last || !visited[r]) && allowed(visited, last, closing, r, c) && d[r][c] < INF) {
+                    min = Math.min(min, d[r][c] - rowMin[r]);
+                }
+            }
+            if (min >= INF) {
+                return INF;
+            }
+            bound += min;
+        }
+        return bound;
+    }
+
+    private static boolean allowed(boolean[] visited, int last, boolean closing, int r, int c) {
+        if (r == c || (c != 0 && visited[c])) {
+            return false;
+        }
+        // Desde la última ciudad solo se vuelve a 0 cuando ya no queda ninguna por visitar
+        return c != 0 || r != last || closing;
+    }
+
+    // Vecino más cercano desde 0; null si se queda sin ciudades alcanzables
+    static int[] nearestNeighbour(long[][] d) {
+        int n = d.length;
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        visited[0] = true;
+        for (int i = 1; i < n; i++) {
+            int from = order[i - 1];
+            int next = -1;
+            for (int w = 1; w < n; w++) {
+                if (!visited[w] && d[from][w] < INF && (next < 0 || d[from][w] < d[from][next])) {
+                    next = w;
+                }
+            }
+            if (next < 0) {
+                return null;
+            }
+            order[i] = next;
+            visited[next] = true;
+        }
+        return d[order[n - 1]][0] < INF ? order : null;
+    }
+
+    private static long tourLength(long[][] d, int[] order) {
+        long total = d[order[order.length - 1]][order[0]];
+        for (int i = 0; i + 1 < order.length; i++) {
+            total += d[order[i]][order[i + 1]];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,48 @@
+package edu.uade.progra3.tpo.graph;
+
+// Conjuntos disjuntos sobre ids enteros con compresión de caminos (halving) y unión por rango
+public final class UnionFind {
+    private final int[] parent;
+    private final byte[] rank;
+    private int components;
+
+    public UnionFind(int n) {
+        parent = new int[n];
+        rank = new byte[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        components = n;
+    }
+
+    public int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    // Une los conjuntos de a y b; devuelve false si ya estaban unidos
+    public boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        if (rank[ra] < rank[rb]) {
+            parent[ra] = rb;
+        } else if (rank[ra] > rank[rb]) {
+            parent[rb] = ra;
+        } else {
+            parent[rb] = ra;
+            rank[ra]++;
+        }
+        components--;
+        return true;
+    }
+
+    public int components() {
+        return components;
+    }
+}
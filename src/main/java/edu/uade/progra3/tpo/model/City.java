@@ -1,5 +1,6 @@
 package edu.uade.progra3.tpo.model;
 
+import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.data.neo4j.core.schema.Node;
 import org.springframework.data.neo4j.core.schema.Relationship;
@@ -14,6 +15,11 @@ public class City {
     
     @Relationship(type = "ROAD", direction = Relationship.Direction.OUTGOING)
     private List<Road> roads = new ArrayList<>();
+
+    // Marca del feed de cambios (epoch millis): cada save la actualiza, también al
+    // agregar o quitar rutas salientes
+    @LastModifiedDate
+    private Long updatedAt;
     
     public City() {}
     
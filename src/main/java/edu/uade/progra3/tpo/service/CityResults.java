@@ -0,0 +1,184 @@
+package edu.uade.progra3.tpo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// Resultados con ciudades como ids del snapshot en lugar de listas de nombres. Son vistas
+// List sobre arreglos primitivos, así que el resto de la aplicación (caché, métricas,
+// tests) las usa como cualquier lista; al responder, un serializer propio recorre los
+// arreglos y escribe cada nombre ya codificado desde el Dictionary del snapshot, sin
+// armar listas ni mapas intermedios. El JSON es el mismo que antes; con Accept
+// application/cbor o application/x-jackson-smile sale en binario (ver GraphConfig).
+public final class CityResults {
+
+    private static final SerializedString CITY = new SerializedString("city");
+    private static final SerializedString DISTANCE = new SerializedString("distance");
+
+    private CityResults() {
+    }
+
+    // Nombres de las ciudades de un snapshot, codificados una vez (UTF-8 y JSON escapado)
+    // la primera vez que aparecen en una respuesta y compartidos por todas las demás
+    public static final class Dictionary {
+        private final GraphSnapshot graph;
+        private final SerializedString[] encoded;
+
+        public Dictionary(GraphSnapshot graph) {
+            this.graph = graph;
+            this.encoded = new SerializedString[graph.nodeCount()];
+        }
+
+        public boolean matches(GraphSnapshot graph) {
+            return this.graph == graph;
+        }
+
+        String name(int id) {
+            return graph.name(id);
+        }
+
+        // Carrera benigna: dos hilos pueden crear el mismo SerializedString y gana cualquiera
+        SerializableString encoded(int id) {
+            SerializedString name = encoded[id];
+            if (name == null) {
+                name = new SerializedString(graph.name(id));
+                encoded[id] = name;
+            }
+            return name;
+        }
+    }
+
+    // Ciudades en orden (una ruta, el orden de un recorrido)
+    @JsonSerialize(using = CitiesSerializer.class)
+    public static final class Cities extends AbstractList<String> implements RandomAccess {
+        private final Dictionary names;
+        private final int[] ids;
+
+        public Cities(Dictionary names, int[] ids) {
+            this.names = names;
+            this.ids = ids;
+        }
+
+        @Override
+        public String get(int index) {
+            return names.name(ids[index]);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    // Pares de ciudades [origen, destino] (las rutas de un árbol generador)
+    @JsonSerialize(using = PairsSerializer.class)
+    public static final class Pairs extends AbstractList<List<String>> implements RandomAccess {
+        private final Dictionary names;
+        private final int[] sources;
+        private final int[] targets;
+
+        public Pairs(Dictionary names, int[] sources, int[] targets) {
+            this.names = names;
+            this.sources = sources;
+            this.targets = targets;
+        }
+
+        @Override
+        public List<String> get(int index) {
+            return List.of(names.name(sources[index]), names.name(targets[index]));
+        }
+
+        @Override
+        public int size() {
+            return sources.length;
+        }
+    }
+
+    // Ciudades con su distancia, como objetos {city, distance}
+    @JsonSerialize(using = DistancesSerializer.class)
+    public static final class Distances extends AbstractList<Map<String, Object>> implements RandomAccess {
+        private final Dictionary names;
+        private final int[] cities;
+        private final long[] distances;
+
+        public Distances(Dictionary names, int[] cities, long[] distances) {
+            this.names = names;
+            this.cities = cities;
+            this.distances = distances;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            return Map.of("city", names.name(cities[index]), "distance", distances[index]);
+        }
+
+        @Override
+        public int size() {
+            return cities.length;
+        }
+    }
+
+    static final class CitiesSerializer extends StdSerializer<Cities> {
+        CitiesSerializer() {
+            super(Cities.class);
+        }
+
+        @Override
+        public void serialize(Cities value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartArray(value, value.ids.length);
+            for (int id : value.ids) {
+                generator.writeString(value.names.encoded(id));
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    static final class PairsSerializer extends StdSerializer<Pairs> {
+        PairsSerializer() {
+            super(Pairs.class);
+        }
+
+        @Override
+        public void serialize(Pairs value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartArray(value, value.sources.length);
+            for (int i = 0; i < value.sources.length; i++) {
+                generator.writeStartArray(null, 2);
+                generator.writeString(value.names.encoded(value.sources[i]));
+                generator.writeString(value.names.encoded(value.targets[i]));
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    static final class DistancesSerializer extends StdSerializer<Distances> {
+        DistancesSerializer() {
+            super(Distances.class);
+        }
+
+        @Override
+        public void serialize(Distances value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartArray(value, value.cities.length);
+            for (int i = 0; i < value.cities.length; i++) {
+                generator.writeStartObject();
+                generator.writeFieldName(CITY);
+                generator.writeString(value.names.encoded(value.cities[i]));
+                generator.writeFieldName(DISTANCE);
+                generator.writeNumber(value.distances[i]);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+}
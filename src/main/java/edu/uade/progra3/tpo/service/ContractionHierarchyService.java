@@ -0,0 +1,81 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.ContractionHierarchy;
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Mantiene la contraction hierarchy del snapshot actual. Se prepara en segundo plano
+// la primera vez que se pide (leyendo graph.ch.file si coincide con el snapshot o
+// construyéndola y guardándola); mientras tanto las consultas usan el motor común.
+@Service
+public class ContractionHierarchyService {
+    private static final Logger log = LoggerFactory.getLogger(ContractionHierarchyService.class);
+
+    private final TaskExecutor executor;
+    private final boolean enabled;
+    private final Path file;
+    private final AtomicBoolean preparing = new AtomicBoolean();
+    private volatile ContractionHierarchy hierarchy;
+
+    public ContractionHierarchyService(@Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                                       @Value("${graph.ch.enabled:true}") boolean enabled,
+                                       @Value("${graph.ch.file:data/graph.ch}") Path file) {
+        this.executor = executor;
+        this.enabled = enabled;
+        this.file = file;
+    }
+
+    // Devuelve la jerarquía si está lista para este snapshot, o null
+    public ContractionHierarchy hierarchyFor(GraphSnapshot graph) {
+        ContractionHierarchy current = hierarchy;
+        if (current != null && current.matches(graph)) {
+            return current;
+        }
+        if (enabled && preparing.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    prepare(graph);
+                } finally {
+                    preparing.set(false);
+                }
+            });
+        }
+        return null;
+    }
+
+    private void prepare(GraphSnapshot graph) {
+        if (Files.exists(file)) {
+            try {
+                ContractionHierarchy stored = ContractionHierarchy.read(file);
+                if (stored.matches(graph)) {
+                    hierarchy = stored;
+                    log.info("Contraction hierarchy leída de {}", file);
+                    return;
+                }
+            } catch (IOException e) {
+                log.warn("No se pudo leer {}: {}", file, e.getMessage());
+            }
+        }
+
+        long start = System.nanoTime();
+        ContractionHierarchy built = ContractionHierarchy.build(graph);
+        hierarchy = built;
+        log.info("Contraction hierarchy del snapshot v{} construida en {} ms ({} atajos)",
+                graph.version(), (System.nanoTime() - start) / 1_000_000, built.shortcutCount());
+        try {
+            built.write(file);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package edu.uade.progra3.tpo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.neo4j.driver.summary.ResultSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Consultas Cypher de largo variable como plantillas fijas. El tope de un patrón
+// [:ROAD*..n] no puede ser un parámetro, así que hay una plantilla por profundidad, de 1
+// a MAX_DEPTH, todas registradas de antemano: la expansión se corta exactamente en el
+// largo pedido (filtrar length(path) después de expandir más lejos no ahorra trabajo) y
+// un largo mayor se rechaza con IllegalArgumentException en lugar de crear textos nuevos.
+// El resto de los valores van como parámetros, así que los textos son un conjunto fijo y
+// todos quedan en el cache de planes.
+//
+// Al arrancar se hace EXPLAIN de cada plantilla (graph.cypher.warmup): eso planifica y
+// deja el plan en cache, y su duración es el tiempo de planificación. Cada ejecución
+// registra los tiempos del servidor del ResultSummary (hasta el primer registro y hasta
+// consumir el resultado) en graph.cypher.template, con la plantilla y la fase como tags.
+@Component
+public class CypherTemplates {
+    private static final Logger log = LoggerFactory.getLogger(CypherTemplates.class);
+
+    // Mayor largo de camino o ciclo que se consulta, en Cypher o sobre el snapshot; sin
+    // tope, la expansión de caminos simples crece exponencialmente con el largo
+    static final int MAX_DEPTH = 32;
+
+    private static final String PATHS = """
+        MATCH path = (start:City {name: $startCity})-[:ROAD*..%d]-(end:City {name: $endCity})
+        WHERE ALL(n IN nodes(path) WHERE size([x IN nodes(path) WHERE x = n]) = 1)
+        WITH path, reduce(s = 0, r IN relationships(path) | s + r.km) as totalDistance
+        WHERE totalDistance <= $maxDistance
+        RETURN [n IN nodes(path) | n.name] as route, totalDistance
+        %s
+    """;
+
+    private static final String CYCLES = """
+        MATCH path = (start:City {name: $startCity})-[:ROAD*..%d]->(start)
+        WHERE size(nodes(path)) > 2
+        RETURN [n IN nodes(path) | n.name] as cycle,
+               reduce(s = 0, r IN relationships(path) | s + r.km) as totalDistance
+    """;
+
+    private static final String TSP = """
+        MATCH (n:City)
+        WHERE n.name IN $cities
+        WITH collect(n) as nodes
+        MATCH path = (n:City)-[:ROAD*]->(m:City)
+        WHERE n IN nodes AND ALL(x IN nodes(path) WHERE x IN nodes)
+        WITH path,
+             reduce(s = 0, r IN relationships(path) | s + r.km) as totalDistance
+        ORDER BY totalDistance
+        LIMIT 1
+        RETURN [n IN nodes(path) | n.name] as route,
+               totalDistance
+    """;
+
+    public static final class Template {
+        private final String name;
+        private final String text;
+        private final Map<String, Object> warmupParameters;
+        private final Timer planning;
+        private final Timer available;
+        private final Timer consumed;
+
+        private Template(String name, String text, Map<String, Object> warmupParameters, MeterRegistry registry) {
+            this.name = name;
+            this.text = text;
+            this.warmupParameters = warmupParameters;
+            this.planning = timer(registry, name, "planning");
+            this.available = timer(registry, name, "available");
+            this.consumed = timer(registry, name, "consumed");
+        }
+
+        private static Timer timer(MeterRegistry registry, String template, String phase) {
+            return Timer.builder("graph.cypher.template")
+                    .tag("template", template)
+                    .tag("phase", phase)
+                    .register(registry);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String text() {
+            return text;
+        }
+
+        // Tiempos del servidor de una ejecución: hasta el primer registro (con el plan en
+        // cache, sólo ejecución) y hasta terminar de consumir el resultado
+        public void record(ResultSummary summary) {
+            available.record(summary.resultAvailableAfter(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            consumed.record(summary.resultConsumedAfter(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+
+        private Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("template", name);
+            stats.put("planningMs", planning.count() == 0 ? null : planning.max(TimeUnit.MILLISECONDS));
+            stats.put("executions", available.count());
+            stats.put("availableMeanMs", available.mean(TimeUnit.MILLISECONDS));
+            stats.put("consumedMeanMs", consumed.mean(TimeUnit.MILLISECONDS));
+            return stats;
+        }
+    }
+
+    private final Neo4jClient neo4jClient;
+    private final TaskExecutor executor;
+    private final MeterRegistry registry;
+    private final boolean warmup;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    public CypherTemplates(Neo4jClient neo4jClient,
+                           @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                           MeterRegistry registry,
+                           @Value("${graph.cypher.warmup:true}") boolean warmup) {
+        this.neo4jClient = neo4jClient;
+        this.executor = executor;
+        this.registry = registry;
+        this.warmup = warmup;
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            paths(depth, false);
+            paths(depth, true);
+            cycles(depth);
+        }
+        tsp();
+    }
+
+    // Valida el largo pedido: el mismo rango con o sin snapshot
+    public static int depthFor(int maxLength) {
+        if (maxLength < 1 || maxLength > MAX_DEPTH) {
+            throw new IllegalArgumentException("maxLength debe estar entre 1 y " + MAX_DEPTH);
+        }
+        return maxLength;
+    }
+
+    public Template paths(int maxLength, boolean kShortest) {
+        int depth = depthFor(maxLength);
+        String name = (kShortest ? "paths.k.d" : "paths.d") + depth;
+        return template(name, () -> PATHS.formatted(depth, kShortest ? "ORDER BY totalDistance LIMIT $k" : ""),
+                pathsParameters("", "", 0, 0));
+    }
+
+    public Template cycles(int maxLength) {
+        int depth = depthFor(maxLength);
+        return template("cycles.d" + depth, () -> CYCLES.formatted(depth), cyclesParameters(""));
+    }
+
+    public Template tsp() {
+        return template("tsp", () -> TSP, Map.of("cities", List.of()));
+    }
+
+    static Map<String, Object> pathsParameters(String startCity, String endCity, long maxDistance, int cap) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("startCity", startCity);
+        parameters.put("endCity", endCity);
+        parameters.put("maxDistance", maxDistance);
+        parameters.put("k", cap);
+        return parameters;
+    }
+
+    static Map<String, Object> cyclesParameters(String startCity) {
+        return Map.of("startCity", startCity);
+    }
+
+    // Plantillas ordenadas por nombre con su planificación y tiempos medios
+    public List<Map<String, Object>> stats() {
+        List<Template> sorted = new ArrayList<>(templates.values());
+        sorted.sort((a, b) -> a.name.compareTo(b.name));
+        return sorted.stream().map(Template::stats).toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (warmup) {
+            executor.execute(this::warmUp);
+        }
+    }
+
+    // EXPLAIN de cada plantilla: planifica sin ejecutar y deja el plan en el cache de Neo4j
+    void warmUp() {
+        long start = System.nanoTime();
+        List<Template> all = new ArrayList<>(templates.values());
+        try {
+            for (Template template : all) {
+                long planned = System.nanoTime();
+                neo4jClient.delegateTo(runner -> {
+                    runner.run("EXPLAIN " + template.text, template.warmupParameters).consume();
+                    return Optional.empty();
+                }).run();
+                template.planning.record(System.nanoTime() - planned, TimeUnit.NANOSECONDS);
+            }
+            log.info("{} plantillas Cypher planificadas en {} ms", all.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron precargar las plantillas Cypher: {}", e.getMessage());
+        }
+    }
+
+    private Template template(String name, Supplier<String> text, Map<String, Object> warmup) {
+        return templates.computeIfAbsent(name, key -> new Template(key, text.get(), warmup, registry));
+    }
+}
@@ -0,0 +1,89 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.DistanceTable;
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Mantiene la tabla de distancias de todos los pares (graph.apsp.file) para el
+// snapshot actual. Si el archivo existe y coincide se mapea al primer uso; si no, se
+// recalcula en segundo plano con graphPool y mientras tanto se busca como siempre.
+// Sólo se arma para grafos de hasta graph.apsp.max-cities ciudades (la tabla ocupa
+// entre 4 y 6 bytes por par).
+@Service
+public class DistanceTableService {
+    private static final Logger log = LoggerFactory.getLogger(DistanceTableService.class);
+
+    private final TaskExecutor executor;
+    private final ForkJoinPool graphPool;
+    private final boolean enabled;
+    private final Path file;
+    private final int maxCities;
+    private final AtomicBoolean preparing = new AtomicBoolean();
+    private volatile DistanceTable table;
+
+    public DistanceTableService(@Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                                ForkJoinPool graphPool,
+                                @Value("${graph.apsp.enabled:false}") boolean enabled,
+                                @Value("${graph.apsp.file:data/graph.apsp}") Path file,
+                                @Value("${graph.apsp.max-cities:20000}") int maxCities) {
+        this.executor = executor;
+        this.graphPool = graphPool;
+        this.enabled = enabled;
+        this.file = file;
+        this.maxCities = maxCities;
+    }
+
+    // Devuelve la tabla si está lista para este snapshot, o null
+    public DistanceTable tableFor(GraphSnapshot graph) {
+        DistanceTable current = table;
+        if (current != null && current.matches(graph)) {
+            return current;
+        }
+        if (enabled && graph.nodeCount() <= maxCities && preparing.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    prepare(graph);
+                } finally {
+                    preparing.set(false);
+                }
+            });
+        }
+        return null;
+    }
+
+    private void prepare(GraphSnapshot graph) {
+        if (Files.exists(file)) {
+            try {
+                DistanceTable stored = DistanceTable.open(file);
+                if (stored.matches(graph)) {
+                    table = stored;
+                    log.info("Tabla de distancias mapeada desde {}", file);
+                    return;
+                }
+            } catch (IOException e) {
+                log.warn("No se pudo leer {}: {}", file, e.getMessage());
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            DistanceTable.build(graph, file, graphPool);
+            table = DistanceTable.open(file);
+            log.info("Tabla de distancias del snapshot v{} calculada en {} ms ({} ciudades)",
+                    graph.version(), (System.nanoTime() - start) / 1_000_000, graph.nodeCount());
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo calcular la tabla de distancias: {}", e.getMessage());
+        }
+    }
+}
@@ -1,75 +1,303 @@
 package edu.uade.progra3.tpo.service;
 
-import edu.uade.progra3.tpo.model.City;
+import edu.uade.progra3.tpo.graph.ContractionHierarchy;
+import edu.uade.progra3.tpo.graph.DistanceMatrix;
+import edu.uade.progra3.tpo.graph.DistanceRanking;
+import edu.uade.progra3.tpo.graph.DistanceTable;
+import edu.uade.progra3.tpo.graph.GraphComponents;
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import edu.uade.progra3.tpo.graph.GraphTraversal;
+import edu.uade.progra3.tpo.graph.KShortestPaths;
+import edu.uade.progra3.tpo.graph.MinimumSpanningTree;
+import edu.uade.progra3.tpo.graph.ParallelBfs;
+import edu.uade.progra3.tpo.graph.PathEnumerator;
+import edu.uade.progra3.tpo.graph.PathResult;
+import edu.uade.progra3.tpo.graph.ShortestPaths;
+import edu.uade.progra3.tpo.graph.SpanningForest;
+import edu.uade.progra3.tpo.graph.StopDistances;
+import edu.uade.progra3.tpo.graph.TourHeuristic;
+import edu.uade.progra3.tpo.graph.TravelingSalesman;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 @Service
 public class GraphAlgorithms {
+    private static final Logger log = LoggerFactory.getLogger(GraphAlgorithms.class);
+
     private final Neo4jClient neo4jClient;
+    private final GraphSnapshotService snapshots;
+    private final ContractionHierarchyService hierarchies;
+    private final GraphComponentsService components;
+    private final ResultCache cache;
+    private final DistanceTableService distanceTables;
+    private final GraphMetrics metrics;
+    private final Neo4jBulkhead bulkhead;
+    private final CypherTemplates templates;
+    private final boolean verifyHierarchy;
+    private final ForkJoinPool graphPool;
+    private final int maxResults;
+    private final Duration tspTimeBudget;
+    private final int tspStarts;
+    private final int tspMaxStops;
+    private volatile CityResults.Dictionary dictionary;
 
-    public GraphAlgorithms(Neo4jClient neo4jClient) {
+    public GraphAlgorithms(Neo4jClient neo4jClient, GraphSnapshotService snapshots,
+                           ContractionHierarchyService hierarchies,
+                           GraphComponentsService components,
+                           ResultCache cache,
+                           DistanceTableService distanceTables,
+                           GraphMetrics metrics,
+                           Neo4jBulkhead bulkhead,
+                           CypherTemplates templates,
+                           @Value("${graph.ch.verify:false}") boolean verifyHierarchy,
+                           ForkJoinPool graphPool,
+                           @Value("${graph.paths.max-results:10000}") int maxResults,
+                           @Value("${graph.tsp.time-budget:2s}") Duration tspTimeBudget,
+                           @Value("${graph.tsp.starts:4}") int tspStarts,
+                           @Value("${graph.tsp.max-stops:1000}") int tspMaxStops) {
         this.neo4jClient = neo4jClient;
+        this.snapshots = snapshots;
+        this.hierarchies = hierarchies;
+        this.components = components;
+        this.cache = cache;
+        this.distanceTables = distanceTables;
+        this.metrics = metrics;
+        this.bulkhead = bulkhead;
+        this.templates = templates;
+        this.verifyHierarchy = verifyHierarchy;
+        this.graphPool = graphPool;
+        this.maxResults = maxResults;
+        this.tspTimeBudget = tspTimeBudget;
+        this.tspStarts = tspStarts;
+        this.tspMaxStops = tspMaxStops;
+    }
+
+    // Recibe cada fila de la matriz de distancias a medida que se termina de calcular
+    @FunctionalInterface
+    public interface DistanceRowConsumer {
+        void accept(int index, String source, long[] distances) throws IOException;
     }
 
     // BFS - Breadth First Search
     public List<String> bfs(String startCity) {
-        List<String> visited = new ArrayList<>();
-        String query = """
-            MATCH (start:City {name: $startCity})
-            CALL apoc.path.expandConfig(start, {
-                relationshipFilter: 'ROAD',
-                uniqueness: 'NODE_GLOBAL',
-                bfs: true
-            })
-            YIELD path
-            RETURN [node IN nodes(path) | node.name] as route
-        """;
+        return bfs(startCity, GraphTraversal.NO_DEPTH_LIMIT, GraphTraversal.Direction.BOTH);
+    }
 
-        neo4jClient.query(query)
-            .bind(startCity).to("startCity")
-            .fetch()
-            .all().forEach(result -> {
-                List<String> route = (List<String>) result.get("route");
-                visited.addAll(route.stream()
-                    .filter(city -> !visited.contains(city))
-                    .toList());
-            });
+    public List<String> bfs(String startCity, int maxDepth, GraphTraversal.Direction direction) {
+        return traverseCities("bfs", true, startCity, maxDepth, direction);
+    }
 
-        return visited;
+    // En modo PARALLEL (sólo con snapshot) el orden es por nivel y, dentro de cada uno, por id
+    public List<String> bfs(String startCity, int maxDepth, GraphTraversal.Direction direction,
+                            GraphTraversal.Mode mode) {
+        GraphSnapshot graph = snapshots.current();
+        if (mode == GraphTraversal.Mode.SEQUENTIAL || graph == null) {
+            return bfs(startCity, maxDepth, direction);
+        }
+        int start = graph.id(startCity);
+        if (start < 0) {
+            return List.of();
+        }
+        int[] order = metrics.compute("bfs", List.of(startCity, maxDepth, direction, mode),
+                () -> ParallelBfs.bfs(graph, start, direction, maxDepth, graphPool).nodes());
+        metrics.nodesSettled("bfs", order.length);
+        return metrics.resultSize("bfs", new CityResults.Cities(dictionary(graph), order));
+    }
+
+    // Cada ciudad alcanzada con su nivel y la ciudad desde la que se llegó
+    public List<Map<String, Object>> bfsTree(String startCity, int maxDepth, GraphTraversal.Direction direction) {
+        return traverse("bfs", true, startCity, maxDepth, direction, GraphAlgorithms::treeEntry);
     }
 
     // DFS - Depth First Search
     public List<String> dfs(String startCity) {
-        List<String> visited = new ArrayList<>();
+        return dfs(startCity, GraphTraversal.NO_DEPTH_LIMIT, GraphTraversal.Direction.BOTH);
+    }
+
+    public List<String> dfs(String startCity, int maxDepth, GraphTraversal.Direction direction) {
+        return traverseCities("dfs", false, startCity, maxDepth, direction);
+    }
+
+    // Cada ciudad alcanzada con su profundidad en el árbol del DFS y su padre
+    public List<Map<String, Object>> dfsTree(String startCity, int maxDepth, GraphTraversal.Direction direction) {
+        return traverse("dfs", false, startCity, maxDepth, direction, GraphAlgorithms::treeEntry);
+    }
+
+    // Sólo el orden de visita: con snapshot, los ids tal cual los deja el recorrido
+    private List<String> traverseCities(String operation, boolean breadthFirst, String startCity, int maxDepth,
+                                        GraphTraversal.Direction direction) {
+        GraphSnapshot graph = snapshots.current();
+        int start = graph == null ? -1 : graph.id(startCity);
+        if (start < 0) {
+            return traverse(operation, breadthFirst, startCity, maxDepth, direction, (city, depth, parent) -> city);
+        }
+        int[] order = metrics.compute(operation, List.of(startCity, maxDepth, direction), () -> (breadthFirst
+                ? GraphTraversal.bfs(graph, start, direction, maxDepth)
+                : GraphTraversal.dfs(graph, start, direction, maxDepth)).nodes());
+        metrics.nodesSettled(operation, order.length);
+        return metrics.resultSize(operation, new CityResults.Cities(dictionary(graph), order));
+    }
+
+    // Arma cada elemento de la respuesta de un recorrido a partir de la ciudad alcanzada
+    @FunctionalInterface
+    private interface VisitMapper<T> {
+        T map(String city, int depth, String parent);
+    }
+
+    private <T> List<T> traverse(String operation, boolean breadthFirst, String startCity, int maxDepth,
+                                 GraphTraversal.Direction direction, VisitMapper<T> mapper) {
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            return metrics.resultSize(operation,
+                    cypherTraversal(operation, breadthFirst, startCity, maxDepth, direction, mapper));
+        }
+        int start = graph.id(startCity);
+        if (start < 0) {
+            return List.of();
+        }
+        List<Object> arguments = List.of(startCity, maxDepth, direction);
+        List<T> visited = metrics.compute(operation, arguments, () -> {
+            GraphTraversal.Result result = breadthFirst
+                    ? GraphTraversal.bfs(graph, start, direction, maxDepth)
+                    : GraphTraversal.dfs(graph, start, direction, maxDepth);
+            List<T> list = new ArrayList<>(result.count());
+            for (int i = 0; i < result.count(); i++) {
+                int parent = result.parent(i);
+                list.add(mapper.map(graph.name(result.node(i)), result.depth(i),
+                        parent < 0 ? null : graph.name(parent)));
+            }
+            return list;
+        });
+        metrics.nodesSettled(operation, visited.size());
+        return metrics.resultSize(operation, visited);
+    }
+
+    // Con NODE_GLOBAL cada camino que devuelve apoc termina en una ciudad nueva, así que
+    // alcanza con su último nodo y el anterior, sin deduplicar rutas completas
+    private <T> List<T> cypherTraversal(String operation, boolean breadthFirst, String startCity, int maxDepth,
+                                        GraphTraversal.Direction direction, VisitMapper<T> mapper) {
         String query = """
             MATCH (start:City {name: $startCity})
             CALL apoc.path.expandConfig(start, {
-                relationshipFilter: 'ROAD',
+                relationshipFilter: $relationshipFilter,
                 uniqueness: 'NODE_GLOBAL',
-                bfs: false
+                bfs: $bfs,
+                maxLevel: $maxLevel
             })
             YIELD path
-            RETURN [node IN nodes(path) | node.name] as route
+            WITH nodes(path) AS route
+            RETURN route[-1].name AS city, size(route) - 1 AS depth,
+                   CASE WHEN size(route) > 1 THEN route[-2].name END AS parent
         """;
+        Map<String, Object> parameters = Map.of(
+                "startCity", startCity,
+                "relationshipFilter", switch (direction) {
+                    case OUTGOING -> "ROAD>";
+                    case INCOMING -> "<ROAD";
+                    case BOTH -> "ROAD";
+                },
+                "bfs", breadthFirst,
+                "maxLevel", maxDepth == GraphTraversal.NO_DEPTH_LIMIT ? -1 : maxDepth);
 
-        neo4jClient.query(query)
-            .bind(startCity).to("startCity")
+        List<T> visited = new ArrayList<>();
+        cypher(operation, parameters, () -> neo4jClient.query(query)
+            .bindAll(parameters)
             .fetch()
-            .all().forEach(result -> {
-                List<String> route = (List<String>) result.get("route");
-                visited.addAll(route.stream()
-                    .filter(city -> !visited.contains(city))
-                    .toList());
-            });
-
+            .all()).forEach(row -> visited.add(mapper.map((String) row.get("city"),
+                    ((Number) row.get("depth")).intValue(), (String) row.get("parent"))));
         return visited;
     }
 
+    private static Map<String, Object> treeEntry(String city, int depth, String parent) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("city", city);
+        entry.put("depth", depth);
+        entry.put("parent", parent);
+        return entry;
+    }
+
     // Método para obtener el camino más corto entre dos ciudades
     public Map<String, Object> shortestPath(String startCity, String endCity) {
+        return shortestPath(startCity, endCity, ShortestPaths.Algorithm.BIDIRECTIONAL);
+    }
+
+    public Map<String, Object> shortestPath(String startCity, String endCity, ShortestPaths.Algorithm algorithm) {
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            return sized("shortestPath", cypherShortestPath(startCity, endCity));
+        }
+        int start = graph.id(startCity);
+        int end = graph.id(endCity);
+        // Sin el índice de esta versión (se arma al publicarla) se busca igual
+        GraphComponents index = components.componentsFor(graph);
+        if (start >= 0 && end >= 0 && index != null && !index.connected(start, end)) {
+            metrics.unreachable("shortestPath");
+            return sized("shortestPath", routeResponse(graph, PathResult.EMPTY));
+        }
+        List<Object> arguments = List.of(startCity, endCity, algorithm);
+        return sized("shortestPath", cache.get("shortestPath", graph.version(), arguments,
+                GraphAlgorithms::responseWeight,
+                () -> metrics.compute("shortestPath", arguments,
+                        () -> shortestPath(graph, startCity, endCity, algorithm))));
+    }
+
+    private Map<String, Object> shortestPath(GraphSnapshot graph, String startCity, String endCity,
+                                             ShortestPaths.Algorithm algorithm) {
+        int start = graph.id(startCity);
+        int end = graph.id(endCity);
+        if (start < 0 || end < 0) {
+            return routeResponse(graph, PathResult.EMPTY);
+        }
+        // Con la tabla precalculada no hace falta buscar; DIJKSTRA, ASTAR y CH (con su modo
+        // graph.ch.verify) se piden explícitamente y siguen su propio camino
+        DistanceTable table = algorithm == ShortestPaths.Algorithm.BIDIRECTIONAL
+                ? distanceTables.tableFor(graph) : null;
+        if (table != null) {
+            try {
+                return routeResponse(graph, table.path(graph, start, end));
+            } catch (IllegalStateException e) {
+                // Saltos que no llegan (p. ej. empates entre rutas de 0 km): se busca como siempre
+                log.warn("Tabla de distancias sin camino para {} -> {}: {}", startCity, endCity, e.getMessage());
+                return routeResponse(graph, ShortestPaths.shortestPath(graph, start, end, algorithm));
+            }
+        }
+        ContractionHierarchy hierarchy = algorithm == ShortestPaths.Algorithm.CH
+                ? hierarchies.hierarchyFor(graph)
+                : null;
+        if (hierarchy == null) {
+            return routeResponse(graph, ShortestPaths.shortestPath(graph, start, end, algorithm));
+        }
+        PathResult path = hierarchy.shortestPath(start, end);
+        if (verifyHierarchy) {
+            // Modo de comparación: la jerarquía tiene que coincidir con el motor común
+            PathResult expected = ShortestPaths.shortestPath(graph, start, end, ShortestPaths.Algorithm.BIDIRECTIONAL);
+            if (expected.distance() != path.distance()) {
+                log.warn("CH devolvió {} km y Dijkstra {} km para {} -> {}",
+                        path.distance(), expected.distance(), startCity, endCity);
+                path = expected;
+            }
+        }
+        return routeResponse(graph, path);
+    }
+
+    private Map<String, Object> cypherShortestPath(String startCity, String endCity) {
         String query = """
             MATCH (start:City {name: $startCity}), (end:City {name: $endCity})
             CALL apoc.algo.dijkstra(start, end, 'ROAD', 'km')
@@ -78,11 +306,12 @@ public class GraphAlgorithms {
                    weight as totalDistance
         """;
 
-        Collection<Map<String, Object>> results = neo4jClient.query(query)
-            .bind(startCity).to("startCity")
-            .bind(endCity).to("endCity")
-            .fetch()
-            .all();
+        Collection<Map<String, Object>> results = cypher("shortestPath", List.of(startCity, endCity),
+            () -> neo4jClient.query(query)
+                .bind(startCity).to("startCity")
+                .bind(endCity).to("endCity")
+                .fetch()
+                .all());
             
         Optional<Map<String, Object>> firstResult = results.stream().findFirst();
         if (firstResult.isPresent()) {
@@ -96,8 +325,82 @@ public class GraphAlgorithms {
         return Map.of("route", List.of(), "totalDistance", 0);
     }
 
+    // Matriz de distancias muchos-a-muchos: un Dijkstra por origen repartido en el pool.
+    // Las filas se entregan en orden de finalización (con su índice); -1 = inalcanzable.
+    public void distanceMatrix(List<String> sources, List<String> targets, DistanceRowConsumer consumer)
+            throws IOException {
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            cypherDistanceMatrix(sources, targets, consumer);
+            return;
+        }
+
+        DistanceMatrix matrix = new DistanceMatrix(graph, ids(graph, targets));
+        int[] sourceIds = ids(graph, sources);
+        metrics.resultSize("distanceMatrix", sourceIds.length * targets.size());
+        // Incluye la escritura de las filas, que se intercala con el cálculo
+        metrics.compute("distanceMatrix", sourceIds.length + "x" + targets.size(), () -> {
+            CompletionService<MatrixRow> completion = new ExecutorCompletionService<>(graphPool);
+            List<Future<MatrixRow>> pending = new ArrayList<>(sourceIds.length);
+            for (int i = 0; i < sourceIds.length; i++) {
+                int index = i;
+                pending.add(completion.submit(() -> new MatrixRow(index, matrix.row(sourceIds[index]))));
+            }
+            try {
+                for (int i = 0; i < sourceIds.length; i++) {
+                    MatrixRow row = completion.take().get();
+                    consumer.accept(row.index(), sources.get(row.index()), row.distances());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Cálculo de la matriz interrumpido", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                // Si el cliente se desconectó o algo falló, no se siguen calculando filas
+                pending.forEach(future -> future.cancel(false));
+            }
+            return null;
+        });
+    }
+
+    private record MatrixRow(int index, long[] distances) {
+    }
+
+    private void cypherDistanceMatrix(List<String> sources, List<String> targets, DistanceRowConsumer consumer)
+            throws IOException {
+        for (int i = 0; i < sources.size(); i++) {
+            long[] row = new long[targets.size()];
+            for (int j = 0; j < targets.size(); j++) {
+                Map<String, Object> path = cypherShortestPath(sources.get(i), targets.get(j));
+                row[j] = ((List<?>) path.get("route")).isEmpty() && !sources.get(i).equals(targets.get(j))
+                        ? DistanceMatrix.UNREACHABLE
+                        : ((Number) path.get("totalDistance")).longValue();
+            }
+            consumer.accept(i, sources.get(i), row);
+        }
+    }
+
     // Algoritmo de Prim para Árbol de Expansión Mínima
     public Map<String, Object> prim() {
+        return prim(MinimumSpanningTree.Mode.SEQUENTIAL);
+    }
+
+    public Map<String, Object> prim(MinimumSpanningTree.Mode mode) {
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            return sized("prim", cypherPrim());
+        }
+        // El árbol es el mismo para todos los requests de una versión: se calcula una vez y
+        // se guarda fuera del LRU, que no admite respuestas del tamaño del grafo
+        return sized("prim", cache.getWholeGraph("prim", graph.version(), List.of(mode),
+                () -> metrics.compute("prim", mode, () -> forestResponse(graph,
+                        mode == MinimumSpanningTree.Mode.PARALLEL
+                                ? MinimumSpanningTree.boruvka(graph, graphPool)
+                                : MinimumSpanningTree.prim(graph)))));
+    }
+
+    private Map<String, Object> cypherPrim() {
         String query = """
             MATCH (n:City)
             WITH collect(n) as nodes
@@ -128,9 +431,9 @@ public class GraphAlgorithms {
                    reduce(total = 0, edge IN mst | total + edge.weight) as totalCost
         """;
 
-        return neo4jClient.query(query)
+        return cypher("prim", Map.of(), () -> neo4jClient.query(query)
             .fetch()
-            .one()
+            .one())
             .map(result -> {
                 Map<String, Object> response = new HashMap<>();
                 response.put("routes", result.get("routes"));
@@ -142,6 +445,24 @@ public class GraphAlgorithms {
 
     // Algoritmo de Kruskal
     public Map<String, Object> kruskal() {
+        return kruskal(MinimumSpanningTree.Mode.SEQUENTIAL);
+    }
+
+    public Map<String, Object> kruskal(MinimumSpanningTree.Mode mode) {
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            return sized("kruskal", cypherKruskal());
+        }
+        // El árbol es el mismo para todos los requests de una versión: se calcula una vez y
+        // se guarda fuera del LRU, que no admite respuestas del tamaño del grafo
+        return sized("kruskal", cache.getWholeGraph("kruskal", graph.version(), List.of(mode),
+                () -> metrics.compute("kruskal", mode, () -> forestResponse(graph,
+                        mode == MinimumSpanningTree.Mode.PARALLEL
+                                ? MinimumSpanningTree.boruvka(graph, graphPool)
+                                : MinimumSpanningTree.kruskal(graph)))));
+    }
+
+    private Map<String, Object> cypherKruskal() {
         String query = """
             MATCH (a:City)-[r:ROAD]-(b:City)
             WHERE id(a) < id(b)
@@ -165,9 +486,9 @@ public class GraphAlgorithms {
                    reduce(total = 0, edge IN mst | total + edge.weight) as totalCost
         """;
 
-        return neo4jClient.query(query)
+        return cypher("kruskal", Map.of(), () -> neo4jClient.query(query)
             .fetch()
-            .one()
+            .one())
             .map(result -> {
                 Map<String, Object> response = new HashMap<>();
                 response.put("routes", result.get("routes"));
@@ -177,8 +498,53 @@ public class GraphAlgorithms {
             .orElse(Map.of("routes", List.of(), "totalCost", 0));
     }
 
-    // Algoritmo Greedy para encontrar el camino que visita todas las ciudades
+    // Algoritmo Greedy para encontrar el camino que visita todas las ciudades: recorrido
+    // heurístico desde startCity por las ciudades de su componente (las graph.tsp.max-stops
+    // más cercanas en cantidad de rutas si hay más)
     public Map<String, Object> greedyTSP(String startCity) {
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            return sized("greedyTSP", cypherGreedyTSP(startCity));
+        }
+        int start = graph.id(startCity);
+        if (start < 0) {
+            return Map.of("route", List.of(), "totalDistance", 0);
+        }
+        return sized("greedyTSP", metrics.compute("greedyTSP", startCity, () -> {
+            int[] component = GraphTraversal.bfs(graph, start);
+            int[] stops = Arrays.copyOf(component, Math.min(component.length, tspMaxStops));
+            return heuristicTour(graph, stops, tspStarts, tspTimeBudget);
+        }));
+    }
+
+    // Recorrido heurístico por las paradas dadas, empezando y terminando en la primera.
+    // starts búsquedas en paralelo; se corta al pasar timeBudget.
+    public Map<String, Object> greedyTSP(List<String> cities, Integer starts, Duration timeBudget) {
+        List<String> distinct = distinctStops(cities);
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            return cities.isEmpty()
+                    ? Map.of("route", List.of(), "totalDistance", 0)
+                    : sized("greedyTSP", cypherGreedyTSP(cities.get(0)));
+        }
+        int[] stops = ids(graph, distinct);
+        if (Arrays.stream(stops).anyMatch(id -> id < 0)) {
+            return Map.of("route", List.of(), "totalDistance", 0);
+        }
+        return sized("greedyTSP", metrics.compute("greedyTSP", cities.size() + " paradas",
+                () -> heuristicTour(graph, stops, starts == null ? tspStarts : starts,
+                        timeBudget == null ? tspTimeBudget : timeBudget)));
+    }
+
+    // Sin matriz completa: candidatas por búsquedas acotadas y el resto de los pares a
+    // pedido, todo dentro de timeBudget (ver StopDistances)
+    private Map<String, Object> heuristicTour(GraphSnapshot graph, int[] stops, int starts, Duration timeBudget) {
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        StopDistances distances = new StopDistances(graph, stops, deadline);
+        return tourResponse(graph, stops, TourHeuristic.solve(distances, starts, deadline, graphPool));
+    }
+
+    private Map<String, Object> cypherGreedyTSP(String startCity) {
         String query = """
             MATCH (start:City {name: $startCity})
             WITH start
@@ -192,10 +558,10 @@ public class GraphAlgorithms {
                    totalDistance
         """;
 
-        return neo4jClient.query(query)
+        return cypher("greedyTSP", startCity, () -> neo4jClient.query(query)
             .bind(startCity).to("startCity")
             .fetch()
-            .one()
+            .one())
             .map(result -> {
                 Map<String, Object> response = new HashMap<>();
                 response.put("route", result.get("route"));
@@ -207,6 +573,28 @@ public class GraphAlgorithms {
 
     // QuickSort implementado en la consulta Cypher
     public List<Map<String, Object>> quickSortCitiesByDistance(String fromCity) {
+        return quickSortCitiesByDistance(fromCity, 0, Integer.MAX_VALUE);
+    }
+
+    // Página [offset, offset + limit) del ranking; las inalcanzables (-1) van al final
+    public List<Map<String, Object>> quickSortCitiesByDistance(String fromCity, int offset, int limit) {
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            return metrics.resultSize("quickSort", cypherQuickSortCitiesByDistance(fromCity, offset, limit));
+        }
+        int source = graph.id(fromCity);
+        if (source < 0) {
+            return List.of();
+        }
+        DistanceTable table = distanceTables.tableFor(graph);
+        DistanceRanking.Page page = metrics.compute("quickSort", List.of(fromCity, offset, limit), () -> table == null
+                ? DistanceRanking.rank(graph, source, offset, limit)
+                : DistanceRanking.rank(graph, source, target -> table.distance(source, target), offset, limit));
+        return metrics.resultSize("quickSort",
+                new CityResults.Distances(dictionary(graph), page.cities(), page.distances()));
+    }
+
+    private List<Map<String, Object>> cypherQuickSortCitiesByDistance(String fromCity, int offset, int limit) {
         String query = """
             MATCH (start:City {name: $fromCity}), (other:City)
             WHERE start <> other
@@ -216,14 +604,18 @@ public class GraphAlgorithms {
                       THEN -1 
                       ELSE reduce(s = 0, r IN relationships(path) | s + r.km)
                  END as distance
-            ORDER BY distance
+            ORDER BY distance < 0, distance
+            SKIP $offset
+            LIMIT $limit
             RETURN city, distance
         """;
 
-        return neo4jClient.query(query)
+        return cypher("quickSort", List.of(fromCity, offset, limit), () -> neo4jClient.query(query)
             .bind(fromCity).to("fromCity")
+            .bind(offset).to("offset")
+            .bind(limit).to("limit")
             .fetch()
-            .all()
+            .all())
             .stream()
             .map(result -> Map.of(
                 "city", result.get("city"),
@@ -233,71 +625,283 @@ public class GraphAlgorithms {
 
     // Programación Dinámica: Encontrar todos los caminos posibles entre dos ciudades
     public List<Map<String, Object>> findAllPaths(String startCity, String endCity, int maxLength) {
-        String query = """
-            MATCH path = (start:City {name: $startCity})-[:ROAD*..%d]-(end:City {name: $endCity})
-            WHERE ALL(n IN nodes(path) WHERE size([x IN nodes(path) WHERE x = n]) = 1)
-            WITH path, 
-                 reduce(s = 0, r IN relationships(path) | s + r.km) as totalDistance
-            RETURN [n IN nodes(path) | n.name] as route,
-                   totalDistance
-            ORDER BY totalDistance
-        """.formatted(maxLength);
+        List<Map<String, Object>> results = new ArrayList<>();
+        try {
+            streamAllPaths(startCity, endCity, maxLength, maxResults, collectInto(results, "route"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        results.sort(Comparator.comparingLong(result -> (Long) result.get("totalDistance")));
+        return results;
+    }
 
-        return neo4jClient.query(query)
-            .bind(startCity).to("startCity")
-            .bind(endCity).to("endCity")
-            .fetch()
-            .all()
-            .stream()
-            .map(result -> Map.of(
-                "route", result.get("route"),
-                "totalDistance", result.get("totalDistance")))
-            .toList();
+    // Igual que findAllPaths pero entregando cada camino a medida que se encuentra, sin
+    // ordenar ni acumular. Se corta al llegar a 'limit' (acotado por graph.paths.max-results)
+    // o cuando el sink devuelve false.
+    public void streamAllPaths(String startCity, String endCity, int maxLength, int limit, RouteSink sink)
+            throws IOException {
+        streamAllPaths(startCity, endCity, maxLength, null, null, limit, sink);
+    }
+
+    // maxDistance descarta (y poda) los caminos de más km. Con k se devuelven en cambio los
+    // k caminos simples más cortos en orden de distancia (Yen); en ese modo maxLength no
+    // limita la cantidad de rutas, salvo en la consulta Cypher sin snapshot.
+    public void streamAllPaths(String startCity, String endCity, int maxLength, Long maxDistance, Integer k,
+                               int limit, RouteSink sink) throws IOException {
+        openAllPaths(startCity, endCity, maxLength, maxDistance, k, limit).writeTo(sink);
+    }
+
+    // Prepara el streaming de caminos: toma el snapshot y, sin él, reserva el lugar en el
+    // bulkhead, de modo que Saturated sale antes de escribir nada
+    public RouteStream openAllPaths(String startCity, String endCity, int maxLength, Long maxDistance, Integer k,
+                                    int limit) {
+        // Un maxLength fuera de rango sale acá en ambos modos, antes de reservar y de escribir nada
+        CypherTemplates.depthFor(maxLength);
+        int cap = pathsCap(k, limit);
+        long distanceLimit = maxDistance == null ? PathEnumerator.NO_DISTANCE_LIMIT : maxDistance;
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            CypherTemplates.Template template = templates.paths(maxLength, k != null);
+            Neo4jBulkhead.Permit permit = bulkhead.reserve("paths");
+            return sink -> streamCypher(permit, "paths", template,
+                    CypherTemplates.pathsParameters(startCity, endCity, distanceLimit, cap),
+                    "route", cap, sink);
+        }
+        return sink -> streamPaths(graph, startCity, endCity, maxLength, maxDistance, k, cap, sink);
+    }
+
+    private void streamPaths(GraphSnapshot graph, String startCity, String endCity, int maxLength, Long maxDistance,
+                             Integer k, int cap, RouteSink sink) throws IOException {
+        long distanceLimit = maxDistance == null ? PathEnumerator.NO_DISTANCE_LIMIT : maxDistance;
+        int start = graph.id(startCity);
+        int end = graph.id(endCity);
+        if (start < 0 || end < 0) {
+            return;
+        }
+        GraphComponents index = components.componentsFor(graph);
+        if (index != null && !index.connected(start, end)) {
+            metrics.unreachable("paths");
+            return;
+        }
+        List<Object> arguments = Arrays.asList(startCity, endCity, maxLength, maxDistance, k);
+        if (k != null) {
+            List<PathResult> paths = metrics.compute("paths", arguments,
+                    () -> KShortestPaths.yen(graph, start, end, cap, distanceLimit));
+            metrics.pathsEnumerated("paths", paths.size());
+            String[] route = null;
+            for (PathResult path : paths) {
+                int[] nodes = path.nodes();
+                route = route == null || route.length < nodes.length ? new String[nodes.length] : route;
+                for (int i = 0; i < nodes.length; i++) {
+                    route[i] = graph.name(nodes[i]);
+                }
+                if (!sink.accept(route, nodes.length, path.distance())) {
+                    return;
+                }
+            }
+            return;
+        }
+        emitPaths("paths", arguments, graph, maxLength, cap, sink,
+                visitor -> PathEnumerator.simplePaths(graph, start, end, maxLength, distanceLimit, visitor));
     }
 
     // Backtracking: Encontrar todos los ciclos que pasan por una ciudad
     public List<Map<String, Object>> findAllCycles(String startCity, int maxLength) {
-        String query = """
-            MATCH path = (start:City {name: $startCity})-[:ROAD*..%d]->(start)
-            WHERE size(nodes(path)) > 2
-            WITH path,
-                 reduce(s = 0, r IN relationships(path) | s + r.km) as totalDistance
-            RETURN [n IN nodes(path) | n.name] as cycle,
-                   totalDistance
-            ORDER BY totalDistance
-        """.formatted(maxLength);
+        List<Map<String, Object>> results = new ArrayList<>();
+        try {
+            streamAllCycles(startCity, maxLength, maxResults, collectInto(results, "cycle"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        results.sort(Comparator.comparingLong(result -> (Long) result.get("totalDistance")));
+        return results;
+    }
 
-        return neo4jClient.query(query)
-            .bind(startCity).to("startCity")
-            .fetch()
-            .all()
-            .stream()
-            .map(result -> Map.of(
-                "cycle", result.get("cycle"),
-                "totalDistance", result.get("totalDistance")))
-            .toList();
+    public void streamAllCycles(String startCity, int maxLength, int limit, RouteSink sink) throws IOException {
+        openAllCycles(startCity, maxLength, limit).writeTo(sink);
+    }
+
+    public RouteStream openAllCycles(String startCity, int maxLength, int limit) {
+        CypherTemplates.depthFor(maxLength);
+        int cap = cyclesCap(limit);
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            CypherTemplates.Template template = templates.cycles(maxLength);
+            Neo4jBulkhead.Permit permit = bulkhead.reserve("cycles");
+            return sink -> streamCypher(permit, "cycles", template,
+                    CypherTemplates.cyclesParameters(startCity), "cycle", cap, sink);
+        }
+        return sink -> {
+            int start = graph.id(startCity);
+            if (start < 0) {
+                return;
+            }
+            // Sin otra ciudad en su componente fuerte no hay ciclo posible, de ningún largo
+            GraphComponents index = components.componentsFor(graph);
+            if (index != null && !index.onCycle(start)) {
+                metrics.unreachable("cycles");
+                return;
+            }
+            emitPaths("cycles", List.of(startCity, maxLength), graph, maxLength, cap, sink,
+                    visitor -> PathEnumerator.cycles(graph, start, maxLength, visitor));
+        };
+    }
+
+    // Cantidad máxima de caminos a devolver (con k, a lo sumo k), acotada por graph.paths.max-results
+    int pathsCap(Integer k, int limit) {
+        return Math.min(k == null ? limit : Math.min(limit, k), maxResults);
     }
 
-    // Branch & Bound: Encontrar el camino óptimo visitando un conjunto específico de ciudades
+    int cyclesCap(int limit) {
+        return Math.min(limit, maxResults);
+    }
+
+    // Recibe cada camino de una enumeración; devolver false la corta
+    @FunctionalInterface
+    public interface RouteSink {
+        // route[0..length) son los nombres de las ciudades; el arreglo puede reutilizarse
+        boolean accept(String[] route, int length, long totalDistance) throws IOException;
+    }
+
+    // Caminos listos para escribir en un sink (ver openAllPaths)
+    @FunctionalInterface
+    public interface RouteStream {
+        void writeTo(RouteSink sink) throws IOException;
+    }
+
+    private static RouteSink collectInto(List<Map<String, Object>> results, String field) {
+        return (route, length, totalDistance) -> {
+            results.add(Map.of(field, List.of(Arrays.copyOf(route, length)), "totalDistance", totalDistance));
+            return true;
+        };
+    }
+
+    // El tiempo de cálculo incluye escribir cada camino en el sink, que se intercala con la búsqueda
+    private void emitPaths(String operation, Object arguments, GraphSnapshot graph, int maxLength, int cap,
+                           RouteSink sink, Consumer<PathEnumerator.PathVisitor> enumeration) throws IOException {
+        if (cap <= 0) {
+            return;
+        }
+        String[] route = new String[Math.min(maxLength, graph.nodeCount()) + 1];
+        int[] emitted = {0};
+        try {
+            metrics.compute(operation, arguments, () -> {
+                enumeration.accept((path, length, distance) -> {
+                    for (int i = 0; i < length; i++) {
+                        route[i] = graph.name(path[i]);
+                    }
+                    try {
+                        return sink.accept(route, length, distance) && ++emitted[0] < cap;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            metrics.pathsEnumerated(operation, emitted[0]);
+        }
+    }
+
+    // Recorre el cursor del driver registro a registro en lugar de materializar el resultado;
+    // al cortar, consume() descarta el resto y devuelve los tiempos del servidor. Corre
+    // con el lugar del bulkhead ya reservado
+    private void streamCypher(Neo4jBulkhead.Permit permit, String operation, CypherTemplates.Template template,
+                              Map<String, Object> parameters, String field, int cap, RouteSink sink)
+            throws IOException {
+        try {
+            int streamed = permit.call(() -> metrics.cypher(operation, parameters,
+                    () -> neo4jClient.delegateTo(runner -> {
+                    Result result = runner.run(template.text(), parameters);
+                    int emitted = 0;
+                    while (emitted < cap && result.hasNext()) {
+                        Record record = result.next();
+                        List<String> route = record.get(field).asList(value -> value.asString());
+                        try {
+                            if (!sink.accept(route.toArray(new String[0]), route.size(),
+                                    record.get("totalDistance").asLong())) {
+                                break;
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        emitted++;
+                    }
+                    template.record(result.consume());
+                    return Optional.of(emitted);
+                }).run().orElse(0)));
+            metrics.pathsEnumerated(operation, streamed);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Branch & Bound: Encontrar el camino óptimo visitando un conjunto específico de ciudades.
+    // Se arma la matriz de distancias mínimas entre las ciudades pedidas y se resuelve el
+    // recorrido cerrado desde la primera; route es el recorrido completo por rutas y stops
+    // el orden de las ciudades pedidas. Si se agota graph.tsp.time-budget se devuelve el
+    // mejor recorrido encontrado con optimal = false. Hasta graph.tsp.max-stops paradas: la
+    // matriz de distancias se arma completa antes de mirar el plazo.
     public Map<String, Object> tspBranchAndBound(List<String> citiesToVisit) {
-        String citiesClause = String.join("','", citiesToVisit);
-        String query = """
-            MATCH (n:City)
-            WHERE n.name IN ['%s']
-            WITH collect(n) as nodes
-            MATCH path = (n:City)-[:ROAD*]->(m:City)
-            WHERE n IN nodes AND ALL(x IN nodes(path) WHERE x IN nodes)
-            WITH path,
-                 reduce(s = 0, r IN relationships(path) | s + r.km) as totalDistance
-            ORDER BY totalDistance
-            LIMIT 1
-            RETURN [n IN nodes(path) | n.name] as route,
-                   totalDistance
-        """.formatted(citiesClause);
+        List<String> distinct = distinctStops(citiesToVisit);
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            return sized("tspBranchAndBound", cypherTspBranchAndBound(citiesToVisit));
+        }
+        long deadline = System.nanoTime() + tspTimeBudget.toNanos();
+        int[] stops = ids(graph, distinct);
+        if (Arrays.stream(stops).anyMatch(id -> id < 0)) {
+            return Map.of("route", List.of(), "totalDistance", 0);
+        }
+        return sized("tspBranchAndBound", metrics.compute("tspBranchAndBound", citiesToVisit,
+                () -> tourResponse(graph, stops, TravelingSalesman.solve(stopDistances(graph, stops), deadline))));
+    }
 
-        return neo4jClient.query(query)
-            .fetch()
-            .one()
+    // Distancias mínimas entre todas las paradas, una fila por parada en paralelo
+    private long[][] stopDistances(GraphSnapshot graph, int[] stops) {
+        DistanceMatrix matrix = new DistanceMatrix(graph, stops);
+        long[][] distances = new long[stops.length][];
+        graphPool.submit(() -> IntStream.range(0, stops.length).parallel()
+                .forEach(i -> distances[i] = matrix.row(stops[i]))).join();
+        return distances;
+    }
+
+    // route es el recorrido completo por rutas (volviendo al inicio) y stops el orden de las paradas
+    private static Map<String, Object> tourResponse(GraphSnapshot graph, int[] stops, TravelingSalesman.Tour tour) {
+        if (tour.isEmpty()) {
+            return Map.of("route", List.of(), "totalDistance", 0);
+        }
+        List<String> route = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        route.add(graph.name(stops[tour.order()[0]]));
+        for (int i = 0; i < tour.order().length; i++) {
+            int from = stops[tour.order()[i]];
+            int to = stops[tour.order()[(i + 1) % tour.order().length]];
+            order.add(graph.name(from));
+            int[] leg = ShortestPaths.shortestPath(graph, from, to).nodes();
+            for (int j = 1; j < leg.length; j++) {
+                route.add(graph.name(leg[j]));
+            }
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("route", route);
+        response.put("stops", order);
+        response.put("totalDistance", tour.distance());
+        response.put("optimal", tour.optimal());
+        return response;
+    }
+
+    private Map<String, Object> cypherTspBranchAndBound(List<String> citiesToVisit) {
+        CypherTemplates.Template template = templates.tsp();
+        return cypher("tspBranchAndBound", citiesToVisit, () -> neo4jClient.delegateTo(runner -> {
+                Result result = runner.run(template.text(), Map.of("cities", citiesToVisit));
+                Optional<Map<String, Object>> row = result.hasNext()
+                        ? Optional.of(result.next().asMap()) : Optional.empty();
+                template.record(result.consume());
+                return row;
+            }).run())
             .map(result -> {
                 Map<String, Object> response = new HashMap<>();
                 response.put("route", result.get("route"));
@@ -306,4 +910,142 @@ public class GraphAlgorithms {
             })
             .orElse(Map.of("route", List.of(), "totalDistance", 0));
     }
+
+    // Paradas sin repetir, en el orden pedido; un nombre nulo o más de graph.tsp.max-stops
+    // paradas son IllegalArgumentException (400)
+    private List<String> distinctStops(List<String> cities) {
+        if (cities.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Las paradas no pueden ser nulas");
+        }
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(cities));
+        if (distinct.size() > tspMaxStops) {
+            throw new IllegalArgumentException("Se admiten hasta " + tspMaxStops + " paradas");
+        }
+        return distinct;
+    }
+
+    private static int[] ids(GraphSnapshot graph, List<String> cities) {
+        int[] ids = new int[cities.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = graph.id(cities.get(i));
+        }
+        return ids;
+    }
+
+    // Resumen de las componentes fuertes y débiles del snapshot; con city, además las de esa
+    // ciudad y hasta 'limit' miembros de su componente fuerte. Sólo con snapshot y con
+    // el índice de esa versión ya calculado; si no, IllegalStateException (503).
+    public Map<String, Object> components(String city, int limit) {
+        GraphSnapshot graph = requireSnapshot();
+        GraphComponents index = requireComponents(graph);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("cities", index.cityCount());
+        response.put("strongComponents", index.componentCount());
+        response.put("largestStrongComponent", index.largestComponent());
+        response.put("weakComponents", index.weakComponentCount());
+        response.put("largestWeakComponent", index.largestWeakComponent());
+        if (city != null) {
+            int id = graph.id(city);
+            Map<String, Object> membership = null;
+            if (id >= 0) {
+                int[] members = index.members(index.component(id));
+                membership = new LinkedHashMap<>();
+                membership.put("name", city);
+                membership.put("strongComponent", index.component(id));
+                membership.put("strongSize", members.length);
+                membership.put("weakComponent", index.weakComponent(id));
+                membership.put("weakSize", index.weakComponentSize(index.weakComponent(id)));
+                membership.put("onCycle", index.onCycle(id));
+                membership.put("members", new CityResults.Cities(dictionary(graph),
+                        Arrays.copyOf(members, Math.min(members.length, limit))));
+            }
+            response.put("city", membership);
+        }
+        return response;
+    }
+
+    // reachable: camino dirigido de from a to; connected: camino usando las rutas en cualquier sentido
+    public Map<String, Object> reachability(String from, String to) {
+        GraphSnapshot graph = requireSnapshot();
+        int source = graph.id(from);
+        int target = graph.id(to);
+        GraphComponents index = requireComponents(graph);
+        boolean known = source >= 0 && target >= 0;
+        return metrics.compute("reachability", List.of(from, to), () -> Map.of(
+                "from", from,
+                "to", to,
+                "reachable", known && index.reaches(source, target),
+                "connected", known && index.connected(source, target)));
+    }
+
+    private GraphSnapshot requireSnapshot() {
+        GraphSnapshot graph = snapshots.current();
+        if (graph == null) {
+            throw new IllegalStateException("El índice de componentes necesita el snapshot del grafo");
+        }
+        return graph;
+    }
+
+    private GraphComponents requireComponents(GraphSnapshot graph) {
+        GraphComponents index = components.componentsFor(graph);
+        if (index == null) {
+            throw new IllegalStateException("El índice de componentes del snapshot v" + graph.version()
+                    + " todavía se está calculando");
+        }
+        return index;
+    }
+
+    // Diccionario de nombres codificados del snapshot; uno nuevo con cada versión
+    private CityResults.Dictionary dictionary(GraphSnapshot graph) {
+        CityResults.Dictionary current = dictionary;
+        if (current == null || !current.matches(graph)) {
+            current = new CityResults.Dictionary(graph);
+            dictionary = current;
+        }
+        return current;
+    }
+
+    // Aciertos, fallos, consultas que esperaron un cálculo en curso, desalojos e invalidaciones
+    public Map<String, Object> cacheStats() {
+        return cache.stats();
+    }
+
+    // Plantillas Cypher registradas: planificación al precargar y tiempos medios del servidor
+    public List<Map<String, Object>> cypherTemplateStats() {
+        return templates.stats();
+    }
+
+    // Consulta a Neo4j dentro del bulkhead; el timer graph.cypher no incluye la espera por un lugar
+    private <T, E extends Exception> T cypher(String operation, Object parameters, GraphMetrics.Work<T, E> query)
+            throws E {
+        return bulkhead.call(operation, () -> metrics.cypher(operation, parameters, query));
+    }
+
+    private Map<String, Object> sized(String operation, Map<String, Object> response) {
+        metrics.resultSize(operation, responseWeight(response) - 1);
+        return response;
+    }
+
+    // Peso en el cache: cantidad de ciudades o rutas de la respuesta
+    private static int responseWeight(Map<String, Object> response) {
+        Object items = response.containsKey("route") ? response.get("route") : response.get("routes");
+        return 1 + (items instanceof List<?> list ? list.size() : 0);
+    }
+
+    private Map<String, Object> forestResponse(GraphSnapshot graph, SpanningForest forest) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("routes", new CityResults.Pairs(dictionary(graph), forest.sources(), forest.targets()));
+        response.put("totalCost", forest.totalCost());
+        return Collections.unmodifiableMap(response);
+    }
+
+    private Map<String, Object> routeResponse(GraphSnapshot graph, PathResult path) {
+        if (path.isEmpty()) {
+            return Map.of("route", List.of(), "totalDistance", 0);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("route", new CityResults.Cities(dictionary(graph), path.nodes()));
+        response.put("totalDistance", path.distance());
+        return Collections.unmodifiableMap(response);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.GraphComponents;
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Mantiene el índice de componentes del snapshot actual. Se arma en segundo plano
+// (O(V + E)) cada vez que se publica una versión; mientras tanto componentsFor()
+// devuelve null y las consultas no descartan pares sin camino de antemano.
+@Service
+public class GraphComponentsService {
+    private static final Logger log = LoggerFactory.getLogger(GraphComponentsService.class);
+
+    private final TaskExecutor executor;
+    private final GraphMetrics metrics;
+    private final AtomicBoolean preparing = new AtomicBoolean();
+    // Última versión pedida; el build en curso la vuelve a mirar al terminar
+    private volatile GraphSnapshot wanted;
+    private volatile GraphComponents components;
+
+    public GraphComponentsService(@Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                                  GraphMetrics metrics) {
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    @EventListener
+    public void onPublished(GraphSnapshotService.Published event) {
+        prepare(event.snapshot());
+    }
+
+    // Devuelve el índice si está listo para este snapshot, o null
+    public GraphComponents componentsFor(GraphSnapshot graph) {
+        GraphComponents current = components;
+        if (current != null && current.matches(graph)) {
+            return current;
+        }
+        prepare(graph);
+        return null;
+    }
+
+    private void prepare(GraphSnapshot graph) {
+        GraphSnapshot latest = wanted;
+        if (latest == null || latest.version() < graph.version()) {
+            wanted = graph;
+        }
+        if (preparing.compareAndSet(false, true)) {
+            executor.execute(this::build);
+        }
+    }
+
+    private void build() {
+        try {
+            GraphSnapshot graph;
+            while ((graph = wanted) != null && (components == null || !components.matches(graph))) {
+                long start = System.nanoTime();
+                GraphSnapshot target = graph;
+                components = metrics.compute("components", target.version(), () -> GraphComponents.compute(target));
+                log.info("Componentes del snapshot v{} calculadas en {} ms: {} fuertes, {} débiles",
+                        target.version(), (System.nanoTime() - start) / 1_000_000,
+                        components.componentCount(), components.weakComponentCount());
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo calcular el índice de componentes: {}", e.getMessage());
+            // Se reintenta con el próximo pedido o la próxima publicación
+            return;
+        } finally {
+            preparing.set(false);
+        }
+        // Una versión pedida entre el último chequeo y soltar el flag no queda sin build
+        GraphSnapshot graph = wanted;
+        GraphComponents current = components;
+        if (graph != null && (current == null || !current.matches(graph)) && preparing.compareAndSet(false, true)) {
+            executor.execute(this::build);
+        }
+    }
+}
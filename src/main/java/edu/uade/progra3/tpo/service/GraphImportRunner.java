@@ -0,0 +1,67 @@
+package edu.uade.progra3.tpo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+// Modo línea de comandos para las importaciones programadas:
+//   java -jar tpo.jar --spring.main.web-application-type=none --import=rutas.csv.gz
+// Importa cada --import en orden y termina (código 1 si alguno falla). El formato sale de
+// la extensión: .ndjson o .jsonl es NDJSON, cualquier otra CSV; con .gz se descomprime.
+@Component
+public class GraphImportRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(GraphImportRunner.class);
+
+    private final GraphImportService imports;
+    private final ApplicationContext context;
+
+    public GraphImportRunner(GraphImportService imports, ApplicationContext context) {
+        this.imports = imports;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption("import")) {
+            return;
+        }
+        int status = 0;
+        for (String file : args.getOptionValues("import")) {
+            String name = file.toLowerCase();
+            boolean gzip = name.endsWith(".gz");
+            if (gzip) {
+                name = name.substring(0, name.length() - 3);
+            }
+            GraphImportService.Format format = name.endsWith(".ndjson") || name.endsWith(".jsonl")
+                    ? GraphImportService.Format.NDJSON : GraphImportService.Format.CSV;
+            try (InputStream in = open(Path.of(file), gzip)) {
+                ImportProgress done = imports.importGraph(in, format, progress -> {
+                });
+                log.info("{} importado: {} ciudades, {} rutas ({} omitidas) en {} s, {} filas/s", file,
+                        done.citiesWritten(), done.roadsWritten(), done.roadsSkipped(),
+                        done.elapsedMillis() / 1000, done.rowsPerSecond());
+            } catch (IOException | RuntimeException e) {
+                log.error("No se pudo importar {}: {}", file, e.getMessage());
+                status = 1;
+                break;
+            }
+        }
+        int exitCode = status;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static InputStream open(Path file, boolean gzip) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return gzip ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+}
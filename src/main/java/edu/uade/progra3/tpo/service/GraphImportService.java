@@ -0,0 +1,149 @@
+package edu.uade.progra3.tpo.service;
+
+import org.neo4j.driver.exceptions.TransientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+// Importación masiva de ciudades y rutas. En lugar de guardar entidades City de a una
+// relación, el archivo se lee en streaming (ImportReader) y se escribe en lotes de
+// graph.import.batch-size filas con UNWIND $batch, graph.import.parallelism lotes a la
+// vez (ImportPipeline). Cada lote es una transacción; si Neo4j la aborta por un deadlock
+// u otro error transitorio se reintenta hasta graph.import.max-retries veces.
+//
+// Sólo agrega o actualiza: las ciudades y rutas que no están en el archivo quedan como
+// están. Las ciudades tocadas se marcan con updatedAt = timestamp() en la transacción de
+// cada lote, como pide el feed de cambios (un lote que confirma minutos después del
+// arranque igual entra en la ventana de las demás instancias) y, al terminar, se recarga
+// el snapshot entero (más barato que un delta de millones de filas).
+@Service
+public class GraphImportService {
+    private static final Logger log = LoggerFactory.getLogger(GraphImportService.class);
+
+    private static final String CONSTRAINT = """
+        CREATE CONSTRAINT city_name IF NOT EXISTS FOR (c:City) REQUIRE c.name IS UNIQUE
+    """;
+
+    private static final String CITIES = """
+        UNWIND $batch AS row
+        MERGE (c:City {name: row.name})
+        SET c.lat = coalesce(row.lat, c.lat),
+            c.lon = coalesce(row.lon, c.lon),
+            c.updatedAt = timestamp()
+        RETURN count(c) AS written
+    """;
+
+    private static final String ROADS = """
+        UNWIND $batch AS row
+        MATCH (a:City {name: row.source})
+        MATCH (b:City {name: row.target})
+        MERGE (a)-[r:ROAD]->(b)
+        SET r.km = row.km,
+            a.updatedAt = timestamp()
+        RETURN count(r) AS written
+    """;
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private final Neo4jClient neo4jClient;
+    private final GraphSnapshotService snapshots;
+    private final GraphMetrics metrics;
+    private final int parallelism;
+    private final int batchSize;
+    private final int maxRetries;
+    private final Duration progressInterval;
+    // Una importación a la vez: dos en paralelo pelearían por las mismas ciudades
+    private final Semaphore running = new Semaphore(1);
+
+    public GraphImportService(Neo4jClient neo4jClient, GraphSnapshotService snapshots, GraphMetrics metrics,
+                              @Value("${graph.import.parallelism:4}") int parallelism,
+                              @Value("${graph.import.batch-size:10000}") int batchSize,
+                              @Value("${graph.import.max-retries:3}") int maxRetries,
+                              @Value("${graph.import.progress-interval:5s}") Duration progressInterval) {
+        this.neo4jClient = neo4jClient;
+        this.snapshots = snapshots;
+        this.metrics = metrics;
+        this.parallelism = Math.max(1, parallelism);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRetries = maxRetries;
+        this.progressInterval = progressInterval;
+    }
+
+    // Importa el contenido de in; progress recibe el avance cada graph.import.progress-interval
+    // y el resumen final, que también se devuelve. IllegalStateException si ya hay una en curso.
+    public ImportProgress importGraph(InputStream in, Format format, Consumer<ImportProgress> progress)
+            throws IOException {
+        if (!running.tryAcquire()) {
+            throw new IllegalStateException("Ya hay una importación en curso");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            neo4jClient.query(CONSTRAINT).run();
+            ImportPipeline pipeline = new ImportPipeline(new ImportPipeline.BatchWriter() {
+                @Override
+                public long cities(List<Map<String, Object>> batch) {
+                    return write("import.cities", CITIES, batch);
+                }
+
+                @Override
+                public long roads(List<Map<String, Object>> batch) {
+                    return write("import.roads", ROADS, batch);
+                }
+            }, executor, parallelism, batchSize, progressInterval.toNanos(), report -> {
+                log.info("Importación: {}", report);
+                progress.accept(report);
+            });
+            ImportReader.read(in, format, pipeline);
+            ImportProgress done = pipeline.finish();
+            if (snapshots.enabled()) {
+                snapshots.reload();
+            }
+            return done;
+        } finally {
+            executor.shutdownNow();
+            running.release();
+        }
+    }
+
+    private long write(String operation, String query, List<Map<String, Object>> batch) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return metrics.cypher(operation, batch.size(), () -> neo4jClient.query(query)
+                        .bind(batch).to("batch")
+                        .fetchAs(Long.class)
+                        .one()
+                        .orElse(0L));
+            } catch (TransientDataAccessException | TransientException e) {
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                log.debug("Lote de {} reintentado ({}): {}", operation, attempt + 1, e.getMessage());
+                sleep(50L << attempt);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Importación interrumpida", e);
+        }
+    }
+}
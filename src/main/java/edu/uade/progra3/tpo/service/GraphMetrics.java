@@ -0,0 +1,130 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.SearchWork;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Collection;
+
+// Métricas de GraphAlgorithms, separando en cada consulta la ida a Neo4j
+// (graph.cypher) del cálculo en la JVM (graph.compute), ambos con la operación como
+// tag. Son observaciones: además del timer quedan como spans si hay un tracer.
+// También cuenta el trabajo de las búsquedas (graph.nodes.settled, graph.edges.relaxed),
+// los caminos enumerados y el tamaño de las respuestas (graph.result.size).
+//
+// Lo que tarda más que graph.metrics.slow-query se loguea con sus parámetros.
+@Component
+public class GraphMetrics {
+    private static final Logger log = LoggerFactory.getLogger(GraphMetrics.class);
+
+    private final ObservationRegistry observations;
+    private final MeterRegistry registry;
+    private final long slowQueryNanos;
+
+    // Trabajo medido; puede lanzar la excepción chequeada E (p. ej. IOException al escribir)
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    public GraphMetrics(ObservationRegistry observations, MeterRegistry registry,
+                        @Value("${graph.metrics.slow-query:500ms}") Duration slowQuery) {
+        this.observations = observations;
+        this.registry = registry;
+        this.slowQueryNanos = slowQuery.toNanos();
+    }
+
+    // Ida y vuelta a Neo4j, incluyendo leer el resultado del driver
+    public <T, E extends Exception> T cypher(String operation, Object parameters, Work<T, E> query) throws E {
+        return observe("graph.cypher", operation, parameters, query);
+    }
+
+    // Igual para una consulta reactiva: se mide desde la suscripción hasta que el flujo
+    // termina, falla o se cancela
+    public <T> Flux<T> cypher(String operation, Object parameters, Flux<T> query) {
+        return Flux.defer(() -> {
+            Observation observation = start("graph.cypher", operation);
+            long start = System.nanoTime();
+            return query.doOnError(observation::error)
+                    .doFinally(signal -> stop(observation, "graph.cypher", operation, parameters, start));
+        });
+    }
+
+    // Cálculo sobre el snapshot; suma lo que asentaron y relajaron las búsquedas de este hilo
+    public <T, E extends Exception> T compute(String operation, Object parameters, Work<T, E> computation)
+            throws E {
+        SearchWork work = SearchWork.current();
+        long settled = work.settled();
+        long relaxed = work.relaxed();
+        try {
+            return observe("graph.compute", operation, parameters, computation);
+        } finally {
+            nodesSettled(operation, work.settled() - settled);
+            count("graph.edges.relaxed", operation, work.relaxed() - relaxed);
+        }
+    }
+
+    // Para los recorridos que no pasan por un heap (BFS, DFS)
+    public void nodesSettled(String operation, long count) {
+        count("graph.nodes.settled", operation, count);
+    }
+
+    public void pathsEnumerated(String operation, long count) {
+        count("graph.paths.enumerated", operation, count);
+    }
+
+    // Consultas descartadas por el índice de componentes sin buscar
+    public void unreachable(String operation) {
+        count("graph.queries.unreachable", operation, 1);
+    }
+
+    public void resultSize(String operation, int size) {
+        registry.summary("graph.result.size", "operation", operation).record(size);
+    }
+
+    public <C extends Collection<?>> C resultSize(String operation, C result) {
+        resultSize(operation, result.size());
+        return result;
+    }
+
+    private void count(String name, String operation, long amount) {
+        if (amount > 0) {
+            registry.counter(name, "operation", operation).increment(amount);
+        }
+    }
+
+    private <T, E extends Exception> T observe(String name, String operation, Object parameters,
+                                               Work<T, E> work) throws E {
+        Observation observation = start(name, operation);
+        long start = System.nanoTime();
+        try (Observation.Scope scope = observation.openScope()) {
+            return work.run();
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            stop(observation, name, operation, parameters, start);
+        }
+    }
+
+    private Observation start(String name, String operation) {
+        return Observation.createNotStarted(name, observations)
+                .lowCardinalityKeyValue("operation", operation)
+                .start();
+    }
+
+    private void stop(Observation observation, String name, String operation, Object parameters, long start) {
+        observation.stop();
+        long elapsed = System.nanoTime() - start;
+        if (elapsed > slowQueryNanos) {
+            log.warn("{} lento ({} ms) en {}: {}", name, elapsed / 1_000_000, operation, parameters);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.GraphDelta;
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Carga todas las City y ROAD de Neo4j en un GraphSnapshot.
+// Lee los registros directamente del cursor del driver para no materializar
+// un Map por fila. Las ciudades y rutas vienen ordenadas por nombre para que dos cargas
+// completas de los mismos datos numeren igual ids y rutas (ver GraphSnapshot.fingerprint).
+//
+// Feed de cambios. Contrato para quien escriba en Neo4j:
+//
+// - toda escritura sobre una ciudad o sus rutas salientes (alta, cambio de km, baja de
+//   una ruta) actualiza c.updatedAt (epoch millis, timestamp()) en la ciudad de ORIGEN,
+//   en la misma transacción; City lo hace solo con @LastModifiedDate;
+// - las bajas de ciudades se registran como (:DeletedCity {name, deletedAt}).
+//
+// Lo que se escriba sin cumplirlo no llega por el feed y se corrige recién en la próxima
+// conciliación completa (GraphSnapshotService.reconcile).
+//
+// El marcador de un snapshot es el mayor de esos timestamps visto al cargarlo. Una
+// transacción que confirma tarde puede dejar un timestamp menor que el marcador, así que
+// cada consulta vuelve a leer una ventana de graph.snapshot.change-skew hacia atrás y
+// descarta los eventos (ciudad, timestamp) que ya aplicó. Aplicar un evento es
+// idempotente: la ciudad se reemplaza con todas sus rutas salientes actuales.
+@Component
+public class GraphSnapshotLoader {
+    private static final Logger log = LoggerFactory.getLogger(GraphSnapshotLoader.class);
+
+    private static final String MARKER_QUERY = """
+        OPTIONAL MATCH (c:City)
+        WITH coalesce(max(c.updatedAt), 0) AS updated
+        OPTIONAL MATCH (d:DeletedCity)
+        RETURN CASE WHEN coalesce(max(d.deletedAt), 0) > updated
+                    THEN coalesce(max(d.deletedAt), 0) ELSE updated END AS marker
+    """;
+
+    private static final String CITIES_QUERY = """
+        MATCH (c:City)
+        RETURN c.name AS name, c.lat AS lat, c.lon AS lon
+        ORDER BY name
+    """;
+
+    private static final String ROADS_QUERY = """
+        MATCH (a:City)-[r:ROAD]->(b:City)
+        RETURN a.name AS source, b.name AS target, r.km AS km
+        ORDER BY source, target, km
+    """;
+
+    private static final String CHANGED_CITIES_QUERY = """
+        MATCH (c:City)
+        WHERE c.updatedAt > $since
+        RETURN c.name AS name,
+               c.lat AS lat,
+               c.lon AS lon,
+               c.updatedAt AS changedAt,
+               [(c)-[r:ROAD]->(d:City) | {target: d.name, km: r.km}] AS roads
+    """;
+
+    private static final String DELETED_CITIES_QUERY = """
+        MATCH (d:DeletedCity)
+        WHERE d.deletedAt > $since
+        RETURN d.name AS name, d.deletedAt AS changedAt
+    """;
+
+    private final Neo4jClient neo4jClient;
+    private final long skew;
+
+    public GraphSnapshotLoader(
+            Neo4jClient neo4jClient,
+            @Value("${graph.snapshot.change-skew:1m}") Duration skew) {
+        this.neo4jClient = neo4jClient;
+        this.skew = skew.toMillis();
+    }
+
+    public GraphSnapshot load(long version) {
+        GraphSnapshot.Builder builder = GraphSnapshot.builder(version);
+
+        neo4jClient.delegateTo(runner -> {
+            // El marcador se lee antes que los datos: un cambio concurrente se vuelve
+            // a aplicar en el próximo refresh, y aplicarlo dos veces es inocuo
+            builder.changeMarker(runner.run(MARKER_QUERY).single().get("marker").asLong());
+            Result cities = runner.run(CITIES_QUERY);
+            while (cities.hasNext()) {
+                Record city = cities.next();
+                builder.addCity(city.get("name").asString(), coordinate(city.get("lat")), coordinate(city.get("lon")));
+            }
+            Result roads = runner.run(ROADS_QUERY);
+            int skipped = 0;
+            while (roads.hasNext()) {
+                Record road = roads.next();
+                int km = km(road.get("km"));
+                if (km < 0) {
+                    skipped++;
+                    continue;
+                }
+                builder.addRoad(road.get("source").asString(), road.get("target").asString(), km);
+            }
+            warnSkipped(skipped);
+            return Optional.empty();
+        }).run();
+
+        return builder.build();
+    }
+
+    // Cambios desde 'since' menos la ventana de desfase que no estén en 'applied'. Si una
+    // ciudad aparece modificada y eliminada, gana el evento más reciente. Devuelve además
+    // los eventos que siguen dentro de la ventana para pasarlos en la próxima consulta.
+    public Changes changesSince(long since, Set<Event> applied) {
+        GraphDelta delta = new GraphDelta();
+        long[] marker = {since};
+        Set<Event> seen = new HashSet<>();
+
+        neo4jClient.delegateTo(runner -> {
+            Map<String, Object> params = Map.of("since", since - skew);
+            Map<String, Event> latest = new HashMap<>();
+            Result deleted = runner.run(DELETED_CITIES_QUERY, params);
+            while (deleted.hasNext()) {
+                Record row = deleted.next();
+                Event event = new Event(row.get("name").asString(), row.get("changedAt").asLong(), true);
+                seen.add(event);
+                latest.merge(event.name(), event, Event::newer);
+            }
+            Map<String, Record> rows = new HashMap<>();
+            Result changed = runner.run(CHANGED_CITIES_QUERY, params);
+            while (changed.hasNext()) {
+                Record row = changed.next();
+                Event event = new Event(row.get("name").asString(), row.get("changedAt").asLong(), false);
+                seen.add(event);
+                rows.put(event.name(), row);
+                latest.merge(event.name(), event, Event::newer);
+            }
+            int skipped = 0;
+            for (Event event : latest.values()) {
+                marker[0] = Math.max(marker[0], event.changedAt());
+                if (applied.contains(event)) {
+                    continue;
+                }
+                if (event.deleted()) {
+                    delta.removeCity(event.name());
+                    continue;
+                }
+                Record row = rows.get(event.name());
+                delta.upsertCity(event.name(), coordinate(row.get("lat")), coordinate(row.get("lon")));
+                for (org.neo4j.driver.Value road : row.get("roads").values()) {
+                    int km = km(road.get("km"));
+                    if (km < 0) {
+                        skipped++;
+                        continue;
+                    }
+                    delta.addRoad(event.name(), road.get("target").asString(), km);
+                }
+            }
+            warnSkipped(skipped);
+            return Optional.empty();
+        }).run();
+
+        seen.removeIf(event -> event.changedAt() <= marker[0] - skew);
+        return new Changes(delta, marker[0], seen);
+    }
+
+    // Distancia de una ruta, o -1 si falta, no es un número o es negativa. Los decimales
+    // se truncan como en toInteger() de Cypher
+    static int km(org.neo4j.driver.Value value) {
+        if (value.isNull() || !(value.asObject() instanceof Number km)) {
+            return -1;
+        }
+        double distance = km.doubleValue();
+        return distance >= 0 && distance <= Integer.MAX_VALUE ? km.intValue() : -1;
+    }
+
+    // Una ruta mal cargada se descarta en lugar de abortar toda la carga
+    private static void warnSkipped(int skipped) {
+        if (skipped > 0) {
+            log.warn("Se descartaron {} rutas con km nulo, no numérico o negativo", skipped);
+        }
+    }
+
+    // Las coordenadas son opcionales (lat/lon en grados); sin ellas A* usa heurística 0
+    private static double coordinate(org.neo4j.driver.Value value) {
+        return value.isNull() ? Double.NaN : value.asDouble();
+    }
+
+    // Un evento del feed: la ciudad con su timestamp de cambio o de baja
+    public record Event(String name, long changedAt, boolean deleted) {
+        // Ante el mismo timestamp gana la baja
+        static Event newer(Event a, Event b) {
+            if (a.changedAt != b.changedAt) {
+                return a.changedAt > b.changedAt ? a : b;
+            }
+            return a.deleted ? a : b;
+        }
+    }
+
+    public record Changes(GraphDelta delta, long marker, Set<Event> window) {
+    }
+}
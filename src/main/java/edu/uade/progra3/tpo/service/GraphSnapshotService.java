@@ -0,0 +1,239 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import edu.uade.progra3.tpo.graph.SnapshotFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Mantiene el snapshot en memoria que usan los algoritmos. Se carga en el primer
+// uso; si está deshabilitado o Neo4j no responde, current() devuelve null y
+// GraphAlgorithms vuelve a las consultas Cypher. Tras una carga fallida no se reintenta
+// hasta pasado graph.snapshot.load-backoff, para que los requests no hagan cola detrás
+// de cargas completas contra un Neo4j lento o caído.
+//
+// Cada publicación es una referencia volátil a un snapshot inmutable: un request
+// toma current() una vez y ve una versión consistente aunque haya un refresh en curso.
+//
+// Cada versión nueva se guarda en graph.snapshot.file. Al arrancar se lee ese archivo
+// (sin tocar la red), se empieza a atender con él y se concilia con Neo4j en segundo
+// plano con una carga completa.
+//
+// refresh() sólo ve lo que los escritores registran en el feed de cambios (contrato en
+// GraphSnapshotLoader). Una escritura que no lo cumpla (una ruta borrada sin tocar
+// updatedAt del origen, una importación directa) quedaría afuera para siempre, así que
+// reconcile() repite la carga completa cada graph.snapshot.reconcile-interval y publica
+// el resultado sólo si su GraphSnapshot.fingerprint difiere del publicado. El fingerprint
+// cubre nombres, rutas y km, no las coordenadas.
+//
+// Cada versión publicada se anuncia con un evento Published (índices como el de
+// componentes se arman a partir de él, fuera del hilo del request).
+@Service
+public class GraphSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(GraphSnapshotService.class);
+
+    private final GraphSnapshotLoader loader;
+    private final ApplicationEventPublisher events;
+    private final TaskExecutor executor;
+    private final boolean enabled;
+    private final Path file;
+    private final Duration loadBackoff;
+    private final AtomicBoolean persisting = new AtomicBoolean();
+    private volatile GraphSnapshot snapshot;
+    // Tras una carga inicial fallida, instante (System.nanoTime) hasta el que no se reintenta
+    private volatile boolean loadFailed;
+    private volatile long retryAt;
+    // Eventos del feed ya aplicados que siguen dentro de la ventana de desfase
+    private Set<GraphSnapshotLoader.Event> applied = Set.of();
+
+    public record Published(GraphSnapshot snapshot) {
+    }
+
+    public GraphSnapshotService(GraphSnapshotLoader loader,
+                                ApplicationEventPublisher events,
+                                @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                                @Value("${graph.snapshot.enabled:true}") boolean enabled,
+                                @Value("${graph.snapshot.file:data/graph.snapshot}") Path file,
+                                @Value("${graph.snapshot.load-backoff:30s}") Duration loadBackoff) {
+        this.loader = loader;
+        this.events = events;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.file = file;
+        this.loadBackoff = loadBackoff;
+    }
+
+    // Carga en segundo plano al arrancar para que el primer request no espere
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            executor.execute(this::current);
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public GraphSnapshot current() {
+        GraphSnapshot current = snapshot;
+        if (current != null || !enabled || backingOff()) {
+            return current;
+        }
+        synchronized (this) {
+            // Quien esperaba el lock detrás de una carga fallida tampoco reintenta
+            if (snapshot != null || backingOff()) {
+                return snapshot;
+            }
+            if (readPersisted()) {
+                executor.execute(this::reconcile);
+            }
+            if (snapshot == null) {
+                try {
+                    reload();
+                    loadFailed = false;
+                } catch (RuntimeException e) {
+                    retryAt = System.nanoTime() + loadBackoff.toNanos();
+                    loadFailed = true;
+                    log.warn("No se pudo cargar el snapshot del grafo (se reintenta en {}): {}",
+                            loadBackoff, e.getMessage());
+                }
+            }
+            return snapshot;
+        }
+    }
+
+    private boolean backingOff() {
+        return loadFailed && System.nanoTime() - retryAt < 0;
+    }
+
+    // Recarga completa desde Neo4j y reemplaza el snapshot publicado
+    public synchronized GraphSnapshot reload() {
+        long start = System.nanoTime();
+        GraphSnapshot loaded = loader.load(nextVersion());
+        publish(loaded);
+        applied = Set.of();
+        log.info("Snapshot v{} cargado: {} ciudades, {} rutas en {} ms",
+                loaded.version(), loaded.nodeCount(), loaded.edgeCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        persist();
+        return loaded;
+    }
+
+    private boolean readPersisted() {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            publish(SnapshotFile.read(file, nextVersion()));
+            log.info("Snapshot leído de {}: {} ciudades, {} rutas en {} ms; conciliando con Neo4j",
+                    file, snapshot.nodeCount(), snapshot.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo leer {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    // Guarda la versión publicada en segundo plano; si ya hay una escritura en curso se
+    // omite (la próxima versión o la conciliación al arrancar cubren la diferencia)
+    private void persist() {
+        if (!persisting.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                SnapshotFile.write(snapshot, file);
+            } catch (IOException | RuntimeException e) {
+                log.warn("No se pudo guardar {}: {}", file, e.getMessage());
+            } finally {
+                persisting.set(false);
+            }
+        });
+    }
+
+    // Consulta el feed de cambios y publica una versión nueva sólo con el delta
+    @Scheduled(fixedDelayString = "${graph.snapshot.refresh-interval:30s}",
+               initialDelayString = "${graph.snapshot.refresh-interval:30s}")
+    public void refresh() {
+        GraphSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                current = snapshot;
+                GraphSnapshotLoader.Changes changes = loader.changesSince(current.changeMarker(), applied);
+                applied = changes.window();
+                if (changes.delta().isEmpty()) {
+                    return;
+                }
+                long start = System.nanoTime();
+                publish(current.withChanges(changes.delta(), nextVersion(), changes.marker()));
+                log.info("Snapshot v{} publicado con {} ciudades modificadas en {} µs",
+                        snapshot.version(), changes.delta().size(),
+                        (System.nanoTime() - start) / 1_000);
+                persist();
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo refrescar el snapshot del grafo: {}", e.getMessage());
+        }
+    }
+
+    // Carga completa desde Neo4j; se publica sólo si el contenido cambió, para no
+    // invalidar sin motivo las jerarquías, tablas y caches atadas al snapshot actual.
+    // Bloquea a refresh() mientras dura, como reload().
+    @Scheduled(fixedDelayString = "${graph.snapshot.reconcile-interval:6h}",
+               initialDelayString = "${graph.snapshot.reconcile-interval:6h}")
+    public void reconcile() {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                GraphSnapshot current = snapshot;
+                long start = System.nanoTime();
+                GraphSnapshot loaded = loader.load(nextVersion());
+                if (loaded.fingerprint() == current.fingerprint()) {
+                    log.info("Snapshot v{} conciliado con Neo4j en {} ms: sin diferencias",
+                            current.version(), (System.nanoTime() - start) / 1_000_000);
+                    return;
+                }
+                // El feed se vuelve a leer desde el marcador de la carga; reaplicar es inocuo
+                publish(loaded);
+                applied = Set.of();
+                log.warn("Snapshot v{} difería de Neo4j ({} ciudades, {} rutas); publicado v{} en {} ms",
+                        current.version(), loaded.nodeCount(), loaded.edgeCount(), loaded.version(),
+                        (System.nanoTime() - start) / 1_000_000);
+                persist();
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo conciliar el snapshot del grafo: {}", e.getMessage());
+        }
+    }
+
+    private void publish(GraphSnapshot next) {
+        snapshot = next;
+        events.publishEvent(new Published(next));
+    }
+
+    private long nextVersion() {
+        GraphSnapshot current = snapshot;
+        return current == null ? 1 : current.version() + 1;
+    }
+}
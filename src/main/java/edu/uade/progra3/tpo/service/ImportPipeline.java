@@ -0,0 +1,192 @@
+package edu.uade.progra3.tpo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Agrupa las filas leídas en lotes y los escribe en paralelo. Cada ciudad va a una
+// partición según su nombre, y los lotes de una partición se escriben en orden, uno
+// detrás del otro, mientras las particiones corren a la vez en el executor.
+//
+// Escribir una ruta (MERGE (a)-[r:ROAD]->(b)) bloquea sus dos ciudades, así que las rutas
+// se agrupan por el par (partición de origen, partición de destino) y cada lote espera
+// a los dos: dos lotes en vuelo nunca tocan la misma ciudad, y los pares disjuntos
+// corren a la vez. Hay a lo sumo 2 lotes por partición esperando o en vuelo: si Neo4j no
+// da abasto, la lectura espera.
+//
+// Las rutas sólo se escriben entre ciudades que ya existen, así que antes del primer lote
+// de rutas se terminan de escribir las ciudades pendientes (y al final, las que quedaron
+// en los buffers antes que las rutas). Las rutas cuyas ciudades todavía no existen cuando
+// se escribe su lote se cuentan como omitidas.
+final class ImportPipeline implements ImportReader.Handler {
+
+    // Escribe un lote y devuelve cuántas filas quedaron escritas
+    interface BatchWriter {
+        long cities(List<Map<String, Object>> batch);
+
+        long roads(List<Map<String, Object>> batch);
+    }
+
+    private final BatchWriter writer;
+    private final Executor executor;
+    private final int partitions;
+    private final int batchSize;
+    private final long progressIntervalNanos;
+    private final Consumer<ImportProgress> progress;
+
+    // cityBuffers por partición; roadBuffers por par, en origen * partitions + destino
+    // (en memoria quedan hasta partitions² * batchSize rutas sin escribir)
+    private final List<List<Map<String, Object>>> cityBuffers = new ArrayList<>();
+    private final List<List<Map<String, Object>>> roadBuffers = new ArrayList<>();
+    private final CompletableFuture<?>[] tails;
+    private final Semaphore inFlight;
+    private final long start = System.nanoTime();
+    private long lastReport = start;
+    private boolean roadsStarted;
+
+    private long citiesRead;
+    private long roadsRead;
+    private final AtomicLong citiesWritten = new AtomicLong();
+    private final AtomicLong roadsWritten = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    ImportPipeline(BatchWriter writer, Executor executor, int partitions, int batchSize,
+                   long progressIntervalNanos, Consumer<ImportProgress> progress) {
+        this.writer = writer;
+        this.executor = executor;
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+        this.progressIntervalNanos = progressIntervalNanos;
+        this.progress = progress;
+        this.tails = new CompletableFuture<?>[partitions];
+        this.inFlight = new Semaphore(2 * partitions);
+        for (int p = 0; p < partitions; p++) {
+            cityBuffers.add(new ArrayList<>(batchSize));
+            tails[p] = CompletableFuture.completedFuture(null);
+        }
+        for (int pair = 0; pair < partitions * partitions; pair++) {
+            roadBuffers.add(new ArrayList<>());
+        }
+    }
+
+    @Override
+    public void city(String name, double latitude, double longitude) {
+        Map<String, Object> row = new HashMap<>(4);
+        row.put("name", name);
+        row.put("lat", Double.isNaN(latitude) ? null : latitude);
+        row.put("lon", Double.isNaN(longitude) ? null : longitude);
+        int p = partition(name);
+        add(cityBuffers.get(p), row, p, p, false);
+        citiesRead++;
+        reportIfDue();
+    }
+
+    @Override
+    public void road(String source, String target, int km) {
+        if (!roadsStarted) {
+            roadsStarted = true;
+            flush(cityBuffers, false);
+            await();
+        }
+        int from = partition(source);
+        int to = partition(target);
+        add(roadBuffers.get(from * partitions + to), Map.of("source", source, "target", target, "km", km),
+                from, to, true);
+        roadsRead++;
+        reportIfDue();
+    }
+
+    // Escribe lo que quedó en los buffers, espera todos los lotes y devuelve el resumen
+    ImportProgress finish() {
+        flush(cityBuffers, false);
+        await();
+        flush(roadBuffers, true);
+        await();
+        ImportProgress done = snapshot(true);
+        progress.accept(done);
+        return done;
+    }
+
+    private void add(List<Map<String, Object>> buffer, Map<String, Object> row, int first, int second,
+                     boolean roads) {
+        buffer.add(row);
+        if (buffer.size() >= batchSize) {
+            submit(first, second, List.copyOf(buffer), roads);
+            buffer.clear();
+        }
+    }
+
+    private void flush(List<List<Map<String, Object>>> buffers, boolean roads) {
+        for (int i = 0; i < buffers.size(); i++) {
+            List<Map<String, Object>> buffer = buffers.get(i);
+            if (!buffer.isEmpty()) {
+                int first = roads ? i / partitions : i;
+                int second = roads ? i % partitions : i;
+                submit(first, second, List.copyOf(buffer), roads);
+                buffer.clear();
+            }
+        }
+    }
+
+    // El lote corre después del último de cada una de sus dos particiones (la misma para
+    // ciudades y rutas internas a una partición) y pasa a ser el último de ambas
+    private void submit(int first, int second, List<Map<String, Object>> batch, boolean roads) {
+        // Un lote que falló corta la cadena de su partición: no tiene sentido seguir leyendo
+        if (tails[first].isCompletedExceptionally() || tails[second].isCompletedExceptionally()) {
+            await();
+        }
+        inFlight.acquireUninterruptibly();
+        CompletableFuture<?> after = first == second
+                ? tails[first]
+                : CompletableFuture.allOf(tails[first], tails[second]);
+        CompletableFuture<?> tail = after.thenRunAsync(() -> {
+            long written = roads ? writer.roads(batch) : writer.cities(batch);
+            (roads ? roadsWritten : citiesWritten).addAndGet(written);
+            batches.incrementAndGet();
+        }, executor).whenComplete((ignored, e) -> inFlight.release());
+        tails[first] = tail;
+        tails[second] = tail;
+    }
+
+    private void await() {
+        try {
+            CompletableFuture.allOf(tails).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void reportIfDue() {
+        // Consultar el reloj cada 1024 filas alcanza para intervalos de segundos
+        if (((citiesRead + roadsRead) & 1023) != 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - lastReport >= progressIntervalNanos) {
+            lastReport = now;
+            progress.accept(snapshot(false));
+        }
+    }
+
+    private ImportProgress snapshot(boolean done) {
+        long elapsed = System.nanoTime() - start;
+        long written = citiesWritten.get() + roadsWritten.get();
+        return new ImportProgress(citiesRead, roadsRead, citiesWritten.get(), roadsWritten.get(),
+                done ? roadsRead - roadsWritten.get() : 0, batches.get(), elapsed / 1_000_000,
+                elapsed == 0 ? 0 : (long) (written * 1e9 / elapsed), done);
+    }
+
+    private int partition(String city) {
+        return Math.floorMod(city.hashCode(), partitions);
+    }
+}
@@ -0,0 +1,8 @@
+package edu.uade.progra3.tpo.service;
+
+// Avance de una importación: filas leídas y escritas, lotes terminados y filas escritas
+// por segundo. roadsSkipped (rutas cuyas ciudades no existían) sólo se sabe al final.
+public record ImportProgress(long citiesRead, long roadsRead, long citiesWritten, long roadsWritten,
+                             long roadsSkipped, long batches, long elapsedMillis, long rowsPerSecond,
+                             boolean done) {
+}
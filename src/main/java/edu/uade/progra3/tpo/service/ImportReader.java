@@ -0,0 +1,189 @@
+package edu.uade.progra3.tpo.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lee un archivo de importación fila por fila, sin cargarlo entero, y entrega cada
+// ciudad o ruta al Handler. Dos formatos:
+//
+// CSV, una fila por línea (se ignoran las vacías, las que empiezan con # y un encabezado
+// que empiece con "type"); los campos pueden ir entre comillas dobles:
+//   city,Buenos Aires,-34.60,-58.38
+//   road,Buenos Aires,La Plata,60
+//
+// NDJSON, un objeto por línea:
+//   {"type":"city","name":"Buenos Aires","lat":-34.60,"lon":-58.38}
+//   {"type":"road","source":"Buenos Aires","target":"La Plata","km":60}
+//
+// Las coordenadas son opcionales; km es un entero no negativo. Una fila mal formada corta la lectura con
+// IllegalArgumentException indicando la línea.
+final class ImportReader {
+
+    interface Handler {
+        void city(String name, double latitude, double longitude);
+
+        void road(String source, String target, int km);
+    }
+
+    private ImportReader() {
+    }
+
+    static void read(InputStream in, GraphImportService.Format format, Handler handler) throws IOException {
+        if (format == GraphImportService.Format.NDJSON) {
+            readNdjson(in, handler);
+        } else {
+            readCsv(in, handler);
+        }
+    }
+
+    private static void readCsv(InputStream in, Handler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        List<String> fields = new ArrayList<>(4);
+        String line;
+        int lineNumber = 0;
+        boolean first = true;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            split(line, fields, lineNumber);
+            String type = fields.get(0).trim();
+            boolean header = first && type.equalsIgnoreCase("type");
+            first = false;
+            try {
+                if (type.equalsIgnoreCase("city") && (fields.size() == 2 || fields.size() == 4)) {
+                    handler.city(name(fields.get(1)),
+                            fields.size() == 4 ? coordinate(fields.get(2)) : Double.NaN,
+                            fields.size() == 4 ? coordinate(fields.get(3)) : Double.NaN);
+                } else if (type.equalsIgnoreCase("road") && fields.size() == 4) {
+                    handler.road(name(fields.get(1)), name(fields.get(2)), km(fields.get(3).trim()));
+                } else if (!header) {
+                    throw new IllegalArgumentException("se esperaba city,nombre[,lat,lon] o road,origen,destino,km");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Línea " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Separa por comas respetando comillas dobles ("" dentro de comillas es una comilla)
+    private static void split(String line, List<String> fields, int lineNumber) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Línea " + lineNumber + ": comillas sin cerrar");
+        }
+        fields.add(field.toString());
+    }
+
+    private static void readNdjson(InputStream in, Handler handler) throws IOException {
+        try (JsonParser parser = new JsonFactory().createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                int lineNumber = parser.currentLocation().getLineNr();
+                try {
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new IllegalArgumentException("se esperaba un objeto");
+                    }
+                    readObject(parser, handler);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Línea " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private static void readObject(JsonParser parser, Handler handler) throws IOException {
+        String type = null;
+        String name = null;
+        String source = null;
+        String target = null;
+        Integer km = null;
+        double latitude = Double.NaN;
+        double longitude = Double.NaN;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "type" -> type = parser.getText();
+                case "name" -> name = parser.getText();
+                case "source" -> source = parser.getText();
+                case "target" -> target = parser.getText();
+                // Número o texto pasan por la misma validación que en CSV
+                case "km" -> km = km(parser.getText());
+                case "lat" -> latitude = value == JsonToken.VALUE_NULL ? Double.NaN : parser.getDoubleValue();
+                case "lon" -> longitude = value == JsonToken.VALUE_NULL ? Double.NaN : parser.getDoubleValue();
+                default -> parser.skipChildren();
+            }
+        }
+        if ("road".equals(type) || type == null && source != null) {
+            if (source == null || target == null || km == null) {
+                throw new IllegalArgumentException("una ruta necesita source, target y km");
+            }
+            handler.road(name(source), name(target), km);
+        } else if ("city".equals(type) || type == null && name != null) {
+            handler.city(name(name), latitude, longitude);
+        } else {
+            throw new IllegalArgumentException("tipo desconocido: " + type);
+        }
+    }
+
+    private static String name(String value) {
+        String name = value == null ? "" : value.trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("nombre de ciudad vacío");
+        }
+        return name;
+    }
+
+    private static double coordinate(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? Double.NaN : Double.parseDouble(trimmed);
+    }
+
+    // Entero no negativo; "12.0" se acepta, "12.5" no (no se trunca en silencio)
+    private static int km(String value) {
+        int km;
+        try {
+            km = new BigDecimal(value).intValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("km no es un entero: " + value);
+        }
+        if (km < 0) {
+            throw new IllegalArgumentException("km negativo: " + km);
+        }
+        return km;
+    }
+}
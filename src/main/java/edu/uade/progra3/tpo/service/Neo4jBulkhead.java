@@ -0,0 +1,150 @@
+package edu.uade.progra3.tpo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Acota cuántas consultas a Neo4j corren a la vez (graph.neo4j.max-concurrency), por
+// debajo del pool de conexiones del driver, para que una AuraDB lenta no deje a todos los
+// hilos de Tomcat esperando una conexión: quien no consigue lugar en
+// graph.neo4j.acquire-timeout recibe Saturated (503) en lugar de encolarse sin fin.
+//
+// Cada consulta corre en una transacción de sólo lectura con graph.neo4j.query-timeout,
+// que el driver corta del lado del servidor.
+@Component
+public class Neo4jBulkhead {
+
+    // No hubo lugar para la consulta dentro del tiempo de espera
+    public static class Saturated extends RuntimeException {
+        Saturated(String message) {
+            super(message);
+        }
+    }
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutNanos;
+    private final Duration queryTimeout;
+    private final TransactionTemplate transactions;
+    private final MeterRegistry registry;
+
+    public Neo4jBulkhead(PlatformTransactionManager transactionManager, MeterRegistry registry,
+                         @Value("${graph.neo4j.max-concurrency:32}") int maxConcurrency,
+                         @Value("${graph.neo4j.acquire-timeout:2s}") Duration acquireTimeout,
+                         @Value("${graph.neo4j.query-timeout:30s}") Duration queryTimeout) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.queryTimeout = queryTimeout;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.transactions.setReadOnly(true);
+        this.transactions.setTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+        this.registry = registry;
+        registry.gauge("graph.neo4j.active", permits, p -> maxConcurrency - p.availablePermits());
+    }
+
+    public Duration queryTimeout() {
+        return queryTimeout;
+    }
+
+    public <T, E extends Exception> T call(String operation, GraphMetrics.Work<T, E> query) throws E {
+        acquire(operation);
+        try {
+            return inTransaction(query);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Reserva un lugar antes de comprometer una respuesta en streaming: si no hay lugar,
+    // Saturated sale mientras todavía se puede responder 503. El lugar se devuelve al
+    // cerrar el Permit, que admite una sola consulta.
+    public Permit reserve(String operation) {
+        acquire(operation);
+        return new Permit();
+    }
+
+    public final class Permit implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        public <T, E extends Exception> T call(GraphMetrics.Work<T, E> query) throws E {
+            try {
+                return inTransaction(query);
+            } finally {
+                close();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    // Variante sin espera para los flujos reactivos: true si se tomó un lugar, que hay que
+    // devolver con release()
+    public boolean tryAcquire(String operation) {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        registry.counter("graph.neo4j.rejected", "operation", operation).increment();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public Saturated saturated(String operation) {
+        return new Saturated("Neo4j saturado (" + maxConcurrency + " consultas en curso) en " + operation);
+    }
+
+    private void acquire(String operation) {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                registry.counter("graph.neo4j.rejected", "operation", operation).increment();
+                throw saturated(operation);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw saturated(operation);
+        }
+    }
+
+    // La excepción chequeada de la consulta cruza el TransactionCallback envuelta y se
+    // vuelve a lanzar tal cual (la transacción se revierte igual que con una unchecked)
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> T inTransaction(GraphMetrics.Work<T, E> query) throws E {
+        try {
+            return transactions.execute(status -> {
+                try {
+                    return query.run();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CheckedFailure(e);
+                }
+            });
+        } catch (CheckedFailure e) {
+            throw (E) e.getCause();
+        }
+    }
+
+    private static final class CheckedFailure extends RuntimeException {
+        CheckedFailure(Exception cause) {
+            super(cause);
+        }
+    }
+}
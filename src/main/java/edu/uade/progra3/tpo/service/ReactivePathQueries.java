@@ -0,0 +1,103 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.PathEnumerator;
+import org.springframework.data.neo4j.core.ReactiveNeo4jClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Variantes reactivas de las enumeraciones de caminos y ciclos. Sin snapshot la consulta
+// va por ReactiveNeo4jClient y ningún hilo queda bloqueado mientras AuraDB responde; el
+// lugar en el bulkhead se toma sin esperar (si no hay, error Saturated) y se devuelve al
+// terminar o cancelarse el flujo. Con snapshot la enumeración es la misma de
+// GraphAlgorithms, corrida en boundedElastic.
+@Service
+public class ReactivePathQueries {
+
+    // Enumeración que escribe cada camino en el sink recibido
+    @FunctionalInterface
+    private interface Enumeration {
+        void run(GraphAlgorithms.RouteSink sink) throws IOException;
+    }
+
+    private final ReactiveNeo4jClient neo4jClient;
+    private final GraphSnapshotService snapshots;
+    private final GraphAlgorithms graphAlgorithms;
+    private final Neo4jBulkhead bulkhead;
+    private final GraphMetrics metrics;
+    private final CypherTemplates templates;
+
+    public ReactivePathQueries(ReactiveNeo4jClient neo4jClient, GraphSnapshotService snapshots,
+                               GraphAlgorithms graphAlgorithms, Neo4jBulkhead bulkhead, GraphMetrics metrics,
+                               CypherTemplates templates) {
+        this.neo4jClient = neo4jClient;
+        this.snapshots = snapshots;
+        this.graphAlgorithms = graphAlgorithms;
+        this.bulkhead = bulkhead;
+        this.metrics = metrics;
+        this.templates = templates;
+    }
+
+    public Flux<Map<String, Object>> paths(String startCity, String endCity, int maxLength, Long maxDistance,
+                                           Integer k, int limit) {
+        // Fuera del flujo, para que un maxLength inválido sea un 400 también con snapshot
+        CypherTemplates.depthFor(maxLength);
+        if (snapshots.current() != null) {
+            return fromSnapshot("route",
+                    sink -> graphAlgorithms.streamAllPaths(startCity, endCity, maxLength, maxDistance, k, limit, sink));
+        }
+        int cap = graphAlgorithms.pathsCap(k, limit);
+        long distanceLimit = maxDistance == null ? PathEnumerator.NO_DISTANCE_LIMIT : maxDistance;
+        return query("paths", templates.paths(maxLength, k != null).text(),
+                CypherTemplates.pathsParameters(startCity, endCity, distanceLimit, cap), "route", cap);
+    }
+
+    public Flux<Map<String, Object>> cycles(String startCity, int maxLength, int limit) {
+        CypherTemplates.depthFor(maxLength);
+        if (snapshots.current() != null) {
+            return fromSnapshot("cycle",
+                    sink -> graphAlgorithms.streamAllCycles(startCity, maxLength, limit, sink));
+        }
+        int cap = graphAlgorithms.cyclesCap(limit);
+        return query("cycles", templates.cycles(maxLength).text(),
+                CypherTemplates.cyclesParameters(startCity), "cycle", cap);
+    }
+
+    private Flux<Map<String, Object>> query(String operation, String cypher, Map<String, Object> parameters,
+                                            String field, int cap) {
+        return Flux.defer(() -> {
+            if (!bulkhead.tryAcquire(operation)) {
+                return Flux.error(bulkhead.saturated(operation));
+            }
+            Flux<Map<String, Object>> records = neo4jClient.query(cypher)
+                    .bindAll(parameters)
+                    .fetch()
+                    .all()
+                    .take(cap)
+                    .timeout(bulkhead.queryTimeout());
+            return metrics.cypher(operation, parameters, records)
+                    .map(record -> Map.of(field, record.get(field), "totalDistance", record.get("totalDistance")))
+                    .doOnNext(path -> metrics.pathsEnumerated(operation, 1))
+                    .doFinally(signal -> bulkhead.release());
+        });
+    }
+
+    private static Flux<Map<String, Object>> fromSnapshot(String field, Enumeration enumeration) {
+        return Flux.<Map<String, Object>>create(emitter -> {
+            try {
+                enumeration.run((route, length, totalDistance) -> {
+                    emitter.next(Map.of(field, List.of(Arrays.copyOf(route, length)), "totalDistance", totalDistance));
+                    return !emitter.isCancelled();
+                });
+                emitter.complete();
+            } catch (IOException | RuntimeException e) {
+                emitter.error(e);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+}
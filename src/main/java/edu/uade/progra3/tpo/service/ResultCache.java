@@ -0,0 +1,219 @@
+package edu.uade.progra3.tpo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// Cache de resultados de GraphAlgorithms con LRU segmentado: una entrada nueva entra
+// a "probation" y pasa a "protected" recién en su segundo acierto, así un barrido de
+// consultas únicas no desplaza a las frecuentes. El tamaño se mide en peso (el
+// weigher de cada llamada, p. ej. cantidad de ciudades de la respuesta).
+//
+// La clave incluye la versión del snapshot: al publicarse una versión nueva las
+// entradas viejas dejan de coincidir y se descartan en el siguiente acceso. Varias
+// consultas simultáneas a la misma clave esperan a un único cálculo.
+//
+// Los resultados sobre todo el grafo (getWholeGraph, p. ej. el bosque de expansión) no
+// pasan por el LRU: pesan tanto como el grafo y nunca entrarían bajo maxWeight. Se guarda
+// uno por tipo y argumentos de la última versión, y se descarta al llegar una nueva.
+@Component
+public class ResultCache {
+
+    private record Key(String kind, long version, List<Object> arguments) {
+    }
+
+    private record Entry(Object value, int weight) {
+    }
+
+    private final boolean enabled;
+    private final long maxWeight;
+    private final long protectedMaxWeight;
+
+    // Ambos en orden de acceso; el primero de cada uno es el menos usado recientemente
+    private final LinkedHashMap<Key, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Key, Entry> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long probationWeight;
+    private long protectedWeight;
+    private long latestVersion;
+    private final Map<Key, Object> wholeGraph = new HashMap<>();
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ResultCache(@Value("${graph.cache.enabled:true}") boolean enabled,
+                       @Value("${graph.cache.max-weight:200000}") long maxWeight) {
+        this.enabled = enabled;
+        this.maxWeight = maxWeight;
+        this.protectedMaxWeight = maxWeight * 4 / 5;
+    }
+
+    public <T> T get(String kind, long version, List<Object> arguments, ToIntFunction<T> weigher,
+                     Supplier<T> compute) {
+        Key key = new Key(kind, version, arguments);
+        return get(key, compute, value -> store(key, value, Math.max(1, weigher.applyAsInt(value))));
+    }
+
+    // Resultado que depende de todo el grafo de una versión: sin peso ni desalojo
+    public <T> T getWholeGraph(String kind, long version, List<Object> arguments, Supplier<T> compute) {
+        Key key = new Key(kind, version, arguments);
+        return get(key, compute, value -> keepWholeGraph(key, value));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Key key, Supplier<T> compute, Consumer<T> store) {
+        if (!enabled) {
+            return compute.get();
+        }
+        Object cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return (T) cached;
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        misses.increment();
+        try {
+            T value = compute.get();
+            store.accept(value);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private synchronized Object lookup(Key key) {
+        dropOlderVersions(key.version());
+        Object whole = wholeGraph.get(key);
+        if (whole != null) {
+            return whole;
+        }
+        Entry entry = protectedSegment.get(key);
+        if (entry != null) {
+            return entry.value();
+        }
+        entry = probation.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        // Segundo acierto: pasa a protected, que devuelve a probation lo que le sobre
+        probationWeight -= entry.weight();
+        protectedSegment.put(key, entry);
+        protectedWeight += entry.weight();
+        while (protectedWeight > protectedMaxWeight && protectedSegment.size() > 1) {
+            Iterator<Map.Entry<Key, Entry>> eldest = protectedSegment.entrySet().iterator();
+            Map.Entry<Key, Entry> demoted = eldest.next();
+            eldest.remove();
+            protectedWeight -= demoted.getValue().weight();
+            probation.put(demoted.getKey(), demoted.getValue());
+            probationWeight += demoted.getValue().weight();
+        }
+        evictOverflow();
+        return entry.value();
+    }
+
+    private synchronized void store(Key key, Object value, int weight) {
+        if (key.version() < latestVersion || weight > maxWeight
+                || probation.containsKey(key) || protectedSegment.containsKey(key)) {
+            return;
+        }
+        probation.put(key, new Entry(value, weight));
+        probationWeight += weight;
+        evictOverflow();
+    }
+
+    private synchronized void keepWholeGraph(Key key, Object value) {
+        if (key.version() >= latestVersion) {
+            wholeGraph.put(key, value);
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Key, Entry>> eldest = probation.entrySet().iterator();
+        while (probationWeight + protectedWeight > maxWeight && eldest.hasNext()) {
+            probationWeight -= eldest.next().getValue().weight();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void dropOlderVersions(long version) {
+        if (version <= latestVersion) {
+            return;
+        }
+        latestVersion = version;
+        probationWeight -= dropBefore(probation, version);
+        protectedWeight -= dropBefore(protectedSegment, version);
+        if (wholeGraph.keySet().removeIf(key -> key.version() < version)) {
+            invalidations.increment();
+        }
+    }
+
+    private long dropBefore(LinkedHashMap<Key, Entry> segment, long version) {
+        long dropped = 0;
+        Iterator<Map.Entry<Key, Entry>> entries = segment.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Key, Entry> entry = entries.next();
+            if (entry.getKey().version() < version) {
+                dropped += entry.getValue().weight();
+                entries.remove();
+                invalidations.increment();
+            }
+        }
+        return dropped;
+    }
+
+    public synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+        wholeGraph.clear();
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("entries", probation.size() + protectedSegment.size());
+        stats.put("weight", probationWeight + protectedWeight);
+        stats.put("maxWeight", maxWeight);
+        stats.put("wholeGraphEntries", wholeGraph.size());
+        stats.put("version", latestVersion);
+        return stats;
+    }
+}
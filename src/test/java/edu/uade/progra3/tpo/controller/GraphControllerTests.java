@@ -0,0 +1,69 @@
+package edu.uade.progra3.tpo.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import edu.uade.progra3.tpo.graph.ShortestPaths;
+import edu.uade.progra3.tpo.service.GraphAlgorithms;
+import edu.uade.progra3.tpo.service.GraphImportService;
+import edu.uade.progra3.tpo.service.Neo4jBulkhead;
+import edu.uade.progra3.tpo.service.ReactivePathQueries;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GraphControllerTests {
+
+    private final GraphAlgorithms graphAlgorithms = mock(GraphAlgorithms.class);
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new GraphController(graphAlgorithms,
+            mock(ReactivePathQueries.class), mock(GraphImportService.class), new ObjectMapper(),
+            new MappingJackson2CborHttpMessageConverter(new ObjectMapper(new CBORFactory())),
+            new MappingJackson2SmileHttpMessageConverter(new ObjectMapper(new SmileFactory())))).build();
+
+    @Test
+    void testSaturatedNeo4jIsA503WithRetryAfter() throws Exception {
+        Neo4jBulkhead bulkhead = new Neo4jBulkhead(mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                1, Duration.ofMillis(1), Duration.ofSeconds(30));
+        when(graphAlgorithms.shortestPath("A", "B", ShortestPaths.Algorithm.BIDIRECTIONAL))
+                .thenThrow(bulkhead.saturated("shortestPath"));
+
+        mvc.perform(get("/graph/shortestPath").param("from", "A").param("to", "B"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void testPathLengthAboveTheCypherCapIsA400() throws Exception {
+        when(graphAlgorithms.openAllPaths("A", "B", 40, null, null, Integer.MAX_VALUE))
+                .thenThrow(new IllegalArgumentException("maxLength debe estar entre 1 y 32"));
+
+        mvc.perform(get("/graph/dynamic/paths").param("from", "A").param("to", "B").param("maxLength", "40"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testTooManyBranchAndBoundStopsIsA400() throws Exception {
+        when(graphAlgorithms.tspBranchAndBound(List.of("A", "B", "C")))
+                .thenThrow(new IllegalArgumentException("Se admiten hasta 2 paradas"));
+
+        mvc.perform(post("/graph/branch-and-bound/tsp").contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"A\", \"B\", \"C\"]"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,54 @@
+package edu.uade.progra3.tpo.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.uade.progra3.tpo.service.GraphAlgorithms;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteStreamWriterTests {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    private static GraphAlgorithms.RouteStream twoRoutesThen(RuntimeException failure) {
+        return sink -> {
+            sink.accept(new String[]{"Buenos Aires", "Rosario"}, 2, 300);
+            sink.accept(new String[]{"Rosario", "Córdoba", "Mendoza"}, 3, 1000);
+            if (failure != null) {
+                throw failure;
+            }
+        };
+    }
+
+    private String write(GraphAlgorithms.RouteStream stream, boolean ndjson) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RouteStreamWriter(json.getFactory(), out, "route", ndjson).write(stream);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testCompleteStreamIsAClosedArray() throws IOException {
+        JsonNode routes = json.readTree(write(twoRoutesThen(null), false));
+        assertEquals(2, routes.size());
+        assertEquals("Mendoza", routes.get(1).get("route").get(2).asText());
+        assertEquals("[]", write(sink -> {
+        }, false));
+    }
+
+    @Test
+    void testFailureLeavesTheArrayOpenWithAnErrorElement() throws IOException {
+        String body = write(twoRoutesThen(new IllegalStateException("Timeout de Neo4j")), false);
+        assertTrue(body.endsWith("{\"error\":\"Timeout de Neo4j\"}"), body);
+        assertThrows(JsonProcessingException.class, () -> json.readTree(body));
+
+        String[] lines = write(twoRoutesThen(new IllegalStateException("Timeout de Neo4j")), true).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("Timeout de Neo4j", json.readTree(lines[2]).get("error").asText());
+    }
+}
@@ -0,0 +1,39 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTests {
+
+    @Test
+    void testMatchesDijkstraAndSurvivesRoundTrip(@TempDir Path dir) throws Exception {
+        GraphSnapshot graph = ShortestPathsTests.randomGrid(30, 11);
+        ContractionHierarchy built = ContractionHierarchy.build(graph);
+        Path file = dir.resolve("graph.ch");
+        built.write(file);
+        ContractionHierarchy hierarchy = ContractionHierarchy.read(file);
+        assertTrue(hierarchy.matches(graph));
+        // Misma cantidad de ciudades y rutas pero otro km: la jerarquía guardada ya no sirve
+        int v = graph.outTargets(0)[graph.outBegin(0)];
+        GraphSnapshot edited = graph.withChanges(new GraphDelta()
+                .addRoad(graph.name(0), graph.name(v), graph.outWeights(0)[graph.outBegin(0)] + 1), 2, 0);
+        assertFalse(hierarchy.matches(edited));
+
+        Random random = new Random(5);
+        for (int q = 0; q < 300; q++) {
+            int s = random.nextInt(graph.nodeCount());
+            int t = random.nextInt(graph.nodeCount());
+            PathResult expected = ShortestPaths.shortestPath(graph, s, t, ShortestPaths.Algorithm.DIJKSTRA);
+            PathResult actual = hierarchy.shortestPath(s, t);
+            assertEquals(expected.distance(), actual.distance());
+            assertEquals(expected.distance(), ShortestPathsTests.length(graph, actual.nodes()));
+            assertEquals(s, actual.nodes()[0]);
+            assertEquals(t, actual.nodes()[actual.nodes().length - 1]);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphComponentsTests {
+
+    // Ciudades alcanzadas desde start con un BFS común
+    private static boolean[] reached(GraphSnapshot graph, int start, GraphTraversal.Direction direction) {
+        GraphTraversal.Result result = GraphTraversal.bfs(graph, start, direction, GraphTraversal.NO_DEPTH_LIMIT);
+        boolean[] reached = new boolean[graph.nodeCount()];
+        for (int i = 0; i < result.count(); i++) {
+            reached[result.node(i)] = true;
+        }
+        return reached;
+    }
+
+    @Test
+    void testSampleGraphHasNoCycles() {
+        GraphSnapshot graph = GraphSnapshotTests.sampleGraph();
+        GraphComponents components = GraphComponents.compute(graph);
+        assertEquals(5, components.componentCount());
+        assertEquals(1, components.weakComponentCount());
+        assertEquals(1, components.largestComponent());
+        int ba = graph.id("Buenos Aires");
+        int mendoza = graph.id("Mendoza");
+        assertFalse(components.onCycle(ba));
+        assertTrue(components.connected(mendoza, ba));
+        assertTrue(components.reaches(ba, mendoza));
+        assertFalse(components.reaches(mendoza, ba));
+        assertFalse(components.reaches(graph.id("La Plata"), graph.id("Santa Fe")));
+        assertTrue(components.matches(graph));
+    }
+
+    @Test
+    void testCyclesAndRemovedCities() {
+        GraphSnapshot graph = GraphSnapshotTests.sampleGraph().withChanges(new GraphDelta()
+                .addRoad("Mendoza", "Santa Fe", 900)
+                .upsertCity("Ushuaia")
+                .removeCity("La Plata"), 2, 0);
+        GraphComponents components = GraphComponents.compute(graph);
+        int santaFe = graph.id("Santa Fe");
+        int ushuaia = graph.id("Ushuaia");
+        // Santa Fe -> Córdoba -> Mendoza -> Santa Fe
+        assertEquals(3, components.componentSize(components.component(santaFe)));
+        assertTrue(components.onCycle(graph.id("Mendoza")));
+        assertFalse(components.onCycle(graph.id("Buenos Aires")));
+        assertFalse(components.onCycle(ushuaia));
+        assertFalse(components.connected(ushuaia, santaFe));
+        assertEquals(5, components.cityCount());
+        assertEquals(2, components.weakComponentCount());
+        assertFalse(components.matches(GraphSnapshotTests.sampleGraph().withChanges(new GraphDelta(), 3, 0)));
+    }
+
+    @Test
+    void testMatchesSearchOnRandomGraphs() {
+        for (long seed = 1; seed <= 3; seed++) {
+            // Menos rutas que ciudades: muchas componentes chicas, algunas con ciclos
+            GraphSnapshot graph = ParallelBfsTests.randomGraph(1_000, 1_000 + 150 * (int) seed, seed);
+            GraphComponents components = GraphComponents.compute(graph);
+            int n = graph.nodeCount();
+            boolean[][] forward = new boolean[n][];
+            for (int u = 0; u < n; u++) {
+                forward[u] = reached(graph, u, GraphTraversal.Direction.OUTGOING);
+            }
+            for (int u = 0; u < n; u++) {
+                boolean[] both = reached(graph, u, GraphTraversal.Direction.BOTH);
+                boolean onCycle = false;
+                for (int v = 0; v < n; v++) {
+                    assertEquals(forward[u][v], components.reaches(u, v));
+                    assertEquals(both[v], components.connected(u, v));
+                    boolean mutual = forward[u][v] && forward[v][u];
+                    assertEquals(mutual, components.component(u) == components.component(v));
+                    onCycle |= mutual && v != u;
+                }
+                assertEquals(onCycle, components.onCycle(u));
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphSnapshotTests {
+
+    // Buenos Aires -> La Plata (60), Buenos Aires -> Santa Fe (470),
+    // Santa Fe -> Córdoba (340), Buenos Aires -> Córdoba (700), Córdoba -> Mendoza (600)
+    static GraphSnapshot sampleGraph() {
+        return GraphSnapshot.builder(1)
+                .addRoad("Buenos Aires", "La Plata", 60)
+                .addRoad("Buenos Aires", "Santa Fe", 470)
+                .addRoad("Santa Fe", "Córdoba", 340)
+                .addRoad("Buenos Aires", "Córdoba", 700)
+                .addRoad("Córdoba", "Mendoza", 600)
+                .build();
+    }
+
+    @Test
+    void testCsrLayout() {
+        GraphSnapshot graph = sampleGraph();
+        assertEquals(5, graph.nodeCount());
+        assertEquals(5, graph.edgeCount());
+        int ba = graph.id("Buenos Aires");
+        assertEquals(3, graph.outEnd(ba) - graph.outBegin(ba));
+        assertEquals(0, graph.inEnd(ba) - graph.inBegin(ba));
+        int cordoba = graph.id("Córdoba");
+        assertEquals(2, graph.inEnd(cordoba) - graph.inBegin(cordoba));
+        assertEquals(-1, graph.id("Rosario"));
+    }
+
+    @Test
+    void testBfsAndDfsReachEveryCity() {
+        GraphSnapshot graph = sampleGraph();
+        int mendoza = graph.id("Mendoza");
+        assertEquals(5, GraphTraversal.bfs(graph, mendoza).length);
+        assertEquals(5, GraphTraversal.dfs(graph, mendoza).length);
+        assertEquals(mendoza, GraphTraversal.dfs(graph, mendoza)[0]);
+    }
+
+    @Test
+    void testShortestPathIgnoresDirection() {
+        GraphSnapshot graph = sampleGraph();
+        PathResult path = ShortestPaths.shortestPath(graph, graph.id("Mendoza"), graph.id("La Plata"));
+        assertEquals(60 + 700 + 600, path.distance());
+        assertEquals(4, path.nodes().length);
+        assertEquals("La Plata", graph.name(path.nodes()[3]));
+    }
+
+    @Test
+    void testWithChangesMatchesFullRebuild() {
+        GraphSnapshot.Builder builder = GraphSnapshot.builder(1);
+        for (int i = 0; i + 1 < 3000; i++) {
+            builder.addRoad("c" + i, "c" + (i + 1), 10);
+        }
+        GraphSnapshot base = builder.build();
+
+        GraphDelta delta = new GraphDelta()
+                .addRoad("c5", "c2500", 1)
+                .addRoad("nueva", "c0", 7)
+                .removeCity("c1500");
+        GraphSnapshot patched = base.withChanges(delta, 2, 99);
+
+        assertEquals(2, patched.version());
+        assertEquals(99, patched.changeMarker());
+        assertEquals(3001, patched.nodeCount());
+        assertEquals(-1, patched.id("c1500"));
+        assertFalse(patched.isAlive(base.id("c1500")));
+        // c5 -> c6 se reemplazó por c5 -> c2500, se agregó nueva -> c0 y se fueron c1499 -> c1500 -> c1501
+        assertEquals(2999 - 2 + 1, patched.edgeCount());
+
+        int c2500 = patched.id("c2500");
+        assertEquals(2, patched.inEnd(c2500) - patched.inBegin(c2500));
+        int c6 = patched.id("c6");
+        assertEquals(0, patched.inEnd(c6) - patched.inBegin(c6));
+        assertEquals(patched.id("nueva"), patched.inSources(0)[patched.inBegin(0)]);
+
+        PathResult path = ShortestPaths.shortestPath(patched, patched.id("nueva"), c2500);
+        assertEquals(7 + 50 + 1, path.distance());
+        assertTrue(ShortestPaths.shortestPath(patched, patched.id("c0"), patched.id("c1000")).isEmpty());
+        // La versión anterior queda intacta
+        assertEquals(10, ShortestPaths.shortestPath(base, base.id("c5"), base.id("c6")).distance());
+    }
+
+    @Test
+    void testSnapshotFileRoundTrip(@TempDir Path directory) throws IOException {
+        GraphSnapshot graph = sampleGraph().withChanges(new GraphDelta()
+                .upsertCity("Rosario", -32.95, -60.65)
+                .addRoad("Rosario", "Santa Fe", 170)
+                .removeCity("La Plata"), 2, 42);
+        Path file = directory.resolve("graph.snapshot");
+        SnapshotFile.write(graph, file);
+        GraphSnapshot read = SnapshotFile.read(file, 7);
+
+        assertEquals(7, read.version());
+        assertEquals(42, read.changeMarker());
+        assertEquals(graph.nodeCount(), read.nodeCount());
+        assertEquals(graph.edgeCount(), read.edgeCount());
+        assertFalse(read.isAlive(sampleGraph().id("La Plata")));
+        assertEquals(-1, read.id("La Plata"));
+        assertEquals(-60.65, read.longitude(read.id("Rosario")));
+        assertEquals(graph.fingerprint(), read.fingerprint());
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            assertEquals(graph.name(v), read.name(v));
+            assertArrayEquals(Arrays.copyOfRange(graph.outTargets(v), graph.outBegin(v), graph.outEnd(v)),
+                    Arrays.copyOfRange(read.outTargets(v), read.outBegin(v), read.outEnd(v)));
+            assertArrayEquals(Arrays.copyOfRange(graph.inSources(v), graph.inBegin(v), graph.inEnd(v)),
+                    Arrays.copyOfRange(read.inSources(v), read.inBegin(v), read.inEnd(v)));
+        }
+
+        // Un byte alterado en el cuerpo invalida el archivo
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> SnapshotFile.read(file, 8));
+    }
+
+    @Test
+    void testFingerprintTracksContentNotVersion() {
+        GraphSnapshot graph = sampleGraph();
+        assertEquals(graph.fingerprint(), sampleGraph().withChanges(new GraphDelta(), 5, 77).fingerprint());
+        // Mismas cantidades de ciudades y rutas, otro km
+        GraphSnapshot edited = graph.withChanges(new GraphDelta().addRoad("Córdoba", "Mendoza", 601), 2, 0);
+        assertEquals(graph.edgeCount(), edited.edgeCount());
+        assertNotEquals(graph.fingerprint(), edited.fingerprint());
+        // Mismos datos numerados en otro orden
+        GraphSnapshot reordered = GraphSnapshot.builder(1)
+                .addRoad("Córdoba", "Mendoza", 600)
+                .addRoad("Buenos Aires", "La Plata", 60)
+                .addRoad("Buenos Aires", "Santa Fe", 470)
+                .addRoad("Santa Fe", "Córdoba", 340)
+                .addRoad("Buenos Aires", "Córdoba", 700)
+                .build();
+        assertNotEquals(graph.fingerprint(), reordered.fingerprint());
+        // Un nombre cambiado
+        assertNotEquals(graph.fingerprint(), graph.withChanges(new GraphDelta()
+                .removeCity("La Plata").addRoad("Buenos Aires", "Ensenada", 60), 2, 0).fingerprint());
+    }
+}
@@ -0,0 +1,115 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphTraversalTests {
+
+    @Test
+    void testBfsLevelsAndParents() {
+        GraphSnapshot graph = GraphSnapshotTests.sampleGraph();
+        GraphTraversal.Result result = GraphTraversal.bfs(graph, graph.id("Mendoza"),
+                GraphTraversal.Direction.BOTH, GraphTraversal.NO_DEPTH_LIMIT);
+        assertEquals(5, result.count());
+        assertEquals(List.of("Mendoza", "Córdoba", "Santa Fe", "Buenos Aires", "La Plata"), names(graph, result));
+        assertArrayEquals(new int[]{0, 1, 2, 2, 3}, depths(result));
+        assertEquals(-1, result.parent(0));
+        assertEquals(graph.id("Córdoba"), result.parent(2));
+        assertEquals(graph.id("Buenos Aires"), result.parent(4));
+    }
+
+    @Test
+    void testMaxDepthAndDirection() {
+        GraphSnapshot graph = GraphSnapshotTests.sampleGraph();
+        int ba = graph.id("Buenos Aires");
+        assertEquals(List.of("Buenos Aires", "La Plata", "Santa Fe", "Córdoba"), names(graph,
+                GraphTraversal.bfs(graph, ba, GraphTraversal.Direction.OUTGOING, 1)));
+        assertEquals(5, GraphTraversal.bfs(graph, ba, GraphTraversal.Direction.OUTGOING,
+                GraphTraversal.NO_DEPTH_LIMIT).count());
+        assertEquals(1, GraphTraversal.dfs(graph, ba, GraphTraversal.Direction.INCOMING,
+                GraphTraversal.NO_DEPTH_LIMIT).count());
+        assertEquals(List.of("Mendoza", "Córdoba", "Santa Fe", "Buenos Aires"), names(graph,
+                GraphTraversal.bfs(graph, graph.id("Mendoza"), GraphTraversal.Direction.INCOMING, 2)));
+        assertEquals(1, GraphTraversal.dfs(graph, ba, GraphTraversal.Direction.BOTH, 0).count());
+    }
+
+    @Test
+    void testDfsMatchesRecursiveVisit() {
+        GraphSnapshot graph = ShortestPathsTests.randomGrid(30, 5);
+        for (GraphTraversal.Direction direction : GraphTraversal.Direction.values()) {
+            for (int maxDepth : new int[]{3, 40, GraphTraversal.NO_DEPTH_LIMIT}) {
+                int start = graph.nodeCount() / 2 + 7;
+                List<int[]> expected = new ArrayList<>();
+                recursiveDfs(graph, start, 0, -1, direction, maxDepth, new boolean[graph.nodeCount()], expected);
+                GraphTraversal.Result result = GraphTraversal.dfs(graph, start, direction, maxDepth);
+                assertEquals(expected.size(), result.count());
+                for (int i = 0; i < result.count(); i++) {
+                    assertArrayEquals(expected.get(i),
+                            new int[]{result.node(i), result.depth(i), result.parent(i)});
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBuffersAreReusedAcrossGraphs() {
+        GraphSnapshot large = ShortestPathsTests.randomGrid(50, 1);
+        GraphSnapshot small = GraphSnapshotTests.sampleGraph();
+        assertEquals(large.nodeCount(), GraphTraversal.bfs(large, 0).length);
+        // El bitset quedó limpio: el grafo chico se recorre entero
+        assertEquals(5, GraphTraversal.dfs(small, small.id("La Plata")).length);
+        assertEquals(large.nodeCount(), GraphTraversal.dfs(large, large.nodeCount() - 1).length);
+        int[] bfs = GraphTraversal.bfs(large, 3);
+        Arrays.sort(bfs);
+        for (int i = 0; i < bfs.length; i++) {
+            assertEquals(i, bfs[i]);
+        }
+    }
+
+    private static void recursiveDfs(GraphSnapshot graph, int v, int depth, int parent,
+                                     GraphTraversal.Direction direction, int maxDepth,
+                                     boolean[] visited, List<int[]> out) {
+        visited[v] = true;
+        out.add(new int[]{v, depth, parent});
+        if (depth >= maxDepth) {
+            return;
+        }
+        if (direction != GraphTraversal.Direction.INCOMING) {
+            for (int e = graph.outBegin(v); e < graph.outEnd(v); e++) {
+                int w = graph.outTargets(v)[e];
+                if (!visited[w]) {
+                    recursiveDfs(graph, w, depth + 1, v, direction, maxDepth, visited, out);
+                }
+            }
+        }
+        if (direction != GraphTraversal.Direction.OUTGOING) {
+            for (int e = graph.inBegin(v); e < graph.inEnd(v); e++) {
+                int w = graph.inSources(v)[e];
+                if (!visited[w]) {
+                    recursiveDfs(graph, w, depth + 1, v, direction, maxDepth, visited, out);
+                }
+            }
+        }
+    }
+
+    private static List<String> names(GraphSnapshot graph, GraphTraversal.Result result) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < result.count(); i++) {
+            names.add(graph.name(result.node(i)));
+        }
+        return names;
+    }
+
+    private static int[] depths(GraphTraversal.Result result) {
+        int[] depths = new int[result.count()];
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = result.depth(i);
+        }
+        return depths;
+    }
+}
@@ -0,0 +1,41 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinimumSpanningTreeTests {
+
+    @Test
+    void testKruskalAndPrimAgree() {
+        GraphSnapshot graph = ShortestPathsTests.randomGrid(50, 21);
+        SpanningForest kruskal = MinimumSpanningTree.kruskal(graph);
+        SpanningForest prim = MinimumSpanningTree.prim(graph);
+        assertEquals(graph.nodeCount() - 1, kruskal.size());
+        assertEquals(graph.nodeCount() - 1, prim.size());
+        assertEquals(kruskal.totalCost(), prim.totalCost());
+
+        SpanningForest boruvka = MinimumSpanningTree.boruvka(graph, ForkJoinPool.commonPool());
+        assertEquals(graph.nodeCount() - 1, boruvka.size());
+        assertEquals(kruskal.totalCost(), boruvka.totalCost());
+    }
+
+    @Test
+    void testDisconnectedGraphYieldsForest() {
+        GraphSnapshot graph = GraphSnapshot.builder(1)
+                .addRoad("A", "B", 4)
+                .addRoad("B", "C", 1)
+                .addRoad("A", "C", 2)
+                .addRoad("D", "E", 7)
+                .build();
+        SpanningForest kruskal = MinimumSpanningTree.kruskal(graph);
+        SpanningForest prim = MinimumSpanningTree.prim(graph);
+        assertEquals(3, kruskal.size());
+        assertEquals(3, prim.size());
+        assertEquals(1 + 2 + 7, kruskal.totalCost());
+        assertEquals(1 + 2 + 7, prim.totalCost());
+        assertEquals(1 + 2 + 7, MinimumSpanningTree.boruvka(graph, ForkJoinPool.commonPool()).totalCost());
+    }
+}
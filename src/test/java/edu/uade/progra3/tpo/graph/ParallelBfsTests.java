@@ -0,0 +1,90 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelBfsTests {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    // Rutas al azar: pocos niveles con fronteras grandes, para que haya niveles en paralelo
+    // y en bottom-up
+    static GraphSnapshot randomGraph(int n, int roads, long seed) {
+        Random random = new Random(seed);
+        GraphSnapshot.Builder builder = GraphSnapshot.builder(1);
+        for (int i = 0; i < n; i++) {
+            builder.addCity("n" + i, 0, 0);
+        }
+        for (int i = 0; i < roads; i++) {
+            builder.addRoad(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(100));
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testSameSetAndLevelsAsSequential() {
+        GraphSnapshot graph = randomGraph(200_000, 600_000, 11);
+        for (GraphTraversal.Direction direction : GraphTraversal.Direction.values()) {
+            for (int maxDepth : new int[]{0, 2, GraphTraversal.NO_DEPTH_LIMIT}) {
+                assertMatchesSequential(graph, 17, direction, maxDepth);
+            }
+        }
+    }
+
+    @Test
+    void testSmallAndDisconnectedGraphs() {
+        GraphSnapshot sample = GraphSnapshotTests.sampleGraph();
+        ParallelBfs.Result result = ParallelBfs.bfs(sample, sample.id("Mendoza"),
+                GraphTraversal.Direction.BOTH, GraphTraversal.NO_DEPTH_LIMIT, POOL);
+        assertEquals(5, result.count());
+        assertEquals(4, result.levelCount());
+        assertMatchesSequential(sample, sample.id("Buenos Aires"), GraphTraversal.Direction.OUTGOING, 1);
+
+        // Muchas componentes: sólo se alcanza la del origen
+        GraphSnapshot sparse = randomGraph(100_000, 40_000, 3);
+        assertMatchesSequential(sparse, 5, GraphTraversal.Direction.BOTH, GraphTraversal.NO_DEPTH_LIMIT);
+    }
+
+    @Test
+    void testDeterministicAcrossRuns() {
+        GraphSnapshot graph = randomGraph(100_000, 400_000, 23);
+        int[] first = ParallelBfs.bfs(graph, 0, GraphTraversal.Direction.BOTH,
+                GraphTraversal.NO_DEPTH_LIMIT, POOL).nodes();
+        for (int run = 0; run < 5; run++) {
+            assertArrayEquals(first, ParallelBfs.bfs(graph, 0, GraphTraversal.Direction.BOTH,
+                    GraphTraversal.NO_DEPTH_LIMIT, POOL).nodes());
+        }
+    }
+
+    private static void assertMatchesSequential(GraphSnapshot graph, int start,
+                                                GraphTraversal.Direction direction, int maxDepth) {
+        GraphTraversal.Result expected = GraphTraversal.bfs(graph, start, direction, maxDepth);
+        int[] level = new int[graph.nodeCount()];
+        Arrays.fill(level, -1);
+        for (int i = 0; i < expected.count(); i++) {
+            level[expected.node(i)] = expected.depth(i);
+        }
+
+        ParallelBfs.Result result = ParallelBfs.bfs(graph, start, direction, maxDepth, POOL);
+        assertEquals(expected.count(), result.count());
+        for (int d = 0; d < result.levelCount(); d++) {
+            for (int i = result.levelBegin(d); i < result.levelEnd(d); i++) {
+                assertEquals(d, level[result.node(i)]);
+                if (i > result.levelBegin(d)) {
+                    assertTrue(result.node(i - 1) < result.node(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PathEnumeratorTests {
+
+    @Test
+    void testSimplePathsRespectLengthAndUniqueness() {
+        GraphSnapshot graph = GraphSnapshotTests.sampleGraph();
+        List<int[]> paths = new ArrayList<>();
+        PathEnumerator.simplePaths(graph, graph.id("La Plata"), graph.id("Mendoza"), 5,
+                (path, length, distance) -> paths.add(Arrays.copyOf(path, length)));
+        // La Plata - BA - Córdoba - Mendoza y La Plata - BA - Santa Fe - Córdoba - Mendoza
+        assertEquals(2, paths.size());
+        for (int[] path : paths) {
+            assertEquals(path.length, Arrays.stream(path).distinct().count());
+        }
+
+        List<int[]> shortOnly = new ArrayList<>();
+        PathEnumerator.simplePaths(graph, graph.id("La Plata"), graph.id("Mendoza"), 3,
+                (path, length, distance) -> shortOnly.add(Arrays.copyOf(path, length)));
+        assertEquals(1, shortOnly.size());
+    }
+
+    @Test
+    void testLengthAboveTheCityCountChangesNothing() {
+        GraphSnapshot graph = GraphSnapshotTests.sampleGraph();
+        int source = graph.id("La Plata");
+        int target = graph.id("Mendoza");
+        GraphSnapshot cyclic = GraphSnapshot.builder(1)
+                .addRoad("A", "B", 1)
+                .addRoad("B", "C", 1)
+                .addRoad("C", "A", 1)
+                .addRoad("B", "A", 5)
+                .build();
+        int start = cyclic.id("A");
+        List<String> paths = new ArrayList<>();
+        List<String> cycles = new ArrayList<>();
+        PathEnumerator.simplePaths(graph, source, target, graph.nodeCount(),
+                (path, length, distance) -> paths.add(Arrays.toString(Arrays.copyOf(path, length))));
+        PathEnumerator.cycles(cyclic, start, cyclic.nodeCount(),
+                (path, length, distance) -> cycles.add(Arrays.toString(Arrays.copyOf(path, length))));
+        assertEquals(2, paths.size());
+        assertEquals(2, cycles.size());
+
+        // Integer.MAX_VALUE + 1 desbordaría cualquier arreglo dimensionado por el largo
+        List<String> unbounded = new ArrayList<>();
+        PathEnumerator.simplePaths(graph, source, target, Integer.MAX_VALUE,
+                (path, length, distance) -> unbounded.add(Arrays.toString(Arrays.copyOf(path, length))));
+        assertEquals(paths, unbounded);
+        unbounded.clear();
+        PathEnumerator.cycles(cyclic, start, Integer.MAX_VALUE,
+                (path, length, distance) -> unbounded.add(Arrays.toString(Arrays.copyOf(path, length))));
+        assertEquals(cycles, unbounded);
+    }
+
+    @Test
+    void testAllocationDoesNotGrowWithTheRequestedLength() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        GraphSnapshot graph = GraphSnapshotTests.sampleGraph();
+        int source = graph.id("La Plata");
+        int target = graph.id("Mendoza");
+        PathEnumerator.PathVisitor ignore = (path, length, distance) -> true;
+        // Calienta el scratch del hilo
+        PathEnumerator.simplePaths(graph, source, target, graph.nodeCount(), ignore);
+
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        PathEnumerator.simplePaths(graph, source, target, 10_000_000, ignore);
+        PathEnumerator.cycles(graph, source, 10_000_000, ignore);
+        // Con arreglos por largo serían unos 320 MB
+        assertTrue(threads.getThreadAllocatedBytes(id) - before < 1 << 20);
+    }
+
+    @Test
+    void testCyclesFollowDirectionAndStopOnDemand() {
+        GraphSnapshot graph = GraphSnapshot.builder(1)
+                .addRoad("A", "B", 1)
+                .addRoad("B", "C", 1)
+                .addRoad("C", "A", 1)
+                .addRoad("B", "A", 5)
+                .build();
+        List<Long> distances = new ArrayList<>();
+        PathEnumerator.cycles(graph, graph.id("A"), 5, (path, length, distance) -> distances.add(distance));
+        distances.sort(null);
+        assertEquals(List.of(3L, 6L), distances);
+
+        int[] seen = {0};
+        PathEnumerator.cycles(graph, graph.id("A"), 5, (path, length, distance) -> ++seen[0] < 1);
+        assertEquals(1, seen[0]);
+    }
+
+    @Test
+    void testDistanceBoundPrunesWithoutLosingPaths() {
+        GraphSnapshot graph = ShortestPathsTests.randomGrid(5, 11);
+        int source = graph.id("n0");
+        int target = graph.id("n24");
+        List<Long> all = new ArrayList<>();
+        PathEnumerator.simplePaths(graph, source, target, 10, (path, length, distance) -> all.add(distance));
+        long maxDistance = ShortestPaths.shortestPath(graph, source, target).distance() + 30;
+
+        List<Long> bounded = new ArrayList<>();
+        PathEnumerator.simplePaths(graph, source, target, 10, maxDistance,
+                (path, length, distance) -> bounded.add(distance));
+        List<Long> expected = all.stream().filter(d -> d <= maxDistance).sorted().toList();
+        bounded.sort(null);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, bounded);
+    }
+
+    @Test
+    void testYenMatchesEnumeratedPaths() {
+        GraphSnapshot graph = ShortestPathsTests.randomGrid(4, 5);
+        int source = graph.id("n0");
+        int target = graph.id("n15");
+        List<Long> all = new ArrayList<>();
+        PathEnumerator.simplePaths(graph, source, target, graph.nodeCount(),
+                (path, length, distance) -> all.add(distance));
+        all.sort(null);
+
+        List<PathResult> top = KShortestPaths.yen(graph, source, target, 8, PathEnumerator.NO_DISTANCE_LIMIT);
+        assertEquals(8, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            int[] nodes = top.get(i).nodes();
+            assertEquals(all.get(i), top.get(i).distance());
+            assertEquals(top.get(i).distance(), ShortestPathsTests.length(graph, nodes));
+            assertEquals(nodes.length, Arrays.stream(nodes).distinct().count());
+        }
+
+        long limit = top.get(3).distance();
+        assertTrue(KShortestPaths.yen(graph, source, target, 8, limit).stream()
+                .allMatch(path -> path.distance() <= limit));
+    }
+}
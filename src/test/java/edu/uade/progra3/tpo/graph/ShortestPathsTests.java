@@ -0,0 +1,170 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortestPathsTests {
+
+    // Grilla con coordenadas reales aproximadas (~111 km por grado) y km >= distancia recta
+    static GraphSnapshot randomGrid(int side, long seed) {
+        Random random = new Random(seed);
+        GraphSnapshot.Builder builder = GraphSnapshot.builder(1);
+        for (int i = 0; i < side * side; i++) {
+            builder.addCity("n" + i, -30 + (i / side) * 0.1, -60 + (i % side) * 0.1);
+        }
+        for (int i = 0; i < side * side; i++) {
+            if (i % side + 1 < side) {
+                builder.addRoad(i, i + 1, 12 + random.nextInt(20));
+            }
+            if (i + side < side * side) {
+                builder.addRoad(i + side, i, 12 + random.nextInt(20));
+            }
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testAllAlgorithmsAgreeOnDistance() {
+        GraphSnapshot graph = randomGrid(40, 7);
+        Random random = new Random(3);
+        for (int q = 0; q < 200; q++) {
+            int s = random.nextInt(graph.nodeCount());
+            int t = random.nextInt(graph.nodeCount());
+            PathResult dijkstra = ShortestPaths.shortestPath(graph, s, t, ShortestPaths.Algorithm.DIJKSTRA);
+            PathResult bidirectional = ShortestPaths.shortestPath(graph, s, t, ShortestPaths.Algorithm.BIDIRECTIONAL);
+            PathResult astar = ShortestPaths.shortestPath(graph, s, t, ShortestPaths.Algorithm.ASTAR);
+            assertEquals(dijkstra.distance(), bidirectional.distance());
+            assertEquals(dijkstra.distance(), astar.distance());
+            assertEquals(dijkstra.distance(), length(graph, bidirectional.nodes()));
+            assertEquals(s, bidirectional.nodes()[0]);
+            assertEquals(t, bidirectional.nodes()[bidirectional.nodes().length - 1]);
+        }
+    }
+
+    @Test
+    void testDistanceMatrixRowsMatchPointQueries() {
+        GraphSnapshot graph = randomGrid(20, 9);
+        int[] targets = {5, 399, 5, -1, 123};
+        DistanceMatrix matrix = new DistanceMatrix(graph, targets);
+        for (int s = 0; s < graph.nodeCount(); s += 37) {
+            long[] row = matrix.row(s);
+            for (int j = 0; j < targets.length; j++) {
+                long expected = targets[j] < 0
+                        ? DistanceMatrix.UNREACHABLE
+                        : ShortestPaths.shortestPath(graph, s, targets[j], ShortestPaths.Algorithm.DIJKSTRA).distance();
+                assertEquals(expected, row[j]);
+            }
+        }
+    }
+
+    @Test
+    void testDistanceRankingPagesMatchFullSort() {
+        GraphSnapshot graph = GraphSnapshot.builder(1)
+                .addRoad("A", "B", 5)
+                .addRoad("B", "C", 5)
+                .addRoad("A", "D", 7)
+                .addRoad("E", "F", 1)
+                .build();
+        DistanceRanking.Page all = DistanceRanking.rank(graph, graph.id("A"), 0, Integer.MAX_VALUE);
+        assertArrayEquals(new long[]{5, 7, 10, -1, -1}, all.distances());
+        assertEquals("C", graph.name(all.cities()[2]));
+
+        GraphSnapshot grid = randomGrid(30, 4);
+        DistanceRanking.Page full = DistanceRanking.rank(grid, 17, 0, Integer.MAX_VALUE);
+        assertEquals(grid.nodeCount() - 1, full.size());
+        for (int i = 0; i < full.size(); i++) {
+            assertEquals(ShortestPaths.shortestPath(grid, 17, full.cities()[i]).distance(), full.distances()[i]);
+            assertTrue(i == 0 || full.distances()[i - 1] <= full.distances()[i]);
+        }
+        DistanceRanking.Page page = DistanceRanking.rank(grid, 17, 40, 25);
+        assertArrayEquals(Arrays.copyOfRange(full.cities(), 40, 65), page.cities());
+        assertEquals(0, DistanceRanking.rank(grid, 17, grid.nodeCount(), 10).size());
+    }
+
+    @Test
+    void testDistanceTableMatchesSearch(@TempDir Path directory) throws IOException {
+        GraphSnapshot graph = randomGrid(12, 21).withChanges(
+                new GraphDelta().upsertCity("isla"), 2, 0);
+        Path file = directory.resolve("graph.apsp");
+        DistanceTable.build(graph, file, ForkJoinPool.commonPool());
+        DistanceTable table = DistanceTable.open(file);
+        assertTrue(table.matches(graph));
+
+        Random random = new Random(8);
+        for (int q = 0; q < 300; q++) {
+            int s = random.nextInt(graph.nodeCount());
+            int t = random.nextInt(graph.nodeCount());
+            PathResult expected = ShortestPaths.shortestPath(graph, s, t);
+            PathResult stored = table.path(graph, s, t);
+            assertEquals(expected.isEmpty(), stored.isEmpty());
+            if (!expected.isEmpty()) {
+                assertEquals(expected.distance(), stored.distance());
+                assertEquals(expected.distance(), length(graph, stored.nodes()));
+                assertEquals(t, stored.nodes()[stored.nodes().length - 1]);
+            }
+        }
+    }
+
+    @Test
+    void testDistanceTableMatchesContentNotCounts(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("graph.apsp");
+        DistanceTable.build(randomGrid(8, 1), file, ForkJoinPool.commonPool());
+        DistanceTable table = DistanceTable.open(file);
+        // Mismas ciudades y cantidad de rutas, otros km: los saltos guardados no sirven
+        assertTrue(table.matches(randomGrid(8, 1)));
+        assertFalse(table.matches(randomGrid(8, 2)));
+    }
+
+    @Test
+    void testDistanceTableRefusesDistancesBeyond32Bits(@TempDir Path directory) {
+        GraphSnapshot graph = GraphSnapshot.builder(1)
+                .addRoad("A", "B", 2_000_000_000)
+                .addRoad("B", "C", 2_000_000_000)
+                .build();
+        Path file = directory.resolve("graph.apsp");
+        assertThrows(IllegalArgumentException.class, () -> DistanceTable.build(graph, file, ForkJoinPool.commonPool()));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testUnreachableTarget() {
+        GraphSnapshot graph = GraphSnapshot.builder(1)
+                .addRoad("A", "B", 5)
+                .addRoad("C", "D", 5)
+                .build();
+        for (ShortestPaths.Algorithm algorithm : ShortestPaths.Algorithm.values()) {
+            assertTrue(ShortestPaths.shortestPath(graph, graph.id("A"), graph.id("D"), algorithm).isEmpty());
+        }
+    }
+
+    // Suma de km del camino tomando la ruta más corta entre cada par consecutivo
+    static long length(GraphSnapshot graph, int[] path) {
+        long total = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            int v = path[i];
+            int w = path[i + 1];
+            long best = Long.MAX_VALUE;
+            for (int e = graph.outBegin(v); e < graph.outEnd(v); e++) {
+                if (graph.outTargets(v)[e] == w) {
+                    best = Math.min(best, graph.outWeights(v)[e]);
+                }
+            }
+            for (int e = graph.inBegin(v); e < graph.inEnd(v); e++) {
+                if (graph.inSources(v)[e] == w) {
+                    best = Math.min(best, graph.inWeights(v)[e]);
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+}
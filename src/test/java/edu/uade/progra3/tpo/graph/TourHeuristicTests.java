@@ -0,0 +1,99 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourHeuristicTests {
+
+    // Puntos en el plano con distancia euclídea redondeada (simétrica)
+    static long[][] randomPlane(int n, long seed) {
+        Random random = new Random(seed);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 1000;
+            y[i] = random.nextDouble() * 1000;
+        }
+        long[][] d = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                d[i][j] = Math.round(Math.hypot(x[i] - x[j], y[i] - y[j]));
+            }
+        }
+        return d;
+    }
+
+    @Test
+    void testMatchesExactSolverOnSmallInstances() {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (long seed = 0; seed < 5; seed++) {
+            long[][] d = randomPlane(10, seed);
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            long exact = TravelingSalesman.solve(d, deadline).distance();
+            TravelingSalesman.Tour tour = TourHeuristic.solve(d, 10, deadline, pool);
+            assertEquals(0, tour.order()[0]);
+            assertEquals(length(d, tour.order()), tour.distance());
+            // 2-opt + Or-opt con 10 arranques no debería alejarse más de un 5% del óptimo
+            assertTrue(tour.distance() <= exact * 1.05, tour.distance() + " vs " + exact);
+        }
+    }
+
+    @Test
+    void testLocalSearchImprovesNearestNeighbour() {
+        long[][] d = randomPlane(1000, 42);
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        TravelingSalesman.Tour tour = TourHeuristic.solve(d, 1, deadline, ForkJoinPool.commonPool());
+        assertEquals(1000, Arrays.stream(tour.order()).distinct().count());
+        assertEquals(length(d, tour.order()), tour.distance());
+        assertTrue(tour.distance() < length(d, TravelingSalesman.nearestNeighbour(d)));
+    }
+
+    @Test
+    void testSparseDistancesMatchTheMatrix() {
+        GraphSnapshot grid = ShortestPathsTests.randomGrid(30, 7);
+        int[] stops = new int[300];
+        for (int i = 0; i < stops.length; i++) {
+            stops[i] = i * 3;
+        }
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        StopDistances sparse = new StopDistances(grid, stops, deadline);
+        TravelingSalesman.Tour tour = TourHeuristic.solve(sparse, 2, deadline, ForkJoinPool.commonPool());
+        assertEquals(stops.length, Arrays.stream(tour.order()).distinct().count());
+        assertEquals(0, tour.order()[0]);
+
+        DistanceMatrix matrix = new DistanceMatrix(grid, stops);
+        long[][] d = new long[stops.length][];
+        for (int i = 0; i < stops.length; i++) {
+            d[i] = matrix.row(stops[i]);
+        }
+        // Candidatas y pares a pedido dan las mismas distancias que la matriz completa
+        assertEquals(length(d, tour.order()), tour.distance());
+        for (int i = 0; i < stops.length; i += 17) {
+            for (int j = 0; j < stops.length; j += 13) {
+                assertEquals(d[i][j], sparse.km(i, j));
+            }
+        }
+    }
+
+    @Test
+    void testSparseDistancesStopSearchingAfterDeadline() {
+        GraphSnapshot grid = ShortestPathsTests.randomGrid(10, 1);
+        StopDistances sparse = new StopDistances(grid, new int[]{0, 5, 50}, System.nanoTime() - 1);
+        assertEquals(0, sparse.near(0).length);
+        // El par se sigue pudiendo calcular a pedido
+        assertEquals(ShortestPaths.shortestPath(grid, 0, 50).distance(), sparse.km(0, 2));
+    }
+
+    private static long length(long[][] d, int[] order) {
+        long total = d[order[order.length - 1]][order[0]];
+        for (int i = 0; i + 1 < order.length; i++) {
+            total += d[order[i]][order[i + 1]];
+        }
+        return total;
+    }
+}
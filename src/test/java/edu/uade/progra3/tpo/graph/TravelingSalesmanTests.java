@@ -0,0 +1,100 @@
+package edu.uade.progra3.tpo.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TravelingSalesmanTests {
+
+    static long[][] randomMatrix(int n, long seed) {
+        Random random = new Random(seed);
+        long[][] d = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                d[i][j] = i == j ? 0 : 10 + random.nextInt(90);
+            }
+        }
+        return d;
+    }
+
+    @Test
+    void testExactSolversAgreeWithBruteForce() {
+        for (long seed = 0; seed < 5; seed++) {
+            long[][] d = randomMatrix(8, seed);
+            long expected = bruteForce(d, new int[]{0, 1, 2, 3, 4, 5, 6, 7}, 1);
+            long deadline = System.nanoTime() + 10_000_000_000L;
+
+            TravelingSalesman.Tour heldKarp = TravelingSalesman.solve(d, deadline, true);
+            TravelingSalesman.Tour branchAndBound = TravelingSalesman.solve(d, deadline, false);
+            assertEquals(expected, heldKarp.distance());
+            assertEquals(expected, branchAndBound.distance());
+            assertTrue(branchAndBound.optimal());
+            assertEquals(expected, length(d, heldKarp.order()));
+            assertEquals(expected, length(d, branchAndBound.order()));
+            assertEquals(0, heldKarp.order()[0]);
+            assertEquals(8, Arrays.stream(heldKarp.order()).distinct().count());
+        }
+    }
+
+    @Test
+    void testExpiredBudgetReturnsBestTourSoFar() {
+        long[][] d = randomMatrix(40, 3);
+        TravelingSalesman.Tour tour = TravelingSalesman.solve(d, System.nanoTime());
+        assertFalse(tour.optimal());
+        assertEquals(40, Arrays.stream(tour.order()).distinct().count());
+        assertEquals(length(d, tour.order()), tour.distance());
+    }
+
+    @Test
+    void testBudgetIsHonouredWhenOneExpansionIsExpensive() {
+        // Con 400 ciudades una sola expansión son ~400 cotas de O(n²)
+        long[][] d = randomMatrix(400, 5);
+        long start = System.nanoTime();
+        TravelingSalesman.Tour tour = TravelingSalesman.solve(d, start + 20_000_000L);
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertFalse(tour.optimal());
+        assertEquals(400, Arrays.stream(tour.order()).distinct().count());
+    }
+
+    @Test
+    void testUnreachableCityHasNoTour() {
+        long[][] d = {
+                {0, 5, -1},
+                {5, 0, -1},
+                {-1, -1, 0}
+        };
+        assertTrue(TravelingSalesman.solve(d, System.nanoTime() + 1_000_000_000L).isEmpty());
+        assertTrue(TravelingSalesman.solve(d, System.nanoTime() + 1_000_000_000L, false).isEmpty());
+    }
+
+    private static long length(long[][] d, int[] order) {
+        long total = d[order[order.length - 1]][order[0]];
+        for (int i = 0; i + 1 < order.length; i++) {
+            total += d[order[i]][order[i + 1]];
+        }
+        return total;
+    }
+
+    // Todas las permutaciones de order[k..] con order[0] fijo
+    private static long bruteForce(long[][] d, int[] order, int k) {
+        if (k == order.length) {
+            return length(d, order);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = k; i < order.length; i++) {
+            swap(order, k, i);
+            best = Math.min(best, bruteForce(d, order, k + 1));
+            swap(order, k, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
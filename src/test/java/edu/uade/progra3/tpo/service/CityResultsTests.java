@@ -0,0 +1,84 @@
+package edu.uade.progra3.tpo.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityResultsTests {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    private static GraphSnapshot cities(int n) {
+        GraphSnapshot.Builder builder = GraphSnapshot.builder(1);
+        for (int i = 0; i < n; i++) {
+            builder.addCity("Ciudad \"" + i + "\" ñ");
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testSameJsonAsPlainLists() throws IOException {
+        GraphSnapshot graph = cities(10);
+        CityResults.Dictionary names = new CityResults.Dictionary(graph);
+        int[] ids = {3, 1, 4, 1, 5, 9};
+
+        CityResults.Cities route = new CityResults.Cities(names, ids);
+        List<String> plain = new ArrayList<>();
+        for (int id : ids) {
+            plain.add(graph.name(id));
+        }
+        assertEquals(plain, route);
+        assertEquals(json.writeValueAsString(Map.of("route", plain)), json.writeValueAsString(Map.of("route", route)));
+
+        CityResults.Pairs pairs = new CityResults.Pairs(names, new int[]{0, 2}, new int[]{1, 3});
+        assertEquals(json.writeValueAsString(List.of(List.of(graph.name(0), graph.name(1)),
+                List.of(graph.name(2), graph.name(3)))), json.writeValueAsString(pairs));
+
+        CityResults.Distances distances = new CityResults.Distances(names, new int[]{7, 2}, new long[]{0, 42});
+        assertEquals(json.readTree(json.writeValueAsString(List.of(
+                        Map.of("city", graph.name(7), "distance", 0L),
+                        Map.of("city", graph.name(2), "distance", 42L)))),
+                json.readTree(json.writeValueAsString(distances)));
+        assertEquals(42L, distances.get(1).get("distance"));
+    }
+
+    @Test
+    void testBinaryFormatsRoundTripAndShrinkRepeatedNames() throws IOException {
+        GraphSnapshot graph = cities(200);
+        int[] ids = new int[20_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (i * 31) % 200;
+        }
+        CityResults.Cities order = new CityResults.Cities(new CityResults.Dictionary(graph), ids);
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        ObjectMapper sharedSmile = new ObjectMapper(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build());
+
+        byte[] asJson = json.writeValueAsBytes(order);
+        byte[] asCbor = cbor.writeValueAsBytes(order);
+        byte[] asSmile = smile.writeValueAsBytes(order);
+        byte[] asSharedSmile = sharedSmile.writeValueAsBytes(order);
+        TypeReference<List<String>> strings = new TypeReference<>() {
+        };
+        assertEquals(order, cbor.readValue(asCbor, strings));
+        assertEquals(order, smile.readValue(asSmile, strings));
+        assertEquals(order, sharedSmile.readValue(asSharedSmile, strings));
+        assertTrue(asCbor.length < asJson.length);
+        assertTrue(asSmile.length < asJson.length);
+        // Con los nombres compartidos, cada repetición ocupa uno o dos bytes
+        assertTrue(asSharedSmile.length * 4 < asJson.length, asSharedSmile.length + " vs " + asJson.length);
+    }
+}
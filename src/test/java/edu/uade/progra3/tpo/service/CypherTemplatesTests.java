@@ -0,0 +1,69 @@
+package edu.uade.progra3.tpo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CypherTemplatesTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final Neo4jClient neo4jClient = mock(Neo4jClient.class);
+    private final CypherTemplates templates = new CypherTemplates(neo4jClient, Runnable::run, registry, true);
+
+    @Test
+    void testEveryDepthUpToTheCapHasItsTemplate() {
+        for (int depth = 1; depth <= CypherTemplates.MAX_DEPTH; depth++) {
+            assertEquals(depth, CypherTemplates.depthFor(depth));
+        }
+        for (int maxLength : new int[]{0, -1, CypherTemplates.MAX_DEPTH + 1, 1000}) {
+            assertThrows(IllegalArgumentException.class, () -> CypherTemplates.depthFor(maxLength));
+            assertThrows(IllegalArgumentException.class, () -> templates.paths(maxLength, false));
+            assertThrows(IllegalArgumentException.class, () -> templates.cycles(maxLength));
+        }
+    }
+
+    @Test
+    void testExpansionStopsAtTheRequestedLength() {
+        assertNotSame(templates.paths(9, false), templates.paths(10, false));
+        assertNotSame(templates.paths(10, false), templates.paths(10, true));
+        assertSame(templates.cycles(12), templates.cycles(12));
+        assertTrue(templates.paths(9, false).text().contains("[:ROAD*..9]"));
+        assertTrue(templates.paths(9, true).text().contains("LIMIT $k"));
+        assertTrue(templates.cycles(3).text().contains("[:ROAD*..3]"));
+        assertFalse(templates.cycles(3).text().contains("$maxLength"));
+
+        Map<String, Object> parameters = CypherTemplates.pathsParameters("A", "B", 100, 5);
+        assertEquals(Map.of("startCity", "A", "endCity", "B", "maxDistance", 100L, "k", 5), parameters);
+    }
+
+    @Test
+    void testOnlyRegisteredTemplatesAreListed() {
+        int registered = 3 * CypherTemplates.MAX_DEPTH + 1;
+        assertEquals(registered, templates.stats().size());
+        templates.paths(5, false);
+        templates.cycles(CypherTemplates.MAX_DEPTH);
+        List<Map<String, Object>> stats = templates.stats();
+        assertEquals(registered, stats.size());
+        Set<Object> names = stats.stream().map(stat -> stat.get("template")).collect(Collectors.toSet());
+        assertTrue(names.containsAll(Set.of("paths.d9", "paths.k.d32", "cycles.d1", "tsp")), names.toString());
+        assertEquals(0L, stats.get(0).get("executions"));
+    }
+
+    @Test
+    void testWarmupFailureDoesNotStopTheApplication() {
+        when(neo4jClient.delegateTo(any())).thenThrow(new IllegalStateException("AuraDB no disponible"));
+        templates.warmUpOnStartup();
+        assertNull(templates.stats().get(0).get("planningMs"));
+    }
+}
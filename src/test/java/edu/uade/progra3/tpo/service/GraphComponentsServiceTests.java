@@ -0,0 +1,69 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.GraphComponents;
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphComponentsServiceTests {
+
+    // Ejecutor manual: el test decide cuándo corre cada build
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+    private final GraphComponentsService service = new GraphComponentsService(pending::add,
+            new GraphMetrics(ObservationRegistry.create(), new SimpleMeterRegistry(), Duration.ofMillis(500)));
+
+    private static GraphSnapshot graph(long version) {
+        return GraphSnapshot.builder(version)
+                .addRoad("A", "B", 5)
+                .addRoad("B", "C", 7)
+                .build();
+    }
+
+    private void runPending() {
+        Runnable task;
+        while ((task = pending.poll()) != null) {
+            task.run();
+        }
+    }
+
+    @Test
+    void testIndexIsBuiltOnPublishOffTheCallingThread() {
+        GraphSnapshot graph = graph(1);
+        service.onPublished(new GraphSnapshotService.Published(graph));
+        // Hasta que corre el build no hay índice y no se encola otro
+        assertNull(service.componentsFor(graph));
+        assertEquals(1, pending.size());
+
+        runPending();
+        GraphComponents index = service.componentsFor(graph);
+        assertNotNull(index);
+        assertTrue(index.matches(graph));
+        assertTrue(index.connected(graph.id("A"), graph.id("C")));
+        assertTrue(pending.isEmpty());
+    }
+
+    @Test
+    void testVersionPublishedDuringABuildIsBuiltNext() {
+        GraphSnapshot first = graph(1);
+        GraphSnapshot second = graph(2);
+        service.onPublished(new GraphSnapshotService.Published(first));
+        Runnable build = pending.poll();
+        // v2 llega con el build de v1 pendiente: el mismo build termina en v2
+        service.onPublished(new GraphSnapshotService.Published(second));
+        assertTrue(pending.isEmpty());
+        build.run();
+
+        assertNotNull(service.componentsFor(second));
+        assertNull(service.componentsFor(first));
+        // Pedir una versión vieja no retrocede el índice
+        runPending();
+        assertNotNull(service.componentsFor(second));
+    }
+}
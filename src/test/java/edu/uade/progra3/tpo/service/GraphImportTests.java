@@ -0,0 +1,217 @@
+package edu.uade.progra3.tpo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphImportTests {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Escritor en memoria: una ruta se escribe sólo si sus dos ciudades ya están
+    private static final class MemoryWriter implements ImportPipeline.BatchWriter {
+        final Set<String> cities = ConcurrentHashMap.newKeySet();
+        final Map<String, Integer> roads = new ConcurrentHashMap<>();
+
+        @Override
+        public long cities(List<Map<String, Object>> batch) {
+            batch.forEach(row -> cities.add((String) row.get("name")));
+            return batch.size();
+        }
+
+        @Override
+        public long roads(List<Map<String, Object>> batch) {
+            long written = 0;
+            for (Map<String, Object> row : batch) {
+                if (cities.contains(row.get("source")) && cities.contains(row.get("target"))) {
+                    roads.put(row.get("source") + "->" + row.get("target"), (Integer) row.get("km"));
+                    written++;
+                }
+            }
+            return written;
+        }
+    }
+
+    private static List<String> read(String content, GraphImportService.Format format) throws IOException {
+        List<String> rows = new ArrayList<>();
+        ImportReader.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format,
+                new ImportReader.Handler() {
+                    @Override
+                    public void city(String name, double latitude, double longitude) {
+                        rows.add(name + "@" + latitude + "," + longitude);
+                    }
+
+                    @Override
+                    public void road(String source, String target, int km) {
+                        rows.add(source + "->" + target + ":" + km);
+                    }
+                });
+        return rows;
+    }
+
+    @Test
+    void testReadsCsvAndNdjson() throws IOException {
+        String csv = """
+                # exportado de la red vial
+                type,name,lat,lon
+                city,Buenos Aires,-34.6,-58.4
+                city,"Santa Fe, Capital",,
+                city,La Plata
+
+                road,Buenos Aires,"Santa Fe, Capital",470
+                """;
+        assertEquals(List.of("Buenos Aires@-34.6,-58.4", "Santa Fe, Capital@NaN,NaN", "La Plata@NaN,NaN",
+                "Buenos Aires->Santa Fe, Capital:470"), read(csv, GraphImportService.Format.CSV));
+
+        String ndjson = """
+                {"type":"city","name":"Buenos Aires","lat":-34.6,"lon":-58.4,"province":"BA"}
+                {"name":"La Plata","lat":null}
+                {"source":"Buenos Aires","target":"La Plata","km":60}
+                """;
+        assertEquals(List.of("Buenos Aires@-34.6,-58.4", "La Plata@NaN,NaN", "Buenos Aires->La Plata:60"),
+                read(ndjson, GraphImportService.Format.NDJSON));
+    }
+
+    @Test
+    void testMalformedRowsReportTheLine() {
+        IllegalArgumentException csv = assertThrows(IllegalArgumentException.class,
+                () -> read("city,A\nroad,A,B,lejos\n", GraphImportService.Format.CSV));
+        assertTrue(csv.getMessage().startsWith("Línea 2"), csv.getMessage());
+        IllegalArgumentException ndjson = assertThrows(IllegalArgumentException.class,
+                () -> read("{\"name\":\"A\"}\n{\"source\":\"A\",\"km\":3}\n", GraphImportService.Format.NDJSON));
+        assertTrue(ndjson.getMessage().startsWith("Línea 2"), ndjson.getMessage());
+    }
+
+    @Test
+    void testKmMustBeANonNegativeInteger() throws IOException {
+        String road = "{\"source\":\"A\",\"target\":\"B\",\"km\":%s}\n";
+        assertEquals(List.of("A->B:12"), read(road.formatted("12.0"), GraphImportService.Format.NDJSON));
+        assertEquals(List.of("A->B:12"), read(road.formatted("\"12\""), GraphImportService.Format.NDJSON));
+        // Un número JSON pasa por la misma validación que el texto
+        for (String km : List.of("12.5", "-3", "-3.0", "null", "3000000000")) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> read(road.formatted(km), GraphImportService.Format.NDJSON));
+            assertTrue(e.getMessage().startsWith("Línea 1"), e.getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> read("road,A,B,12.5\n", GraphImportService.Format.CSV));
+    }
+
+    @Test
+    void testPipelineWritesEveryRowInBatches() {
+        MemoryWriter writer = new MemoryWriter();
+        List<ImportProgress> reports = new ArrayList<>();
+        ImportPipeline pipeline = new ImportPipeline(writer, executor, 4, 100, 0, reports::add);
+        int cities = 5_000;
+        for (int i = 0; i < cities; i++) {
+            pipeline.city("c" + i, Double.NaN, Double.NaN);
+        }
+        for (int i = 0; i < cities; i++) {
+            pipeline.road("c" + i, "c" + (i * 7 + 1) % cities, i);
+        }
+        // La ciudad llega después pero antes de que se escriba el lote de la ruta; la otra
+        // ruta apunta a una ciudad que no existe y queda omitida
+        pipeline.road("c0", "tarde", 1);
+        pipeline.road("c1", "inexistente", 1);
+        pipeline.city("tarde", Double.NaN, Double.NaN);
+        ImportProgress done = pipeline.finish();
+
+        assertEquals(cities + 1, writer.cities.size());
+        assertEquals(cities + 1, writer.roads.size());
+        assertEquals(42, writer.roads.get("c42->c295"));
+        assertEquals(cities + 1, done.citiesWritten());
+        assertEquals(cities + 1, done.roadsWritten());
+        assertEquals(1, done.roadsSkipped());
+        assertTrue(done.done());
+        assertTrue(done.batches() >= 2L * cities / 100);
+        // Con intervalo 0 hay un reporte cada 1024 filas, más el final
+        assertTrue(reports.size() > 5);
+        assertSame(done, reports.get(reports.size() - 1));
+    }
+
+    @Test
+    void testBatchesInFlightNeverShareACity() {
+        // Cada lote de rutas bloquea origen y destino, como el MERGE de la relación en Neo4j
+        Set<String> locked = ConcurrentHashMap.newKeySet();
+        AtomicBoolean overlap = new AtomicBoolean();
+        ImportPipeline pipeline = new ImportPipeline(new ImportPipeline.BatchWriter() {
+            @Override
+            public long cities(List<Map<String, Object>> batch) {
+                return batch.size();
+            }
+
+            @Override
+            public long roads(List<Map<String, Object>> batch) {
+                Set<String> mine = new HashSet<>();
+                batch.forEach(row -> {
+                    mine.add((String) row.get("source"));
+                    mine.add((String) row.get("target"));
+                });
+                for (String city : mine) {
+                    if (!locked.add(city)) {
+                        overlap.set(true);
+                    }
+                }
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                locked.removeAll(mine);
+                return batch.size();
+            }
+        }, executor, 4, 20, Long.MAX_VALUE, progress -> {
+        });
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            pipeline.city("c" + i, Double.NaN, Double.NaN);
+        }
+        for (int i = 0; i < 4_000; i++) {
+            pipeline.road("c" + random.nextInt(200), "c" + random.nextInt(200), i);
+        }
+        assertEquals(4_000, pipeline.finish().roadsWritten());
+        assertFalse(overlap.get());
+    }
+
+    @Test
+    void testFailedBatchStopsTheImport() {
+        ImportPipeline pipeline = new ImportPipeline(new ImportPipeline.BatchWriter() {
+            @Override
+            public long cities(List<Map<String, Object>> batch) {
+                throw new IllegalStateException("Neo4j no disponible");
+            }
+
+            @Override
+            public long roads(List<Map<String, Object>> batch) {
+                return batch.size();
+            }
+        }, executor, 2, 10, Long.MAX_VALUE, progress -> {
+        });
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 1_000; i++) {
+                pipeline.city("c" + i, Double.NaN, Double.NaN);
+            }
+            pipeline.finish();
+        });
+        assertEquals("Neo4j no disponible", e.getMessage());
+    }
+}
@@ -0,0 +1,65 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import edu.uade.progra3.tpo.graph.ShortestPaths;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphMetricsTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private GraphMetrics metrics() {
+        ObservationRegistry observations = ObservationRegistry.create();
+        observations.observationConfig().observationHandler(new DefaultMeterObservationHandler(registry));
+        return new GraphMetrics(observations, registry, Duration.ofMillis(500));
+    }
+
+    @Test
+    void testComputeCountsSearchWorkOfThisThread() {
+        GraphMetrics metrics = metrics();
+        GraphSnapshot graph = GraphSnapshot.builder(1)
+                .addRoad("A", "B", 4)
+                .addRoad("B", "C", 1)
+                .addRoad("A", "C", 7)
+                .build();
+        long distance = metrics.compute("shortestPath", List.of("A", "C"), () -> ShortestPaths.shortestPath(
+                graph, graph.id("A"), graph.id("C"), ShortestPaths.Algorithm.DIJKSTRA).distance());
+        assertEquals(5, distance);
+
+        assertEquals(1, registry.get("graph.compute").tag("operation", "shortestPath").timer().count());
+        // A, B y C reciben etiqueta (C dos veces: 7 y luego 5); se asientan A, B y C
+        assertEquals(4, registry.get("graph.edges.relaxed").tag("operation", "shortestPath").counter().count());
+        assertEquals(3, registry.get("graph.nodes.settled").tag("operation", "shortestPath").counter().count());
+    }
+
+    @Test
+    void testCypherTimerRecordsErrorsAndRethrows() {
+        GraphMetrics metrics = metrics();
+        IOException thrown = assertThrows(IOException.class, () -> metrics.cypher("paths", List.of(), () -> {
+            throw new IOException("cliente desconectado");
+        }));
+        assertEquals("cliente desconectado", thrown.getMessage());
+        assertEquals(1, registry.get("graph.cypher").tag("operation", "paths").tag("error", "IOException")
+                .timer().count());
+    }
+
+    @Test
+    void testResultSizeAndPaths() {
+        GraphMetrics metrics = metrics();
+        assertEquals(List.of("A", "B"), metrics.resultSize("bfs", List.of("A", "B")));
+        metrics.pathsEnumerated("paths", 3);
+        metrics.pathsEnumerated("paths", 0);
+        assertEquals(2, registry.get("graph.result.size").tag("operation", "bfs").summary().totalAmount());
+        assertEquals(3, registry.get("graph.paths.enumerated").tag("operation", "paths").counter().count());
+    }
+}
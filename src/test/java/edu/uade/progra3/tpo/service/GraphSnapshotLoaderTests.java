@@ -0,0 +1,108 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.GraphDelta;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.QueryRunner;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GraphSnapshotLoaderTests {
+
+    private final Neo4jClient neo4jClient = mock(Neo4jClient.class);
+    private final QueryRunner runner = mock(QueryRunner.class);
+    private final List<Record> changed = new ArrayList<>();
+    private final List<Record> deleted = new ArrayList<>();
+    private final GraphSnapshotLoader loader = new GraphSnapshotLoader(neo4jClient, Duration.ofSeconds(60));
+
+    @SuppressWarnings("unchecked")
+    GraphSnapshotLoaderTests() {
+        when(neo4jClient.delegateTo(any())).thenAnswer(invocation -> {
+            Function<QueryRunner, Optional<Object>> callback = invocation.getArgument(0);
+            Neo4jClient.OngoingDelegation<Object> delegation = mock(Neo4jClient.OngoingDelegation.class);
+            when(delegation.run()).thenAnswer(run -> callback.apply(runner));
+            return delegation;
+        });
+        when(runner.run(anyString(), anyMap())).thenAnswer(invocation ->
+                result(invocation.<String>getArgument(0).contains("DeletedCity") ? deleted : changed));
+    }
+
+    private static Result result(List<Record> records) {
+        Iterator<Record> rows = List.copyOf(records).iterator();
+        Result result = mock(Result.class);
+        when(result.hasNext()).thenAnswer(invocation -> rows.hasNext());
+        when(result.next()).thenAnswer(invocation -> rows.next());
+        return result;
+    }
+
+    // Ciudad con una ruta a Rosario; km puede ser null
+    private static Record city(String name, long changedAt, Object km) {
+        Map<String, Object> road = new HashMap<>();
+        road.put("target", "Rosario");
+        road.put("km", km);
+        return new InternalRecord(List.of("name", "lat", "lon", "changedAt", "roads"), List.of(
+                Values.value(name), Values.NULL, Values.NULL, Values.value(changedAt),
+                Values.value(List.of(road))));
+    }
+
+    @Test
+    void testMalformedKmIsSkipped() {
+        assertEquals(120, GraphSnapshotLoader.km(Values.value(120)));
+        assertEquals(12, GraphSnapshotLoader.km(Values.value(12.5)));
+        assertEquals(0, GraphSnapshotLoader.km(Values.value(0L)));
+        assertEquals(-1, GraphSnapshotLoader.km(Values.NULL));
+        assertEquals(-1, GraphSnapshotLoader.km(Values.value("120")));
+        assertEquals(-1, GraphSnapshotLoader.km(Values.value(-5)));
+        assertEquals(-1, GraphSnapshotLoader.km(Values.value(Double.NaN)));
+        assertEquals(-1, GraphSnapshotLoader.km(Values.value(1e12)));
+    }
+
+    @Test
+    void testLateCommitInsideTheWindowIsApplied() {
+        changed.add(city("Córdoba", 100_000, 400));
+        GraphSnapshotLoader.Changes first = loader.changesSince(0, Set.of());
+        assertEquals(Set.of("Córdoba"), first.delta().upsertedCities().keySet());
+        assertEquals(100_000, first.marker());
+
+        // Santa Fe confirma después con un timestamp anterior al marcador
+        changed.add(city("Santa Fe", 90_000, 170));
+        GraphSnapshotLoader.Changes second = loader.changesSince(first.marker(), first.window());
+        assertEquals(Set.of("Santa Fe"), second.delta().upsertedCities().keySet());
+        assertEquals(List.of(new GraphDelta.Edge("Rosario", 170)), second.delta().upsertedCities().get("Santa Fe"));
+        assertEquals(100_000, second.marker());
+
+        // Sin cambios nuevos no hay delta, aunque la ventana vuelva a traer los mismos eventos
+        assertTrue(loader.changesSince(second.marker(), second.window()).delta().isEmpty());
+    }
+
+    @Test
+    void testNewestEventWinsAndBadRoadsAreDropped() {
+        changed.add(city("Paraná", 50_000, null));
+        changed.add(city("Rafaela", 50_000, 90));
+        deleted.add(new InternalRecord(List.of("name", "changedAt"), List.of(Values.value("Rafaela"),
+                Values.value(60_000L))));
+        GraphSnapshotLoader.Changes changes = loader.changesSince(0, Set.of());
+        assertEquals(List.of(), changes.delta().upsertedCities().get("Paraná"));
+        assertEquals(Set.of("Rafaela"), changes.delta().removedCities());
+        assertEquals(60_000, changes.marker());
+    }
+}
@@ -0,0 +1,77 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import edu.uade.progra3.tpo.graph.SnapshotFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GraphSnapshotServiceTests {
+
+    private final GraphSnapshotLoader loader = mock(GraphSnapshotLoader.class);
+    private final List<Object> published = new ArrayList<>();
+
+    private static GraphSnapshot graph(long version, int km) {
+        return GraphSnapshot.builder(version)
+                .addRoad("A", "B", km)
+                .addRoad("B", "C", 7)
+                .build();
+    }
+
+    // Ejecutor sincrónico: la conciliación posterior a leer el archivo corre dentro de current()
+    private GraphSnapshotService service(Path file) {
+        return new GraphSnapshotService(loader, published::add, Runnable::run, true, file, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testBootFromFileIsReconciledWithAFullLoad(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("graph.snapshot");
+        SnapshotFile.write(graph(1, 5), file);
+        // Una ruta cambió sin pasar por el feed: sólo la carga completa la ve
+        when(loader.load(anyLong())).thenAnswer(invocation -> graph(invocation.getArgument(0), 9));
+
+        GraphSnapshot current = service(file).current();
+        assertEquals(graph(1, 9).fingerprint(), current.fingerprint());
+        assertEquals(2, current.version());
+        // Se anunciaron el snapshot del archivo y el conciliado
+        assertEquals(List.of(1L, 2L), published.stream()
+                .map(event -> ((GraphSnapshotService.Published) event).snapshot().version()).toList());
+    }
+
+    @Test
+    void testReconcileKeepsTheSnapshotWhenNothingChanged(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("graph.snapshot");
+        SnapshotFile.write(graph(1, 5), file);
+        when(loader.load(anyLong())).thenAnswer(invocation -> graph(invocation.getArgument(0), 5));
+
+        GraphSnapshotService service = service(file);
+        GraphSnapshot booted = service.current();
+        service.reconcile();
+        assertSame(booted, service.current());
+        assertEquals(1, booted.version());
+    }
+
+    @Test
+    void testFailedLoadIsNotRetriedInsideTheBackoff(@TempDir Path directory) {
+        when(loader.load(anyLong())).thenThrow(new IllegalStateException("Neo4j no responde"));
+
+        GraphSnapshotService service = service(directory.resolve("graph.snapshot"));
+        assertNull(service.current());
+        // Los requests siguientes van a Cypher sin volver a intentar la carga completa
+        assertNull(service.current());
+        assertNull(service.current());
+        verify(loader, times(1)).load(anyLong());
+    }
+}
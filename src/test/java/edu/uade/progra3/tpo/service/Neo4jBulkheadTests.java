@@ -0,0 +1,81 @@
+package edu.uade.progra3.tpo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class Neo4jBulkheadTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final PlatformTransactionManager transactions = mock(PlatformTransactionManager.class);
+    private final List<TransactionDefinition> started = new ArrayList<>();
+
+    Neo4jBulkheadTests() {
+        when(transactions.getTransaction(any())).thenAnswer(invocation -> {
+            started.add(invocation.getArgument(0));
+            return null;
+        });
+    }
+
+    private Neo4jBulkhead bulkhead(int maxConcurrency, Duration acquireTimeout) {
+        return new Neo4jBulkhead(transactions, registry, maxConcurrency, acquireTimeout, Duration.ofSeconds(30));
+    }
+
+    private double rejected(String operation) {
+        return registry.counter("graph.neo4j.rejected", "operation", operation).count();
+    }
+
+    @Test
+    void testQueriesRunInReadOnlyTransactionsWithTheQueryTimeout() {
+        Neo4jBulkhead bulkhead = bulkhead(2, Duration.ofSeconds(1));
+        assertEquals("ok", bulkhead.call("paths", () -> "ok"));
+        assertEquals(1, started.size());
+        assertTrue(started.get(0).isReadOnly());
+        assertEquals(30, started.get(0).getTimeout());
+        assertEquals(0, registry.get("graph.neo4j.active").gauge().value());
+    }
+
+    @Test
+    void testSaturatedAfterTheAcquireTimeout() {
+        Neo4jBulkhead bulkhead = bulkhead(1, Duration.ofMillis(50));
+        try (Neo4jBulkhead.Permit held = bulkhead.reserve("paths")) {
+            assertEquals(1, registry.get("graph.neo4j.active").gauge().value());
+            long start = System.nanoTime();
+            assertThrows(Neo4jBulkhead.Saturated.class, () -> bulkhead.call("cycles", () -> "no"));
+            // Esperó el plazo completo antes de rechazar
+            assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+            assertEquals(1, rejected("cycles"));
+            assertFalse(bulkhead.tryAcquire("reactive"));
+            assertEquals(1, rejected("reactive"));
+        }
+        // Cerrar el permiso devuelve el lugar
+        assertEquals("ok", bulkhead.call("cycles", () -> "ok"));
+    }
+
+    @Test
+    void testPermitIsReleasedOnceEvenIfTheQueryFails() {
+        Neo4jBulkhead bulkhead = bulkhead(1, Duration.ofMillis(10));
+        Neo4jBulkhead.Permit permit = bulkhead.reserve("paths");
+        assertThrows(IOException.class, () -> permit.call(() -> {
+            throw new IOException("corte");
+        }));
+        permit.close();
+        assertTrue(bulkhead.tryAcquire("paths"));
+        // Un segundo close no libera un lugar que no le pertenece
+        permit.close();
+        assertFalse(bulkhead.tryAcquire("paths"));
+        bulkhead.release();
+    }
+}
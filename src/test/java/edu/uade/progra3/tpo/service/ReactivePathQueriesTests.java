@@ -0,0 +1,134 @@
+package edu.uade.progra3.tpo.service;
+
+import edu.uade.progra3.tpo.graph.GraphSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.data.neo4j.core.ReactiveNeo4jClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReactivePathQueriesTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ReactiveNeo4jClient neo4jClient = mock(ReactiveNeo4jClient.class);
+    private final GraphSnapshotService snapshots = mock(GraphSnapshotService.class);
+    private final GraphAlgorithms graphAlgorithms = mock(GraphAlgorithms.class);
+    private final Neo4jBulkhead bulkhead = new Neo4jBulkhead(mock(PlatformTransactionManager.class), registry,
+            1, Duration.ofMillis(10), Duration.ofSeconds(5));
+    private final ReactivePathQueries queries = new ReactivePathQueries(neo4jClient, snapshots, graphAlgorithms,
+            bulkhead, new GraphMetrics(ObservationRegistry.create(), registry, Duration.ofMillis(500)),
+            new CypherTemplates(mock(Neo4jClient.class), Runnable::run, registry, false));
+
+    @SuppressWarnings("unchecked")
+    private void neo4jReturns(Flux<Map<String, Object>> records) {
+        ReactiveNeo4jClient.UnboundRunnableSpec spec = mock(ReactiveNeo4jClient.UnboundRunnableSpec.class);
+        ReactiveNeo4jClient.RecordFetchSpec<Map<String, Object>> fetch = mock(ReactiveNeo4jClient.RecordFetchSpec.class);
+        when(neo4jClient.query(anyString())).thenReturn(spec);
+        when(spec.bindAll(anyMap())).thenReturn(spec);
+        when(spec.fetch()).thenReturn(fetch);
+        when(fetch.all()).thenReturn(records);
+    }
+
+    private static Map<String, Object> record(String... route) {
+        return Map.of("route", List.of(route), "totalDistance", 10L * route.length, "ignored", true);
+    }
+
+    @Test
+    void testCypherPathsAreCappedAndReleaseTheBulkhead() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        neo4jReturns(Flux.just(record("A", "B"), record("A", "C", "B"), record("A", "D", "B"))
+                .doOnCancel(() -> cancelled.set(true)));
+        when(graphAlgorithms.pathsCap(null, 2)).thenReturn(2);
+
+        List<Map<String, Object>> paths = queries.paths("A", "B", 5, null, null, 2).collectList().block();
+        assertEquals(2, paths.size());
+        assertEquals(Map.of("route", List.of("A", "C", "B"), "totalDistance", 30L), paths.get(1));
+        assertTrue(cancelled.get());
+        // El lugar se devolvió al cortar el flujo
+        assertTrue(bulkhead.tryAcquire("paths"));
+        bulkhead.release();
+    }
+
+    @Test
+    void testCypherPathsFailFastWhenSaturated() {
+        neo4jReturns(Flux.just(record("A", "B")));
+        when(graphAlgorithms.pathsCap(any(), anyInt())).thenReturn(10);
+        try (Neo4jBulkhead.Permit held = bulkhead.reserve("other")) {
+            Flux<Map<String, Object>> paths = queries.paths("A", "B", 5, null, null, 10);
+            assertThrows(Neo4jBulkhead.Saturated.class, paths::blockLast);
+        }
+        assertEquals(1, registry.counter("graph.neo4j.rejected", "operation", "paths").count());
+    }
+
+    @Test
+    void testSnapshotCyclesStopWhenTheSubscriberCancels() throws Exception {
+        when(snapshots.current()).thenReturn(GraphSnapshot.builder(1).build());
+        AtomicInteger offered = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            GraphAlgorithms.RouteSink sink = invocation.getArgument(3);
+            String[] route = {"A", "B", "A"};
+            try {
+                while (offered.incrementAndGet() < 10_000_000) {
+                    if (!sink.accept(route, 3, 20)) {
+                        stopped.set(true);
+                        return null;
+                    }
+                }
+                return null;
+            } finally {
+                finished.countDown();
+            }
+        }).when(graphAlgorithms).streamAllCycles(eq("A"), eq(5), eq(100), any());
+
+        List<Map<String, Object>> cycles = queries.cycles("A", 5, 100).take(2).collectList().block();
+        assertEquals(2, cycles.size());
+        assertEquals(List.of("A", "B", "A"), cycles.get(0).get("cycle"));
+        // La enumeración corre en boundedElastic y se entera de la cancelación en el próximo camino
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertTrue(stopped.get());
+    }
+
+    @Test
+    void testMaxLengthIsCheckedBeforeSubscribingWithASnapshot() {
+        when(snapshots.current()).thenReturn(GraphSnapshot.builder(1).build());
+        assertThrows(IllegalArgumentException.class, () -> queries.paths("A", "B", Integer.MAX_VALUE, null, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> queries.cycles("A", 0, 10));
+    }
+
+    @Test
+    void testSnapshotPathsUseTheInMemoryEnumeration() throws Exception {
+        when(snapshots.current()).thenReturn(GraphSnapshot.builder(1).build());
+        doAnswer(invocation -> {
+            GraphAlgorithms.RouteSink sink = invocation.getArgument(6);
+            sink.accept(new String[]{"A", "B"}, 2, 7);
+            return null;
+        }).when(graphAlgorithms).streamAllPaths(eq("A"), eq("B"), eq(4), isNull(), isNull(), eq(10), any());
+
+        assertEquals(List.of(Map.of("route", List.of("A", "B"), "totalDistance", 7L)),
+                queries.paths("A", "B", 4, null, null, 10).collectList().block());
+    }
+}
@@ -0,0 +1,96 @@
+package edu.uade.progra3.tpo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTests {
+
+    @Test
+    void testHitsAreKeyedByVersion() {
+        ResultCache cache = new ResultCache(true, 100);
+        AtomicInteger computations = new AtomicInteger();
+        assertEquals("a1", cache.get("k", 1, List.of("a"), value -> 1, () -> "a" + computations.incrementAndGet()));
+        assertEquals("a1", cache.get("k", 1, List.of("a"), value -> 1, () -> "a" + computations.incrementAndGet()));
+        assertEquals(1, computations.get());
+
+        // Una versión nueva no ve el resultado anterior y lo descarta
+        assertEquals("a2", cache.get("k", 2, List.of("a"), value -> 1, () -> "a" + computations.incrementAndGet()));
+        assertEquals(1L, cache.stats().get("invalidations"));
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(2L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void testScanDoesNotEvictProtectedEntries() {
+        ResultCache cache = new ResultCache(true, 10);
+        cache.get("k", 1, List.of("hot"), value -> 2, () -> "hot");
+        cache.get("k", 1, List.of("hot"), value -> 2, () -> "hot");
+        for (int i = 0; i < 50; i++) {
+            int n = i;
+            cache.get("k", 1, List.of(n), value -> 1, () -> "cold" + n);
+        }
+        assertEquals("hot", cache.get("k", 1, List.of("hot"), value -> 2, () -> "recomputed"));
+        assertTrue((Long) cache.stats().get("weight") <= 10);
+        assertTrue((Long) cache.stats().get("evictions") > 0);
+    }
+
+    @Test
+    void testWholeGraphResultsIgnoreTheWeightCap() {
+        ResultCache cache = new ResultCache(true, 10);
+        AtomicInteger computations = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertEquals("forest", cache.getWholeGraph("prim", 1, List.of(), () -> {
+                computations.incrementAndGet();
+                return "forest";
+            }));
+            // Un barrido del LRU no lo desplaza
+            int n = i;
+            cache.get("k", 1, List.of(n), value -> 10, () -> "big" + n);
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.stats().get("wholeGraphEntries"));
+
+        // La versión siguiente lo recalcula y descarta el anterior
+        assertEquals("forest2", cache.getWholeGraph("prim", 2, List.of(), () -> "forest2"));
+        assertEquals(1, cache.stats().get("wholeGraphEntries"));
+    }
+
+    @Test
+    void testConcurrentMissesShareOneComputation() throws Exception {
+        ResultCache cache = new ResultCache(true, 100);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> cache.get("mst", 1, List.of(), value -> 1, () -> {
+                    computations.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "tree";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("tree", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+    }
+}